@@ -0,0 +1,115 @@
+package geometries;
+
+import org.openjdk.jmh.annotations.*;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import geometries.Intersectable.GeoPoint;
+
+/**
+ * Benchmarks of the traversal of a collection of geometries at various object counts,
+ * with and without a bounding volume hierarchy.
+ * The scene and the rays are generated from a fixed seed so the results are reproducible.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GeometriesBenchmark {
+
+    /**
+     * Number of the prepared rays (a power of 2)
+     */
+    private static final int RAYS = 1024;
+    /**
+     * Seed of the generated scene and rays
+     */
+    private static final long SEED = 7162;
+
+    /**
+     * Number of geometries in the collection
+     */
+    @Param({"10", "100", "1000", "10000"})
+    public int count;
+
+    /**
+     * Whether the bounding volume hierarchy is built over the collection
+     */
+    @Param({"false", "true"})
+    public boolean bvh;
+
+    private Geometries geometries;
+    private Ray[] rays;
+    private int next;
+
+    /**
+     * Generates the collection - spheres and triangles spread in a cube - and the rays shot at it
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(SEED);
+        geometries = new Geometries();
+        for (int i = 0; i < count; ++i) {
+            Point center = randomPoint(random, 100);
+            if (i % 2 == 0)
+                geometries.add(new Sphere(center, 1 + 2 * random.nextDouble()));
+            else
+                geometries.add(new Triangle(center.add(new Vector(3, 0, 0)), center.add(new Vector(0, 3, 0)),
+                        center.add(new Vector(0, 0, 3))));
+        }
+        if (bvh) geometries.buildBVH();
+
+        Point origin = new Point(0, 0, 300);
+        rays = new Ray[RAYS];
+        for (int i = 0; i < RAYS; ++i)
+            rays[i] = new Ray(origin, randomPoint(random, 100).subtract(origin));
+    }
+
+    /**
+     * Generates a random point in a cube around the origin
+     *
+     * @param random the random generator
+     * @param size   half of the edge of the cube
+     * @return the point
+     */
+    private static Point randomPoint(Random random, double size) {
+        return new Point(size * (2 * random.nextDouble() - 1), size * (2 * random.nextDouble() - 1),
+                size * (2 * random.nextDouble() - 1));
+    }
+
+    /**
+     * Gets the next prepared ray
+     *
+     * @return the ray
+     */
+    private Ray nextRay() {
+        return rays[next++ & (RAYS - 1)];
+    }
+
+    /**
+     * The closest intersection query, as used for the camera and the secondary rays
+     *
+     * @return the closest intersection
+     */
+    @Benchmark
+    public GeoPoint closestIntersection() {
+        return geometries.findClosestGeoIntersection(nextRay());
+    }
+
+    /**
+     * The query of all the intersections
+     *
+     * @return the intersections
+     */
+    @Benchmark
+    public List<GeoPoint> allIntersections() {
+        return geometries.findGeoIntersections(nextRay());
+    }
+}
@@ -0,0 +1,94 @@
+package geometries;
+
+import org.openjdk.jmh.annotations.*;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import geometries.Intersectable.GeoPoint;
+
+/**
+ * Benchmarks of the intersection calculations of the basic geometries.
+ * Each geometry is measured with a ray that hits it and with a ray that misses it,
+ * since rejecting a ray is the most common case in a scene with many geometries.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IntersectionBenchmark {
+
+    // the fields are not final to prevent the JIT from folding the calculations into constants
+    private Sphere sphere = new Sphere(new Point(0, 0, -100), 50);
+    private Triangle triangle = new Triangle(new Point(-50, -50, -100), new Point(50, -50, -100),
+            new Point(0, 50, -100));
+    private Plane plane = new Plane(new Point(0, 0, -100), new Vector(0, 0.2, 1));
+
+    private Ray hitRay = new Ray(new Point(0, 0, 0), new Vector(0.1, -0.05, -1));
+    private Ray missRay = new Ray(new Point(0, 0, 0), new Vector(1, 1, 0.5));
+
+    /**
+     * Intersection of a ray that hits the sphere twice
+     *
+     * @return the intersections
+     */
+    @Benchmark
+    public List<GeoPoint> sphereHit() {
+        return sphere.findGeoIntersectionsHelper(hitRay, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Intersection of a ray that misses the sphere
+     *
+     * @return the intersections (none)
+     */
+    @Benchmark
+    public List<GeoPoint> sphereMiss() {
+        return sphere.findGeoIntersectionsHelper(missRay, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Intersection of a ray that hits the triangle
+     *
+     * @return the intersections
+     */
+    @Benchmark
+    public List<GeoPoint> triangleHit() {
+        return triangle.findGeoIntersectionsHelper(hitRay, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Intersection of a ray that misses the triangle
+     *
+     * @return the intersections (none)
+     */
+    @Benchmark
+    public List<GeoPoint> triangleMiss() {
+        return triangle.findGeoIntersectionsHelper(missRay, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Intersection of a ray that hits the plane
+     *
+     * @return the intersections
+     */
+    @Benchmark
+    public List<GeoPoint> planeHit() {
+        return plane.findGeoIntersectionsHelper(hitRay, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Intersection of a ray that goes away from the plane
+     *
+     * @return the intersections (none)
+     */
+    @Benchmark
+    public List<GeoPoint> planeMiss() {
+        return plane.findGeoIntersectionsHelper(missRay, Double.POSITIVE_INFINITY);
+    }
+}
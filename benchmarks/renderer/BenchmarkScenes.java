@@ -0,0 +1,100 @@
+package renderer;
+
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.AmbientLight;
+import lighting.SpotLight;
+import primitives.*;
+import scene.Scene;
+
+import static java.awt.Color.BLUE;
+import static java.awt.Color.RED;
+
+/**
+ * The reference scenes of the rendering benchmarks, taken from the reflection and refraction tests
+ */
+final class BenchmarkScenes {
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private BenchmarkScenes() {
+    }
+
+    /**
+     * Creates a reference scene by its name
+     *
+     * @param name the name of the scene (as the name of its image in the tests)
+     * @return the scene
+     */
+    static Scene scene(String name) {
+        return switch (name) {
+            case "refractionTwoSpheres" -> twoSpheres();
+            case "reflectionTwoSpheresMirrored" -> twoSpheresOnMirrors();
+            default -> throw new IllegalArgumentException("Unknown benchmark scene: " + name);
+        };
+    }
+
+    /**
+     * Creates the camera of a reference scene by its name
+     *
+     * @param name the name of the scene (as the name of its image in the tests)
+     * @return the camera
+     */
+    static Camera camera(String name) {
+        return switch (name) {
+            case "refractionTwoSpheres" ->
+                    new Camera(new Point(0, 0, 1000), new Vector(0, 0, -1), new Vector(0, 1, 0))
+                            .setVPSize(150, 150).setVPDistance(1000);
+            case "reflectionTwoSpheresMirrored" ->
+                    new Camera(new Point(0, 0, 10000), new Vector(0, 0, -1), new Vector(0, 1, 0))
+                            .setVPSize(2500, 2500).setVPDistance(10000);
+            default -> throw new IllegalArgumentException("Unknown benchmark scene: " + name);
+        };
+    }
+
+    /**
+     * A transparent sphere with a sphere inside it, lighted by a spotlight
+     *
+     * @return the scene
+     */
+    private static Scene twoSpheres() {
+        Scene scene = new Scene("refractionTwoSpheres");
+        scene.geometries.add( //
+                new Sphere(new Point(0, 0, -50), 50d).setEmission(new Color(BLUE)) //
+                        .setMaterial(new Material().setKd(0.4).setKs(0.3).setShininess(100).setKt(0.3)),
+                new Sphere(new Point(0, 0, -50), 25d).setEmission(new Color(RED)) //
+                        .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(100)));
+        scene.lights.add( //
+                new SpotLight(new Color(1000, 600, 0), new Point(-100, -100, 500), new Vector(-1, -1, -2)) //
+                        .setKl(0.0004).setKq(0.0000006));
+        return scene;
+    }
+
+    /**
+     * Two spheres reflected by two mirrors, lighted by a spotlight
+     *
+     * @return the scene
+     */
+    private static Scene twoSpheresOnMirrors() {
+        Scene scene = new Scene("reflectionTwoSpheresMirrored");
+        scene.setAmbientLight(new AmbientLight(new Color(255, 255, 255), 0.1));
+        scene.geometries.add( //
+                new Sphere(new Point(-950, -900, -1000), 400d).setEmission(new Color(0, 50, 100)) //
+                        .setMaterial(new Material().setKd(0.25).setKs(0.25).setShininess(20)
+                                .setKt(new Double3(0.5, 0, 0))),
+                new Sphere(new Point(-950, -900, -1000), 200d).setEmission(new Color(100, 50, 20)) //
+                        .setMaterial(new Material().setKd(0.25).setKs(0.25).setShininess(20)),
+                new Triangle(new Point(1500, -1500, -1500), new Point(-1500, 1500, -1500),
+                        new Point(670, 670, 3000)) //
+                        .setEmission(new Color(20, 20, 20)) //
+                        .setMaterial(new Material().setKr(1)),
+                new Triangle(new Point(1500, -1500, -1500), new Point(-1500, 1500, -1500),
+                        new Point(-1500, -1500, -2000)) //
+                        .setEmission(new Color(20, 20, 20)) //
+                        .setMaterial(new Material().setKr(new Double3(0.5, 0, 0.4))));
+        scene.lights.add(new SpotLight(new Color(1020, 400, 400), new Point(-750, -750, -150),
+                new Vector(-1, -1, -4)).setKl(0.00001).setKq(0.000005));
+        return scene;
+    }
+}
@@ -0,0 +1,54 @@
+package renderer;
+
+import org.openjdk.jmh.annotations.*;
+import primitives.Color;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of writing a rendered image into a file
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ImageWriterBenchmark {
+
+    /**
+     * Resolution of the image (in both directions)
+     */
+    @Param({"500", "1080"})
+    public int size;
+
+    /**
+     * Format of the image file
+     */
+    @Param({"png", "ppm", "pfm"})
+    public String format;
+
+    private ImageWriter imageWriter;
+
+    /**
+     * Fills an image with a gradient, so it is not trivially compressed
+     */
+    @Setup
+    public void setup() {
+        //noinspection ResultOfMethodCallIgnored
+        new File(System.getProperty("user.dir"), "images").mkdirs();
+        imageWriter = new ImageWriter("benchmark", size, size).setEncoder(ImageEncoder.of(format));
+        for (int i = 0; i < size; ++i)
+            for (int j = 0; j < size; ++j)
+                imageWriter.writePixel(j, i, new Color(255d * j / size, 255d * i / size, 255d * (i ^ j) / size));
+    }
+
+    /**
+     * Writing the image into a file
+     */
+    @Benchmark
+    public void writeToImage() {
+        imageWriter.writeToImage();
+    }
+}
@@ -0,0 +1,80 @@
+package renderer;
+
+import org.openjdk.jmh.annotations.*;
+import primitives.Color;
+import primitives.Ray;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the per pixel work of the renderer - constructing the ray of a pixel
+ * and tracing it in the reference scenes.
+ * The operations cycle over all the pixels of the image, so the result is averaged over the whole image.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderBenchmark {
+
+    /**
+     * Resolution of the image (in both directions)
+     */
+    private static final int SIZE = 500;
+
+    /**
+     * The name of the reference scene
+     */
+    @Param({"refractionTwoSpheres", "reflectionTwoSpheresMirrored"})
+    public String scene;
+
+    /**
+     * Whether the shadow rays test the last occluders of the lights first
+     */
+    @Param({"true", "false"})
+    public boolean shadowCache;
+
+    private Camera camera;
+    private RayTracerBase rayTracer;
+    private Ray[] rays;
+    private int next;
+
+    /**
+     * Creates the scene and prepares the rays of all the pixels
+     */
+    @Setup
+    public void setup() {
+        camera = BenchmarkScenes.camera(scene);
+        rayTracer = new RayTracerBasic(BenchmarkScenes.scene(scene)).setShadowCache(shadowCache);
+        rays = new Ray[SIZE * SIZE];
+        for (int i = 0; i < SIZE; ++i)
+            for (int j = 0; j < SIZE; ++j)
+                rays[i * SIZE + j] = camera.constructRay(SIZE, SIZE, j, i);
+    }
+
+    /**
+     * Tracing the ray of a pixel
+     *
+     * @return the color of the pixel
+     */
+    @Benchmark
+    public Color traceRay() {
+        Color color = rayTracer.traceRay(rays[next]);
+        if (++next == rays.length) next = 0;
+        return color;
+    }
+
+    /**
+     * Constructing the ray of a pixel
+     *
+     * @return the ray
+     */
+    @Benchmark
+    public Ray constructRay() {
+        int pixel = next;
+        if (++next == rays.length) next = 0;
+        return camera.constructRay(SIZE, SIZE, pixel % SIZE, pixel / SIZE);
+    }
+}
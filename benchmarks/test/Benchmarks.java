@@ -0,0 +1,39 @@
+package test;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks of the ray tracer with the allocation profiler,
+ * so every result reports both the time per operation and the allocation rate (gc.alloc.rate.norm)
+ *
+ * <p>Any JMH command line options may be given, e.g. a regular expression selecting the benchmarks:
+ * <pre>  java test.Benchmarks GeometriesBenchmark -p count=1000 -rf json -rff results.json</pre>
+ */
+public final class Benchmarks {
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private Benchmarks() {
+    }
+
+    /**
+     * Runs the benchmarks
+     *
+     * @param args JMH command line options
+     * @throws CommandLineOptionException if the options are illegal
+     * @throws RunnerException            if the benchmarks failed
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,25 @@
+package geometries;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of building the bounding volume hierarchy of a geometries collection
+ * (see {@link Geometries#buildBVH()})
+ */
+@Name("raytracer.BVHBuild")
+@Label("Acceleration Build")
+@Category({"Ray Tracer", "Scene"})
+@Description("Building of a bounding volume hierarchy")
+final class BVHBuildEvent extends jdk.jfr.Event {
+
+    @Label("Bounded Geometries")
+    @Description("The geometries in the hierarchy")
+    int bounded;
+
+    @Label("Unbounded Geometries")
+    @Description("The geometries tested for every ray, outside of the hierarchy")
+    int unbounded;
+}
@@ -0,0 +1,243 @@
+package geometries;
+
+import primitives.Double3;
+import primitives.Ray;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * The BVHNode class represents a node of a bounding volume hierarchy (BVH) over bounded geometries.
+ * <p>
+ * The hierarchy is built top-down by the surface area heuristic (SAH): the items are binned by the
+ * centers of their bounding boxes and every node is split where the expected cost of intersecting
+ * both halves is the lowest. A ray descends only into the children whose boxes it passes through.
+ */
+class BVHNode extends Intersectable {
+
+    /**
+     * The bounding box of all the items under the node
+     */
+    private final BoundingBox box;
+    /**
+     * The children of the node - two sub nodes (or single items) for an inner node, the items for a leaf
+     */
+    private final Intersectable[] children;
+    /**
+     * Whether the node is a leaf - its items are tested one by one
+     */
+    private final boolean leaf;
+
+    /**
+     * Constructs a node from its children.
+     *
+     * @param box      the bounding box of the node
+     * @param children the children of the node
+     * @param leaf     whether the node is a leaf
+     */
+    private BVHNode(BoundingBox box, Intersectable[] children, boolean leaf) {
+        this.box = box;
+        this.children = children;
+        this.leaf = leaf;
+    }
+
+    /**
+     * The topology of a hierarchy - enough to build it again over the same items without the surface area
+     * heuristic.
+     *
+     * @param order the positions of the items in the order of the leaves
+     * @param nodes a value for each node in depth-first order - the number of its items for a leaf
+     *              (a single item is not wrapped in a node, unless it is the root), 0 for an inner node
+     */
+    record Topology(int[] order, int[] nodes) {
+    }
+
+    /**
+     * Plans a bounding volume hierarchy over the given bounded geometries by the surface area heuristic.
+     *
+     * @param items the geometries to arrange in the hierarchy, must not be empty
+     * @return the topology of the hierarchy
+     */
+    static Topology plan(List<Intersectable> items) {
+        double[] bounds = new double[6 * items.size()];
+        int i = 0;
+        for (Intersectable item : items) {
+            BoundingBox box = item.getBoundingBox();
+            for (int axis = 0; axis < 3; ++axis) {
+                bounds[6 * i + axis] = box.getMin(axis);
+                bounds[6 * i + 3 + axis] = box.getMax(axis);
+            }
+            ++i;
+        }
+        SahSplitter splitter = new SahSplitter(bounds);
+        int[] nodes = new int[2 * items.size()]; // a binary tree has less nodes than twice its leaves
+        int count = plan(splitter, bounds, new double[6], 0, items.size(), nodes, 0);
+        return new Topology(splitter.order, Arrays.copyOf(nodes, count));
+    }
+
+    /**
+     * Recursively plans the hierarchy over a range of the items.
+     *
+     * @param splitter the splitter holding the order of the items
+     * @param bounds   the bounding boxes of the items
+     * @param box      room for the bounding box of the range
+     * @param from     the first position of the range in the order (included)
+     * @param to       the last position of the range in the order (excluded)
+     * @param nodes    the values of the nodes
+     * @param node     the index of the node of the range
+     * @return the index of the node following the nodes of the range
+     */
+    private static int plan(SahSplitter splitter, double[] bounds, double[] box, int from, int to,
+                            int[] nodes, int node) {
+        SahSplitter.empty(box, 0);
+        for (int k = from; k < to; ++k)
+            SahSplitter.include(box, 0, bounds, splitter.order[k]);
+        int mid = splitter.split(from, to, SahSplitter.area(box, 0));
+        if (mid < 0) { // leaf
+            nodes[node] = to - from;
+            return node + 1;
+        }
+        nodes[node] = 0;
+        return plan(splitter, bounds, box, mid, to, nodes, plan(splitter, bounds, box, from, mid, nodes, node + 1));
+    }
+
+    /**
+     * Builds a bounding volume hierarchy over the given bounded geometries by its topology, in linear time.
+     *
+     * @param items    the geometries to arrange in the hierarchy, must not be empty
+     * @param topology the topology of the hierarchy, planned over the same geometries
+     * @return the root of the hierarchy
+     * @throws IllegalArgumentException if the topology does not match the geometries
+     */
+    static BVHNode build(List<Intersectable> items, Topology topology) {
+        int[] order = topology.order();
+        if (order.length != items.size() || topology.nodes().length >= 2 * order.length)
+            throw new IllegalArgumentException("The hierarchy does not match the number of geometries");
+        Intersectable[] ordered = new Intersectable[order.length];
+        for (int k = 0; k < order.length; ++k) {
+            if (ordered[k] != null || order[k] < 0 || order[k] >= order.length)
+                throw new IllegalArgumentException("The order of the hierarchy is not a permutation");
+            ordered[k] = items.get(order[k]);
+        }
+        int[] cursor = new int[2]; // the next node and the next item
+        Intersectable root = build(ordered, topology.nodes(), cursor);
+        if (cursor[0] != topology.nodes().length || cursor[1] != ordered.length)
+            throw new IllegalArgumentException("The nodes of the hierarchy do not match the geometries");
+        return root instanceof BVHNode node ? node
+                : new BVHNode(root.getBoundingBox(), new Intersectable[]{root}, true);
+    }
+
+    /**
+     * Recursively builds the sub-hierarchy of the next node.
+     *
+     * @param items  the items in the order of the leaves
+     * @param nodes  the values of the nodes in depth-first order
+     * @param cursor the index of the next node and the position of its first item, advanced past the sub-hierarchy
+     * @return the root of the sub-hierarchy - a single item is not wrapped in a node
+     */
+    private static Intersectable build(Intersectable[] items, int[] nodes, int[] cursor) {
+        int count = nodes[cursor[0]++];
+        if (count < 0 || count > items.length - cursor[1])
+            throw new IllegalArgumentException("Illegal number of items in a node " + count);
+        if (count == 1) return items[cursor[1]++];
+        if (count > 0) { // leaf
+            int from = cursor[1];
+            cursor[1] += count;
+            BoundingBox box = items[from].getBoundingBox();
+            for (int k = from + 1; k < cursor[1]; ++k)
+                box = box.union(items[k].getBoundingBox());
+            return new BVHNode(box, Arrays.copyOfRange(items, from, cursor[1]), true);
+        }
+        Intersectable left = build(items, nodes, cursor);
+        Intersectable right = build(items, nodes, cursor);
+        return new BVHNode(left.getBoundingBox().union(right.getBoundingBox()), new Intersectable[]{left, right},
+                false);
+    }
+
+    @Override
+    protected BoundingBox calcBoundingBox() {
+        return box;
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        List<GeoPoint> intersections = null;
+        for (var child : children) {
+            List<GeoPoint> geoIntersections = child.findGeoIntersections(ray, maxDistance);
+            if (geoIntersections != null) {
+                if (intersections == null)
+                    intersections = new LinkedList<>(geoIntersections);
+                else
+                    intersections.addAll(geoIntersections);
+            }
+        }
+        return intersections;
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        if (leaf) { // the items are tested one by one
+            GeoPoint closest = null;
+            for (var child : children) {
+                GeoPoint intersection = child.findClosestGeoIntersection(ray, maxDistance);
+                if (intersection != null) {
+                    double distance = ray.getP0().distance(intersection.point);
+                    if (closest == null || distance < maxDistance) {
+                        closest = intersection;
+                        maxDistance = distance;
+                    }
+                }
+            }
+            return closest;
+        }
+
+        // visit the children front to back, the farther one only if it may hold a closer intersection
+        Intersectable near = children[0];
+        Intersectable far = children[1];
+        double tNear = near.getBoundingBox().intersect(ray, maxDistance);
+        double tFar = far.getBoundingBox().intersect(ray, maxDistance);
+        if (tFar < tNear) {
+            near = children[1];
+            far = children[0];
+            double t = tNear;
+            tNear = tFar;
+            tFar = t;
+        }
+
+        GeoPoint closest = findClosest(near, ray, maxDistance, tNear);
+        if (closest != null) maxDistance = ray.getP0().distance(closest.point);
+        GeoPoint farIntersection = findClosest(far, ray, maxDistance,
+                tFar > maxDistance ? Double.POSITIVE_INFINITY : tFar);
+        return farIntersection != null && (closest == null
+                || ray.getP0().distance(farIntersection.point) < maxDistance) ? farIntersection : closest;
+    }
+
+    /**
+     * Finds the closest intersection of a ray with a child of an inner node whose bounding box has already been
+     * intersected, and counts the test like {@link #findClosestGeoIntersection(Ray, double)} does.
+     *
+     * @param child       the child
+     * @param ray         the ray
+     * @param maxDistance the maximal distance of the intersection
+     * @param entry       the distance where the ray enters the bounding box of the child,
+     *                    or infinity if it is not to be entered
+     * @return the closest intersection with the child, or null if there is none
+     */
+    private static GeoPoint findClosest(Intersectable child, Ray ray, double maxDistance, double entry) {
+        GeoPoint closest = entry == Double.POSITIVE_INFINITY ? null
+                : child.findClosestGeoIntersectionHelper(ray, maxDistance);
+        if (IntersectionStatistics.isEnabled()) IntersectionStatistics.count(child.getClass(), closest != null);
+        return closest;
+    }
+
+    @Override
+    protected Double3 calcTransparencyHelper(Ray ray, double maxDistance, Double3 ktr, double minK,
+                                             Geometry[] occluder) {
+        for (var child : children) {
+            ktr = child.calcTransparency(ray, maxDistance, ktr, minK, occluder);
+            if (ktr == Double3.ZERO) return ktr; // blocked - no need to look any further
+        }
+        return ktr;
+    }
+}
@@ -0,0 +1,223 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import static primitives.Util.alignZero;
+
+/**
+ * The BoundingBox class represents an axis-aligned bounding box (AABB) in 3D space.
+ * It is used to quickly reject rays that cannot hit the geometries enclosed by the box.
+ */
+public final class BoundingBox {
+
+    /**
+     * A box without limits, used for unbounded geometries such as planes and tubes.
+     */
+    public static final BoundingBox INFINITE = new BoundingBox(
+            Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY,
+            Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+    private final double minX, minY, minZ;
+    private final double maxX, maxY, maxZ;
+    private final boolean infinite;
+
+    /**
+     * Constructs a bounding box from its minimal and maximal coordinates.
+     *
+     * @param minX the minimal x coordinate
+     * @param minY the minimal y coordinate
+     * @param minZ the minimal z coordinate
+     * @param maxX the maximal x coordinate
+     * @param maxY the maximal y coordinate
+     * @param maxZ the maximal z coordinate
+     */
+    public BoundingBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+        infinite = Double.isInfinite(minX) || Double.isInfinite(minY) || Double.isInfinite(minZ)
+                || Double.isInfinite(maxX) || Double.isInfinite(maxY) || Double.isInfinite(maxZ);
+    }
+
+    /**
+     * Constructs the smallest bounding box that contains all the given points.
+     *
+     * @param points the points to enclose
+     * @throws IllegalArgumentException if no points are given
+     */
+    public BoundingBox(Point... points) {
+        if (points.length == 0)
+            throw new IllegalArgumentException("A bounding box must contain at least one point");
+        double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY, z0 = Double.POSITIVE_INFINITY;
+        double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY, z1 = Double.NEGATIVE_INFINITY;
+        for (Point p : points) {
+            x0 = Math.min(x0, p.getX());
+            y0 = Math.min(y0, p.getY());
+            z0 = Math.min(z0, p.getZ());
+            x1 = Math.max(x1, p.getX());
+            y1 = Math.max(y1, p.getY());
+            z1 = Math.max(z1, p.getZ());
+        }
+        minX = x0;
+        minY = y0;
+        minZ = z0;
+        maxX = x1;
+        maxY = y1;
+        maxZ = z1;
+        infinite = false;
+    }
+
+    /**
+     * Returns the minimal coordinate of the box along the given axis.
+     *
+     * @param axis the axis (0 - x, 1 - y, 2 - z)
+     * @return the minimal coordinate along the axis
+     */
+    public double getMin(int axis) {
+        return axis == 0 ? minX : axis == 1 ? minY : minZ;
+    }
+
+    /**
+     * Returns the maximal coordinate of the box along the given axis.
+     *
+     * @param axis the axis (0 - x, 1 - y, 2 - z)
+     * @return the maximal coordinate along the axis
+     */
+    public double getMax(int axis) {
+        return axis == 0 ? maxX : axis == 1 ? maxY : maxZ;
+    }
+
+    /**
+     * Returns the coordinate of the center of the box along the given axis.
+     *
+     * @param axis the axis (0 - x, 1 - y, 2 - z)
+     * @return the center coordinate along the axis
+     */
+    public double getCenter(int axis) {
+        return (getMin(axis) + getMax(axis)) / 2;
+    }
+
+    /**
+     * Checks whether the box is unbounded in any direction.
+     *
+     * @return true if any of the box limits is infinite
+     */
+    public boolean isInfinite() {
+        return infinite;
+    }
+
+    /**
+     * Returns the smallest box that contains both this box and the given box.
+     *
+     * @param other the box to unite with
+     * @return the united box
+     */
+    public BoundingBox union(BoundingBox other) {
+        return new BoundingBox(Math.min(minX, other.minX), Math.min(minY, other.minY), Math.min(minZ, other.minZ),
+                Math.max(maxX, other.maxX), Math.max(maxY, other.maxY), Math.max(maxZ, other.maxZ));
+    }
+
+    /**
+     * Calculates the surface area of the box, used by the surface area heuristic.
+     *
+     * @return the surface area of the box
+     */
+    public double surfaceArea() {
+        double dx = maxX - minX;
+        double dy = maxY - minY;
+        double dz = maxZ - minZ;
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Checks whether a ray passes through the box up to the given distance (slab test).
+     *
+     * @param ray         the ray to check
+     * @param maxDistance the maximum distance along the ray
+     * @return true if the ray passes through the box
+     */
+    public boolean intersects(Ray ray, double maxDistance) {
+        return intersect(ray, maxDistance) != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Calculates the distance along the ray where it enters the box (slab test).
+     * A ray which starts inside the box enters it at distance 0.
+     *
+     * @param ray         the ray to check
+     * @param maxDistance the maximum distance along the ray
+     * @return the entry distance, or positive infinity if the ray misses the box within the distance
+     */
+    public double intersect(Ray ray, double maxDistance) {
+        return intersect(ray, minX, minY, minZ, maxX, maxY, maxZ, maxDistance);
+    }
+
+    /**
+     * Calculates the distance along the ray where it enters a box given by its limits (slab test).
+     * Nothing is allocated, so boxes kept in flat arrays may be tested without creating box objects.
+     *
+     * @param ray         the ray to check
+     * @param minX        the minimal x coordinate of the box
+     * @param minY        the minimal y coordinate of the box
+     * @param minZ        the minimal z coordinate of the box
+     * @param maxX        the maximal x coordinate of the box
+     * @param maxY        the maximal y coordinate of the box
+     * @param maxZ        the maximal z coordinate of the box
+     * @param maxDistance the maximum distance along the ray
+     * @return the entry distance, or positive infinity if the ray misses the box within the distance
+     */
+    static double intersect(Ray ray, double minX, double minY, double minZ,
+                            double maxX, double maxY, double maxZ, double maxDistance) {
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double near = 0;
+        double far = maxDistance;
+
+        double inv = 1 / dir.getX();
+        double t1 = (minX - p0.getX()) * inv;
+        double t2 = (maxX - p0.getX()) * inv;
+        // NaN distances (a ray lying on a slab face) are ignored by the comparisons
+        if (t1 > t2) {
+            double tmp = t1;
+            t1 = t2;
+            t2 = tmp;
+        }
+        if (t1 > near) near = t1;
+        if (t2 < far) far = t2;
+        if (alignZero(near - far) > 0) return Double.POSITIVE_INFINITY;
+
+        inv = 1 / dir.getY();
+        t1 = (minY - p0.getY()) * inv;
+        t2 = (maxY - p0.getY()) * inv;
+        if (t1 > t2) {
+            double tmp = t1;
+            t1 = t2;
+            t2 = tmp;
+        }
+        if (t1 > near) near = t1;
+        if (t2 < far) far = t2;
+        if (alignZero(near - far) > 0) return Double.POSITIVE_INFINITY;
+
+        inv = 1 / dir.getZ();
+        t1 = (minZ - p0.getZ()) * inv;
+        t2 = (maxZ - p0.getZ()) * inv;
+        if (t1 > t2) {
+            double tmp = t1;
+            t1 = t2;
+            t2 = tmp;
+        }
+        if (t1 > near) near = t1;
+        if (t2 < far) far = t2;
+        return alignZero(near - far) > 0 ? Double.POSITIVE_INFINITY : near;
+    }
+
+    @Override
+    public String toString() {
+        return "BoundingBox{(" + minX + "," + minY + "," + minZ + ")-(" + maxX + "," + maxY + "," + maxZ + ")}";
+    }
+}
@@ -36,7 +36,6 @@ public class Cylinder extends Tube {
      *
      * @return the height of the cylinder
      */
-    @SuppressWarnings("unused")
     public double getHeight() {
         return height;
     }
@@ -55,4 +54,21 @@ public class Cylinder extends Tube {
             return v;
         }
     }
+
+    @Override
+    protected BoundingBox calcBoundingBox() {
+        Point p0 = axisRay.getP0(); //middle of starting base
+        Vector v = axisRay.getDir();
+        Point p1 = p0.add(v.scale(height)); //middle of far base
+
+        // a base disk extends along each axis by the radius times the sine of the angle between the axis and v
+        double ex = radius * Math.sqrt(Math.max(0, 1 - v.getX() * v.getX()));
+        double ey = radius * Math.sqrt(Math.max(0, 1 - v.getY() * v.getY()));
+        double ez = radius * Math.sqrt(Math.max(0, 1 - v.getZ() * v.getZ()));
+        return new BoundingBox(
+                Math.min(p0.getX(), p1.getX()) - ex, Math.min(p0.getY(), p1.getY()) - ey,
+                Math.min(p0.getZ(), p1.getZ()) - ez,
+                Math.max(p0.getX(), p1.getX()) + ex, Math.max(p0.getY(), p1.getY()) + ey,
+                Math.max(p0.getZ(), p1.getZ()) + ez);
+    }
 }
\ No newline at end of file
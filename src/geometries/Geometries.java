@@ -1,17 +1,38 @@
 package geometries;
 
+import primitives.Double3;
 import primitives.Ray;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
 /**
  * The Geometries class represents a collection of intersectable geometries.
+ * <p>
+ * The collection may be compiled into a bounding volume hierarchy by {@link #buildBVH()}
+ * before rendering, so a ray tests only the geometries whose bounding boxes it passes through.
  */
 public class Geometries extends Intersectable {
 
     private final List<Intersectable> items = new LinkedList<>();
 
+    /**
+     * The geometries that are actually tested for intersections - either the items themselves
+     * or the hierarchy built over them together with the unbounded items
+     */
+    private List<Intersectable> targets = items;
+
+    /**
+     * The topology of the hierarchy over the bounded geometries, so it can be written and restored without
+     * planning it again, or null if there is no hierarchy or no bounded geometries
+     */
+    private BVHNode.Topology topology;
+
     /**
      * Constructs an empty Geometries object.
      */
@@ -34,6 +55,138 @@ public class Geometries extends Intersectable {
      */
     public void add(Intersectable... geometries) {
         items.addAll(List.of(geometries));
+        targets = items; // a previously built hierarchy does not contain the new geometries
+        topology = null;
+        resetBoundingBox();
+    }
+
+    /**
+     * Returns the geometries in the collection.
+     *
+     * @return unmodifiable view of the geometries
+     */
+    public List<Intersectable> getGeometries() {
+        return Collections.unmodifiableList(items);
+    }
+
+    /**
+     * Checks whether the collection is compiled into a bounding volume hierarchy.
+     *
+     * @return true if {@link #buildBVH()} was called after the last geometries were added
+     */
+    public boolean hasBVH() {
+        return targets != items;
+    }
+
+    /**
+     * Compiles the collection into a bounding volume hierarchy (built by the surface area heuristic).
+     * Nested collections are flattened into the hierarchy, while unbounded geometries (planes, tubes)
+     * are kept outside of it and tested for every ray.
+     * Adding geometries afterwards discards the hierarchy, so it should be built when the scene is complete.
+     *
+     * @return the geometries collection itself
+     */
+    public Geometries buildBVH() {
+        BVHBuildEvent event = new BVHBuildEvent();
+        event.begin();
+        List<Intersectable> bounded = new ArrayList<>();
+        List<Intersectable> compiled = new ArrayList<>();
+        flatten(items, bounded, compiled);
+        int unbounded = compiled.size();
+        compile(bounded, compiled, bounded.isEmpty() ? null : BVHNode.plan(bounded));
+        event.end();
+        if (event.shouldCommit()) {
+            event.bounded = bounded.size();
+            event.unbounded = unbounded;
+            event.commit();
+        }
+        return this;
+    }
+
+    /**
+     * Writes the topology of the hierarchy (but not the geometries), so it can be restored over the same
+     * geometries by {@link #readBVH(ByteBuffer)} without planning it again.
+     *
+     * @param out the output to write into
+     * @throws IOException           if the output fails
+     * @throws IllegalStateException if the collection is not compiled into a hierarchy
+     */
+    public void writeBVH(DataOutput out) throws IOException {
+        if (!hasBVH()) throw new IllegalStateException("The geometries are not compiled into a hierarchy");
+        int[] order = topology == null ? new int[0] : topology.order();
+        int[] nodes = topology == null ? new int[0] : topology.nodes();
+        out.writeInt(order.length);
+        out.writeInt(nodes.length);
+        for (int value : order) out.writeInt(value);
+        for (int value : nodes) out.writeInt(value);
+    }
+
+    /**
+     * Compiles the collection into the hierarchy written by {@link #writeBVH(DataOutput)}. The hierarchy is built
+     * by its stored topology in linear time, without the surface area heuristic.
+     *
+     * @param buffer the buffer to read from, positioned at the hierarchy (and left after it)
+     * @return the geometries collection itself
+     * @throws IllegalArgumentException if the hierarchy does not match the geometries of the collection
+     */
+    public Geometries readBVH(ByteBuffer buffer) {
+        int[] order = new int[buffer.getInt()];
+        int[] nodes = new int[buffer.getInt()];
+        buffer.asIntBuffer().get(order).get(nodes);
+        buffer.position(buffer.position() + Integer.BYTES * (order.length + nodes.length));
+
+        List<Intersectable> bounded = new ArrayList<>();
+        List<Intersectable> compiled = new ArrayList<>();
+        flatten(items, bounded, compiled);
+        if (order.length != bounded.size())
+            throw new IllegalArgumentException("The hierarchy does not match the number of geometries");
+        compile(bounded, compiled, bounded.isEmpty() ? null : new BVHNode.Topology(order, nodes));
+        return this;
+    }
+
+    /**
+     * Builds the hierarchy over the bounded geometries and makes it, with the unbounded ones, the tested targets.
+     *
+     * @param bounded  the bounded geometries
+     * @param compiled the unbounded geometries, the hierarchy is added before them
+     * @param topology the topology of the hierarchy, or null if there are no bounded geometries
+     */
+    private void compile(List<Intersectable> bounded, List<Intersectable> compiled, BVHNode.Topology topology) {
+        if (topology != null)
+            compiled.add(0, BVHNode.build(bounded, topology));
+        this.topology = topology;
+        targets = compiled;
+    }
+
+    /**
+     * Collects the geometries of nested collections, dividing them into bounded and unbounded ones.
+     *
+     * @param geometries the geometries to collect
+     * @param bounded    the list to collect the bounded geometries into
+     * @param unbounded  the list to collect the unbounded geometries into
+     */
+    private static void flatten(List<Intersectable> geometries, List<Intersectable> bounded,
+                                List<Intersectable> unbounded) {
+        for (var geometry : geometries) {
+            if (geometry instanceof Geometries nested)
+                flatten(nested.items, bounded, unbounded);
+            else if (geometry.getBoundingBox().isInfinite())
+                unbounded.add(geometry);
+            else
+                bounded.add(geometry);
+        }
+    }
+
+    @Override
+    protected BoundingBox calcBoundingBox() {
+        if (items.isEmpty())
+            return BoundingBox.INFINITE;
+        BoundingBox box = null;
+        for (var geometry : items) {
+            BoundingBox b = geometry.getBoundingBox();
+            box = box == null ? b : box.union(b);
+        }
+        return box;
     }
 
     /**
@@ -45,7 +198,7 @@ public class Geometries extends Intersectable {
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
         List<GeoPoint> intersections = null;
-        for (var geometry : items) {
+        for (var geometry : targets) {
             List<GeoPoint> geoIntersections = geometry.findGeoIntersections(ray, maxDistance);
             if (geoIntersections != null) {
                 if (intersections == null)
@@ -56,4 +209,39 @@ public class Geometries extends Intersectable {
         }
         return intersections;
     }
-}
\ No newline at end of file
+
+    /**
+     * Finds the closest intersection between the ray and the geometries in the collection.
+     * The allowed distance shrinks to the closest intersection found so far, so farther geometries
+     * are rejected by their bounding boxes.
+     *
+     * @param ray         the ray to intersect with the geometries
+     * @param maxDistance the maximum allowed distance for the intersection
+     * @return the closest intersection point, or null if no intersections exist
+     */
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        GeoPoint closest = null;
+        for (var geometry : targets) {
+            GeoPoint intersection = geometry.findClosestGeoIntersection(ray, maxDistance);
+            if (intersection != null) {
+                double distance = ray.getP0().distance(intersection.point);
+                if (closest == null || distance < maxDistance) {
+                    closest = intersection;
+                    maxDistance = distance;
+                }
+            }
+        }
+        return closest;
+    }
+
+    @Override
+    protected Double3 calcTransparencyHelper(Ray ray, double maxDistance, Double3 ktr, double minK,
+                                             Geometry[] occluder) {
+        for (var geometry : targets) {
+            ktr = geometry.calcTransparency(ray, maxDistance, ktr, minK, occluder);
+            if (ktr == Double3.ZERO) return ktr; // blocked - no need to look any further
+        }
+        return ktr;
+    }
+}
@@ -1,8 +1,10 @@
 package geometries;
 
 import primitives.Color;
+import primitives.Double3;
 import primitives.Material;
 import primitives.Point;
+import primitives.Ray;
 import primitives.Vector;
 
 /**
@@ -15,7 +17,23 @@ public abstract class Geometry extends Intersectable {
      */
     protected Color emission = Color.BLACK;
 
-    private Material material = new Material();
+    private Material material;
+
+    /**
+     * Constructs a geometry with a black emission and a default material.
+     */
+    protected Geometry() {
+        this(new Material());
+    }
+
+    /**
+     * Constructs a geometry with a black emission and the given material.
+     *
+     * @param material the material of the geometry
+     */
+    protected Geometry(Material material) {
+        this.material = material;
+    }
 
     /**
      * Returns the emission color of the geometry.
@@ -57,6 +75,27 @@ public abstract class Geometry extends Intersectable {
         return this;
     }
 
+    /**
+     * Calculates the transparency of the geometry along a ray.
+     * An opaque geometry blocks the ray at any intersection, so there is no need to find all of them.
+     *
+     * @param ray         the ray to intersect with the geometry
+     * @param maxDistance the maximum allowed distance for intersections
+     * @param ktr         the transparency accumulated so far
+     * @param minK        the threshold below which the ray is considered fully blocked
+     * @param occluder    a holder for the geometry which blocked the ray, or null if it is not needed
+     * @return the accumulated transparency, or {@link Double3#ZERO} if the ray is blocked
+     */
+    @Override
+    protected Double3 calcTransparencyHelper(Ray ray, double maxDistance, Double3 ktr, double minK,
+                                             Geometry[] occluder) {
+        if (!getMaterial().kt.lowerThan(minK))
+            return super.calcTransparencyHelper(ray, maxDistance, ktr, minK, occluder);
+        if (findClosestGeoIntersectionHelper(ray, maxDistance) == null) return ktr;
+        if (occluder != null) occluder[0] = this;
+        return Double3.ZERO;
+    }
+
     /**
      * Returns the normal vector to the geometry shape at the specified point on the shape's surface.
      *
@@ -1,5 +1,6 @@
 package geometries;
 
+import primitives.Double3;
 import primitives.Point;
 import primitives.Ray;
 
@@ -8,9 +9,18 @@ import java.util.List;
 /**
  * The Intersectable interface represents an intersectable geometric object.
  * It defines methods for finding intersections of a ray with the object.
+ * <p>
+ * Every object has an axis-aligned bounding box, which is calculated once on first use.
+ * Rays that miss the box are rejected before the specific intersection logic is called.
+ * The tests may be counted for profiling (see {@link IntersectionStatistics}).
  */
 public abstract class Intersectable {
 
+    /**
+     * The bounding box of the object, null until first used
+     */
+    private BoundingBox boundingBox;
+
     /**
      * Finds intersections of a ray with the geometric object and returns them as a list of points.
      *
@@ -29,7 +39,7 @@ public abstract class Intersectable {
      * @return a list of GeoPoints representing the intersections in the geometric object
      */
     public final List<GeoPoint> findGeoIntersections(Ray ray) {
-        return findGeoIntersectionsHelper(ray, Double.POSITIVE_INFINITY);
+        return findGeoIntersections(ray, Double.POSITIVE_INFINITY);
     }
 
     /**
@@ -41,7 +51,97 @@ public abstract class Intersectable {
      * @return a list of GeoPoints representing the intersections in the geometric object
      */
     public final List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance) {
-        return findGeoIntersectionsHelper(ray, maxDistance);
+        List<GeoPoint> intersections = isMissedBy(ray, maxDistance) ? null
+                : findGeoIntersectionsHelper(ray, maxDistance);
+        if (IntersectionStatistics.isEnabled()) IntersectionStatistics.count(getClass(), intersections != null);
+        return intersections;
+    }
+
+    /**
+     * Finds the closest intersection of a ray with the geometric object.
+     *
+     * @param ray the ray to intersect with the object
+     * @return the closest GeoPoint, or null if there are no intersections
+     */
+    public final GeoPoint findClosestGeoIntersection(Ray ray) {
+        return findClosestGeoIntersection(ray, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Finds the closest intersection of a ray with the geometric object up to the given maxDistance.
+     * Unlike {@link #findGeoIntersections(Ray, double)} no intermediate lists of intersections are built.
+     *
+     * @param ray         the ray to intersect with the object
+     * @param maxDistance the maximum allowed distance for the intersection
+     * @return the closest GeoPoint, or null if there are no intersections
+     */
+    public final GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance) {
+        GeoPoint closest = isMissedBy(ray, maxDistance) ? null : findClosestGeoIntersectionHelper(ray, maxDistance);
+        if (IntersectionStatistics.isEnabled()) IntersectionStatistics.count(getClass(), closest != null);
+        return closest;
+    }
+
+    /**
+     * Calculates the transparency of the object along a ray up to the given maxDistance (occlusion query).
+     * The transparency coefficients of all the intersected geometries are multiplied into the accumulated one,
+     * and the query stops as soon as the accumulated transparency falls below the given threshold.
+     *
+     * @param ray         the ray to intersect with the object
+     * @param maxDistance the maximum allowed distance for intersections
+     * @param ktr         the transparency accumulated so far
+     * @param minK        the threshold below which the ray is considered fully blocked
+     * @return the accumulated transparency, or {@link Double3#ZERO} if the ray is blocked
+     */
+    public final Double3 calcTransparency(Ray ray, double maxDistance, Double3 ktr, double minK) {
+        return calcTransparency(ray, maxDistance, ktr, minK, null);
+    }
+
+    /**
+     * Calculates the transparency of the object along a ray up to the given maxDistance, like
+     * {@link #calcTransparency(Ray, double, Double3, double)}, and reports the geometry which blocked the ray
+     * in the same traversal.
+     *
+     * @param ray         the ray to intersect with the object
+     * @param maxDistance the maximum allowed distance for intersections
+     * @param ktr         the transparency accumulated so far
+     * @param minK        the threshold below which the ray is considered fully blocked
+     * @param occluder    a holder whose first element is set to the geometry whose intersection blocked the ray
+     *                    (left as is if the ray is not blocked), or null if the geometry is not needed
+     * @return the accumulated transparency, or {@link Double3#ZERO} if the ray is blocked
+     */
+    public final Double3 calcTransparency(Ray ray, double maxDistance, Double3 ktr, double minK,
+                                          Geometry[] occluder) {
+        Double3 transparency = isMissedBy(ray, maxDistance) ? ktr
+                : calcTransparencyHelper(ray, maxDistance, ktr, minK, occluder);
+        if (IntersectionStatistics.isEnabled()) IntersectionStatistics.count(getClass(), transparency != ktr);
+        return transparency;
+    }
+
+    /**
+     * Finds a geometry blocking a ray up to the given maxDistance - the geometry whose intersection brings the
+     * transparency along the ray below the given threshold. The query stops as soon as the ray is blocked, so
+     * the occluder is not necessarily the closest opaque geometry.
+     *
+     * @param ray         the ray to intersect with the object
+     * @param maxDistance the maximum allowed distance for intersections
+     * @param minK        the threshold below which the ray is considered fully blocked
+     * @return the blocking geometry, or null if the ray is not blocked
+     */
+    public final Geometry findOccluder(Ray ray, double maxDistance, double minK) {
+        Geometry[] occluder = new Geometry[1];
+        return calcTransparency(ray, maxDistance, Double3.ONE, minK, occluder) == Double3.ZERO ? occluder[0] : null;
+    }
+
+    /**
+     * Checks whether a ray misses the bounding box of the object up to the given distance.
+     *
+     * @param ray         the ray to check
+     * @param maxDistance the maximum allowed distance for intersections
+     * @return true if the ray certainly does not intersect the object
+     */
+    protected final boolean isMissedBy(Ray ray, double maxDistance) {
+        BoundingBox box = getBoundingBox();
+        return !box.isInfinite() && !box.intersects(ray, maxDistance);
     }
 
     /**
@@ -55,6 +155,75 @@ public abstract class Intersectable {
      */
     protected abstract List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance);
 
+    /**
+     * Helper method to find the closest intersection of a ray with the object up to the given maxDistance.
+     * The default implementation picks the closest of all the intersections, subclasses override it
+     * to find the closest intersection directly.
+     *
+     * @param ray         the ray to intersect with the object
+     * @param maxDistance the maximum allowed distance for the intersection
+     * @return the closest GeoPoint, or null if there are no intersections
+     */
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        var intersections = findGeoIntersectionsHelper(ray, maxDistance);
+        return intersections == null ? null : ray.findClosestGeoPoint(intersections);
+    }
+
+    /**
+     * Helper method to calculate the transparency of the object along a ray up to the given maxDistance.
+     * The default implementation multiplies the transparency coefficients of all the intersections.
+     *
+     * @param ray         the ray to intersect with the object
+     * @param maxDistance the maximum allowed distance for intersections
+     * @param ktr         the transparency accumulated so far
+     * @param minK        the threshold below which the ray is considered fully blocked
+     * @param occluder    a holder for the geometry which blocked the ray, or null if it is not needed
+     * @return the accumulated transparency, or {@link Double3#ZERO} if the ray is blocked
+     */
+    protected Double3 calcTransparencyHelper(Ray ray, double maxDistance, Double3 ktr, double minK,
+                                             Geometry[] occluder) {
+        var intersections = findGeoIntersectionsHelper(ray, maxDistance);
+        if (intersections == null)
+            return ktr;
+        for (GeoPoint geoPoint : intersections) {
+            ktr = ktr.product(geoPoint.geometry.getMaterial().kt);
+            if (ktr.lowerThan(minK)) {
+                if (occluder != null) occluder[0] = geoPoint.geometry;
+                return Double3.ZERO;
+            }
+        }
+        return ktr;
+    }
+
+    /**
+     * Returns the axis-aligned bounding box of the geometric object.
+     * The box is calculated on first call and cached afterwards.
+     *
+     * @return the bounding box of the object
+     */
+    public final BoundingBox getBoundingBox() {
+        BoundingBox box = boundingBox;
+        if (box == null)
+            boundingBox = box = calcBoundingBox();
+        return box;
+    }
+
+    /**
+     * Discards the cached bounding box, so it will be recalculated on next use.
+     * Should be called by objects whose shape changes after construction.
+     */
+    protected final void resetBoundingBox() {
+        boundingBox = null;
+    }
+
+    /**
+     * Calculates the axis-aligned bounding box of the geometric object.
+     * Unbounded objects return {@link BoundingBox#INFINITE}.
+     *
+     * @return the bounding box of the object
+     */
+    protected abstract BoundingBox calcBoundingBox();
+
     /**
      * The GeoPoint class represents a geometric intersection point.
      * It contains the geometry object and the point of intersection.
@@ -0,0 +1,170 @@
+package geometries;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statistics of the intersection tests of the rays with the objects - the number of tests and of hits
+ * for every {@link Intersectable} subclass (composites such as {@link Geometries} and {@link BVHNode} included).
+ * <p>
+ * Counting is off by default and costs a single static flag check per test. When it is on, every thread counts
+ * into counters of its own, without synchronization; the counters of all the threads are merged by
+ * {@link #collect()}, which is called once the counting threads have been joined (as at the end of a render).
+ */
+public final class IntersectionStatistics {
+
+    /**
+     * The numbers of intersection tests and hits of an {@link Intersectable} subclass
+     *
+     * @param tests the number of intersection tests (including those rejected by the bounding box)
+     * @param hits  the number of tests that found an intersection
+     */
+    public record Counts(long tests, long hits) {
+    }
+
+    /**
+     * The initial number of counted classes
+     */
+    private static final int INITIAL_CLASSES = 16;
+
+    /**
+     * Whether the intersection tests are counted
+     */
+    private static boolean enabled;
+
+    /**
+     * The counted classes, by their index in the counters
+     */
+    private static final List<Class<?>> classes = new ArrayList<>();
+
+    /**
+     * The index of every counted class in the counters
+     */
+    private static final ClassValue<Integer> index = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            synchronized (classes) {
+                classes.add(type);
+                return classes.size() - 1;
+            }
+        }
+    };
+
+    /**
+     * The counters of all the threads which counted since the last collection
+     */
+    private static final List<Counters> allCounters = new ArrayList<>();
+
+    /**
+     * The counters of the current thread
+     */
+    private static final ThreadLocal<Counters> counters = ThreadLocal.withInitial(() -> {
+        Counters threadCounters = new Counters(Thread.currentThread());
+        synchronized (allCounters) {
+            allCounters.add(threadCounters);
+        }
+        return threadCounters;
+    });
+
+    /**
+     * The counters of a thread
+     */
+    private static final class Counters {
+        /**
+         * The thread counting
+         */
+        private final Thread owner;
+        private long[] tests = new long[INITIAL_CLASSES];
+        private long[] hits = new long[INITIAL_CLASSES];
+
+        /**
+         * Constructs the counters of a thread
+         *
+         * @param owner the thread
+         */
+        private Counters(Thread owner) {
+            this.owner = owner;
+        }
+    }
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private IntersectionStatistics() {
+    }
+
+    /**
+     * Turns the counting on or off. It should not be changed while rays are traced.
+     *
+     * @param enabled whether the intersection tests are counted
+     */
+    public static void setEnabled(boolean enabled) {
+        IntersectionStatistics.enabled = enabled;
+    }
+
+    /**
+     * Checks whether the intersection tests are counted
+     *
+     * @return true if the tests are counted
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Counts an intersection test in the counters of the current thread
+     *
+     * @param type the class of the tested object
+     * @param hit  whether an intersection was found
+     */
+    static void count(Class<?> type, boolean hit) {
+        int i = index.get(type);
+        Counters threadCounters = counters.get();
+        if (i >= threadCounters.tests.length) {
+            int length = Math.max(2 * threadCounters.tests.length, i + 1);
+            threadCounters.tests = Arrays.copyOf(threadCounters.tests, length);
+            threadCounters.hits = Arrays.copyOf(threadCounters.hits, length);
+        }
+        ++threadCounters.tests[i];
+        if (hit) ++threadCounters.hits[i];
+    }
+
+    /**
+     * Merges the counters of all the threads and resets them. The counters of the threads which ended
+     * are discarded.
+     *
+     * @return the counts of every tested class by its simple name, in the order of the first test of the class
+     */
+    public static Map<String, Counts> collect() {
+        long[] tests, hits;
+        synchronized (classes) {
+            tests = new long[classes.size()];
+            hits = new long[classes.size()];
+        }
+        synchronized (allCounters) {
+            for (Counters threadCounters : allCounters) {
+                for (int i = 0; i < Math.min(tests.length, threadCounters.tests.length); ++i) {
+                    tests[i] += threadCounters.tests[i];
+                    hits[i] += threadCounters.hits[i];
+                }
+                Arrays.fill(threadCounters.tests, 0);
+                Arrays.fill(threadCounters.hits, 0);
+            }
+            allCounters.removeIf(threadCounters -> !threadCounters.owner.isAlive());
+        }
+
+        Map<String, Counts> counts = new LinkedHashMap<>();
+        synchronized (classes) {
+            for (int i = 0; i < tests.length; ++i)
+                if (tests[i] > 0) {
+                    String name = classes.get(i).getSimpleName();
+                    counts.merge(name.isEmpty() ? classes.get(i).getName() : name, new Counts(tests[i], hits[i]),
+                            (a, b) -> new Counts(a.tests + b.tests, a.hits + b.hits));
+                }
+        }
+        return counts;
+    }
+}
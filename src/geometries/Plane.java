@@ -2,7 +2,6 @@ package geometries;
 
 import primitives.Point;
 import primitives.Ray;
-import primitives.Util;
 import primitives.Vector;
 
 import java.util.List;
@@ -55,7 +54,6 @@ public class Plane extends Geometry {
      *
      * @return a point on the plane
      */
-    @SuppressWarnings("unused")
     public Point getQ0() {
         return q0;
     }
@@ -80,20 +78,30 @@ public class Plane extends Geometry {
         return normal;
     }
 
+    @Override
+    protected BoundingBox calcBoundingBox() {
+        return BoundingBox.INFINITE;
+    }
+
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
-        try {
-            double nQMinusP0 = normal.dotProduct(q0.subtract(ray.getP0()));
-            double nv = normal.dotProduct(ray.getDir());
-            if (isZero(nv)) return null;
-            double t = Util.alignZero(nQMinusP0 / nv);
-            if (t <= 0 || alignZero(t - maxDistance) > 0)
-                return null;
-            return List.of(new GeoPoint(this, ray.getPoint(t)));
-        } catch (IllegalArgumentException ignore) {
-            // in case nQMinusP0 is 0 (Ray is neither orthogonal nor parallel
-            // to the plane and begins in the same point)
+        GeoPoint intersection = findClosestGeoIntersectionHelper(ray, maxDistance);
+        return intersection == null ? null : List.of(intersection);
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        double nv = normal.dotProduct(ray.getDir());
+        if (isZero(nv)) return null;
+
+        // n*(q0-p0) is calculated directly - a ray beginning at q0 yields t = 0 and no intersection
+        Point p0 = ray.getP0();
+        double nQMinusP0 = normal.getX() * (q0.getX() - p0.getX())
+                + normal.getY() * (q0.getY() - p0.getY())
+                + normal.getZ() * (q0.getZ() - p0.getZ());
+        double t = alignZero(nQMinusP0 / nv);
+        if (t <= 0 || alignZero(t - maxDistance) > 0)
             return null;
-        }
+        return new GeoPoint(this, ray.getPoint(t));
     }
 }
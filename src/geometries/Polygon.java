@@ -87,11 +87,25 @@ public class Polygon extends Geometry {
         }
     }
 
+    /**
+     * Returns the vertices of the polygon in their order by edge path.
+     *
+     * @return unmodifiable list of the vertices
+     */
+    public List<Point> getVertices() {
+        return vertices;
+    }
+
     @Override
     public Vector getNormal(Point point) {
         return plane.getNormal();
     }
 
+    @Override
+    protected BoundingBox calcBoundingBox() {
+        return new BoundingBox(vertices.toArray(new Point[size]));
+    }
+
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
         return null;
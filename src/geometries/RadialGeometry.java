@@ -27,4 +27,13 @@ public abstract class RadialGeometry extends Geometry {
         this.radius = radius;
         radiusSquared = radius * radius;
     }
+
+    /**
+     * Returns the radius of the radial geometry object.
+     *
+     * @return the radius
+     */
+    public double getRadius() {
+        return radius;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,196 @@
+package geometries;
+
+import java.util.Arrays;
+
+/**
+ * The SahSplitter class splits ranges of items by the surface area heuristic (SAH) while a bounding volume
+ * hierarchy is built over them - both the hierarchy of geometries ({@link BVHNode}) and the flat hierarchy of
+ * the triangles of a {@link TriangleMesh}.
+ * <p>
+ * The items are given by their bounding boxes in a flat array and referred to by their indices in an order
+ * array, which is partitioned in place so the items of every node occupy a contiguous range of it.
+ */
+final class SahSplitter {
+
+    /**
+     * Number of bins evaluated as split candidates along the split axis
+     */
+    private static final int BINS = 12;
+    /**
+     * Maximal number of items in a leaf node
+     */
+    private static final int MAX_LEAF_SIZE = 4;
+    /**
+     * Cost of traversing a node relative to the cost of intersecting a single item
+     */
+    private static final double TRAVERSAL_COST = 0.125;
+
+    /**
+     * Bounding boxes of the items - minimal x, y, z and maximal x, y, z of each item in turn
+     */
+    private final double[] boxes;
+    /**
+     * Centers of the bounding boxes of the items - 3 values for each item
+     */
+    private final double[] centers;
+    /**
+     * The indices of the items, reordered by the splits
+     */
+    final int[] order;
+
+    /**
+     * Prepares the splitting of items by their bounding boxes. The array is not copied.
+     *
+     * @param boxes bounding boxes of the items - minimal x, y, z and maximal x, y, z of each item in turn
+     */
+    SahSplitter(double[] boxes) {
+        this.boxes = boxes;
+        int count = boxes.length / 6;
+        centers = new double[3 * count];
+        order = new int[count];
+        for (int i = 0; i < count; ++i) {
+            order[i] = i;
+            for (int axis = 0; axis < 3; ++axis)
+                centers[3 * i + axis] = (boxes[6 * i + axis] + boxes[6 * i + 3 + axis]) / 2;
+        }
+    }
+
+    /**
+     * Chooses the best split of a range of items by the surface area heuristic and partitions the range by it.
+     *
+     * @param from the first position of the range in the order (included)
+     * @param to   the last position of the range in the order (excluded)
+     * @param area the surface area of the bounding box of the whole range
+     * @return the position where the second half begins, or -1 if the range should stay a leaf
+     */
+    int split(int from, int to, double area) {
+        int size = to - from;
+        if (size == 1) return -1;
+
+        // choose the axis along which the centers of the items are spread the most
+        int axis = 0;
+        double min = 0, extent = -1;
+        for (int a = 0; a < 3; ++a) {
+            double lo = Double.POSITIVE_INFINITY, hi = Double.NEGATIVE_INFINITY;
+            for (int k = from; k < to; ++k) {
+                double c = centers[3 * order[k] + a];
+                lo = Math.min(lo, c);
+                hi = Math.max(hi, c);
+            }
+            if (hi - lo > extent) {
+                axis = a;
+                min = lo;
+                extent = hi - lo;
+            }
+        }
+        // all the centers coincide - there is nothing to separate
+        if (extent <= 0)
+            return size > MAX_LEAF_SIZE ? from + size / 2 : -1;
+
+        // fill the bins
+        int[] binCounts = new int[BINS];
+        double[] binBounds = new double[6 * BINS];
+        for (int b = 0; b < BINS; ++b)
+            empty(binBounds, b);
+        for (int k = from; k < to; ++k) {
+            int b = bin(centers[3 * order[k] + axis], min, extent);
+            ++binCounts[b];
+            include(binBounds, b, boxes, order[k]);
+        }
+
+        // sweep from the right to collect the areas and counts of the right halves
+        double[] rightAreas = new double[BINS];
+        int[] rightCounts = new int[BINS];
+        double[] acc = new double[6];
+        empty(acc, 0);
+        int n = 0;
+        for (int b = BINS - 1; b > 0; --b) {
+            if (binCounts[b] > 0) include(acc, 0, binBounds, b);
+            n += binCounts[b];
+            rightAreas[b] = n == 0 ? 0 : area(acc, 0);
+            rightCounts[b] = n;
+        }
+
+        // sweep from the left and evaluate the cost of splitting before each bin
+        double bestCost = Double.POSITIVE_INFINITY;
+        int bestBin = -1;
+        empty(acc, 0);
+        n = 0;
+        for (int b = 1; b < BINS; ++b) {
+            if (binCounts[b - 1] > 0) include(acc, 0, binBounds, b - 1);
+            n += binCounts[b - 1];
+            if (n == 0 || rightCounts[b] == 0) continue;
+            double cost = n * area(acc, 0) + rightCounts[b] * rightAreas[b];
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestBin = b;
+            }
+        }
+
+        // costs are compared in units of the area of the node to avoid dividing by a zero area
+        if (size <= MAX_LEAF_SIZE && TRAVERSAL_COST * area + bestCost >= size * area)
+            return -1;
+
+        // partition the range - items in bins before the best bin go first
+        int mid = from;
+        for (int k = from; k < to; ++k)
+            if (bin(centers[3 * order[k] + axis], min, extent) < bestBin) {
+                int item = order[k];
+                order[k] = order[mid];
+                order[mid++] = item;
+            }
+        return mid;
+    }
+
+    /**
+     * Calculates the bin of a center coordinate.
+     *
+     * @param center the center coordinate
+     * @param min    the minimal center coordinate in the range
+     * @param extent the extent of the center coordinates in the range
+     * @return the bin index
+     */
+    private static int bin(double center, double min, double extent) {
+        return Math.min(BINS - 1, (int) (BINS * (center - min) / extent));
+    }
+
+    /**
+     * Empties a box in an array of boxes, so including any box in it yields that box.
+     *
+     * @param boxes the array of boxes
+     * @param i     the index of the box
+     */
+    static void empty(double[] boxes, int i) {
+        Arrays.fill(boxes, 6 * i, 6 * i + 3, Double.POSITIVE_INFINITY);
+        Arrays.fill(boxes, 6 * i + 3, 6 * i + 6, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Extends a box in an array of boxes to include another box.
+     *
+     * @param target the array of the extended box
+     * @param i      the index of the extended box
+     * @param source the array of the included box
+     * @param j      the index of the included box
+     */
+    static void include(double[] target, int i, double[] source, int j) {
+        for (int axis = 0; axis < 3; ++axis) {
+            target[6 * i + axis] = Math.min(target[6 * i + axis], source[6 * j + axis]);
+            target[6 * i + 3 + axis] = Math.max(target[6 * i + 3 + axis], source[6 * j + 3 + axis]);
+        }
+    }
+
+    /**
+     * Calculates the surface area of a box in an array of boxes.
+     *
+     * @param boxes the array of boxes
+     * @param i     the index of the box
+     * @return the surface area of the box
+     */
+    static double area(double[] boxes, int i) {
+        double dx = boxes[6 * i + 3] - boxes[6 * i];
+        double dy = boxes[6 * i + 4] - boxes[6 * i + 1];
+        double dz = boxes[6 * i + 5] - boxes[6 * i + 2];
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+}
@@ -38,7 +38,6 @@ public class Sphere extends RadialGeometry {
      *
      * @return the center point of the sphere
      */
-    @SuppressWarnings("unused")
     public Point getCenter() {
         return center;
     }
@@ -55,13 +54,21 @@ public class Sphere extends RadialGeometry {
     }
 
     @Override
-    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
-        if (center.equals(ray.getP0()))
-            return List.of(new GeoPoint(this, ray.getPoint(radius)));
+    protected BoundingBox calcBoundingBox() {
+        return new BoundingBox(center.getX() - radius, center.getY() - radius, center.getZ() - radius,
+                center.getX() + radius, center.getY() + radius, center.getZ() + radius);
+    }
 
-        Vector u = center.subtract(ray.getP0());
-        double tm = ray.getDir().dotProduct(u);
-        double dSquared = u.lengthSquared() - (tm * tm);
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        // u = center - p0 is kept in local variables to avoid allocating a vector
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ux = center.getX() - p0.getX();
+        double uy = center.getY() - p0.getY();
+        double uz = center.getZ() - p0.getZ();
+        double tm = dir.getX() * ux + dir.getY() * uy + dir.getZ() * uz;
+        double dSquared = ux * ux + uy * uy + uz * uz - tm * tm;
         double thSquared = alignZero(radiusSquared - dSquared);
         if (thSquared <= 0) return null;
         double th = Math.sqrt(thSquared);
@@ -79,4 +86,26 @@ public class Sphere extends RadialGeometry {
         // t2 is beyond the max distance
         return t1 <= 0 ? null : List.of(new GeoPoint(this, ray.getPoint(t1)));
     }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        double ux = center.getX() - p0.getX();
+        double uy = center.getY() - p0.getY();
+        double uz = center.getZ() - p0.getZ();
+        double tm = dir.getX() * ux + dir.getY() * uy + dir.getZ() * uz;
+        double dSquared = ux * ux + uy * uy + uz * uz - tm * tm;
+        double thSquared = alignZero(radiusSquared - dSquared);
+        if (thSquared <= 0) return null;
+        double th = Math.sqrt(thSquared);
+
+        double t2 = alignZero(tm + th);
+        if (t2 <= 0) return null;
+
+        // the closest intersection is t1 unless the ray starts inside the sphere
+        double t1 = alignZero(tm - th);
+        double t = t1 > 0 ? t1 : t2;
+        return alignZero(t - maxDistance) > 0 ? null : new GeoPoint(this, ray.getPoint(t));
+    }
 }
@@ -1,5 +1,6 @@
 package geometries;
 
+import primitives.Double3;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
@@ -17,6 +18,33 @@ import static primitives.Util.alignZero;
  */
 public class Triangle extends Polygon {
 
+    /**
+     * The square of the accuracy of {@link primitives.Util#isZero(double)} - a ray is parallel to a triangle
+     * when the determinant divided by the lengths of the edges is below the accuracy
+     */
+    private static final double PARALLEL = 0x1p-80;
+
+    /**
+     * The first vertex of the triangle
+     */
+    private final double x0, y0, z0;
+    /**
+     * The edge from the first vertex to the second one
+     */
+    private final double e1x, e1y, e1z;
+    /**
+     * The edge from the first vertex to the third one
+     */
+    private final double e2x, e2y, e2z;
+    /**
+     * Dot products of the edges, used for the barycentric coordinates
+     */
+    private final double d11, d12, d22;
+    /**
+     * Reciprocal of the denominator of the barycentric coordinates
+     */
+    private final double invDenominator;
+
     /**
      * Constructs a new Triangle object with the given three points.
      *
@@ -26,34 +54,94 @@ public class Triangle extends Polygon {
      */
     public Triangle(Point point1, Point point2, Point point3) {
         super(point1, point2, point3);
+        x0 = point1.getX();
+        y0 = point1.getY();
+        z0 = point1.getZ();
+        e1x = point2.getX() - x0;
+        e1y = point2.getY() - y0;
+        e1z = point2.getZ() - z0;
+        e2x = point3.getX() - x0;
+        e2y = point3.getY() - y0;
+        e2z = point3.getZ() - z0;
+
+        d11 = e1x * e1x + e1y * e1y + e1z * e1z;
+        d12 = e1x * e2x + e1y * e2y + e1z * e2z;
+        d22 = e2x * e2x + e2y * e2y + e2z * e2z;
+        invDenominator = 1 / (d11 * d22 - d12 * d12);
+    }
+
+    /**
+     * Calculates the barycentric coordinates of a point on the triangle
+     * (the weights of the vertices that produce the point).
+     *
+     * @param point a point in the plane of the triangle
+     * @return the weights of the first, the second and the third vertex - their sum is 1,
+     * and all of them are positive for a point inside the triangle
+     */
+    public Double3 getBarycentric(Point point) {
+        double px = point.getX() - x0, py = point.getY() - y0, pz = point.getZ() - z0;
+        double d1 = px * e1x + py * e1y + pz * e1z;
+        double d2 = px * e2x + py * e2y + pz * e2z;
+        double u = (d22 * d1 - d12 * d2) * invDenominator;
+        double v = (d11 * d2 - d12 * d1) * invDenominator;
+        return new Double3(1 - u - v, u, v);
     }
 
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
-        var intersection = plane.findGeoIntersectionsHelper(ray, maxDistance);
-        // there is no intersection with the plane
-        if (intersection == null)
-            return null;
+        GeoPoint intersection = findClosestGeoIntersectionHelper(ray, maxDistance);
+        return intersection == null ? null : List.of(intersection);
+    }
 
-        Point p0 = ray.getP0();
-        Vector v = ray.getDir();
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        double t = intersect(ray, x0, y0, z0, e1x, e1y, e1z, e2x, e2y, e2z, maxDistance);
+        return t == Double.POSITIVE_INFINITY ? null : new GeoPoint(this, ray.getPoint(t));
+    }
 
-        Vector v1 = vertices.get(0).subtract(p0);
-        Vector v2 = vertices.get(1).subtract(p0);
-        Vector n1 = (v1.crossProduct(v2));
-        double t1 = alignZero(n1.dotProduct(v));
-        if (t1 == 0) return null;
+    /**
+     * Intersects a ray with a triangle by the Möller–Trumbore algorithm - the distance and the barycentric
+     * coordinates of the intersection are solved together, without intersecting the plane of the triangle first.
+     * Nothing is allocated. Intersections on the edges and the vertices of the triangle are not counted.
+     *
+     * @param ray         the ray
+     * @param x0          the x coordinate of the first vertex
+     * @param y0          the y coordinate of the first vertex
+     * @param z0          the z coordinate of the first vertex
+     * @param e1x         the x component of the edge from the first vertex to the second one
+     * @param e1y         the y component of the edge from the first vertex to the second one
+     * @param e1z         the z component of the edge from the first vertex to the second one
+     * @param e2x         the x component of the edge from the first vertex to the third one
+     * @param e2y         the y component of the edge from the first vertex to the third one
+     * @param e2z         the z component of the edge from the first vertex to the third one
+     * @param maxDistance the maximum distance of the intersection
+     * @return the distance of the intersection along the ray, or positive infinity if there is none
+     */
+    static double intersect(Ray ray, double x0, double y0, double z0,
+                            double e1x, double e1y, double e1z, double e2x, double e2y, double e2z,
+                            double maxDistance) {
+        Vector dir = ray.getDir();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+
+        // p = dir x e2
+        double px = dy * e2z - dz * e2y, py = dz * e2x - dx * e2z, pz = dx * e2y - dy * e2x;
+        double det = e1x * px + e1y * py + e1z * pz;
+        // the determinant grows with the square of the size of the triangle, so it is compared relatively to it
+        double edges = (e1x * e1x + e1y * e1y + e1z * e1z) * (e2x * e2x + e2y * e2y + e2z * e2z);
+        if (det * det <= PARALLEL * edges) return Double.POSITIVE_INFINITY; // the ray is parallel to the triangle
+        double invDet = 1 / det;
 
-        Vector v3 = vertices.get(2).subtract(p0);
-        Vector n2 = (v2.crossProduct(v3));
-        double t2 = alignZero(n2.dotProduct(v));
-        if (t1 * t2 <= 0) return null;
+        Point p0 = ray.getP0();
+        double sx = p0.getX() - x0, sy = p0.getY() - y0, sz = p0.getZ() - z0;
+        double u = alignZero((sx * px + sy * py + sz * pz) * invDet);
+        if (u <= 0 || u >= 1) return Double.POSITIVE_INFINITY;
 
-        Vector n3 = (v3.crossProduct(v1));
-        double t3 = alignZero(n3.dotProduct(v));
-        if (t1 * t3 <= 0) return null;
+        // q = s x e1
+        double qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+        double v = alignZero((dx * qx + dy * qy + dz * qz) * invDet);
+        if (v <= 0 || alignZero(u + v - 1) >= 0) return Double.POSITIVE_INFINITY;
 
-        intersection.get(0).geometry = this;
-        return intersection;
+        double t = alignZero((e2x * qx + e2y * qy + e2z * qz) * invDet);
+        return t <= 0 || alignZero(t - maxDistance) > 0 ? Double.POSITIVE_INFINITY : t;
     }
 }
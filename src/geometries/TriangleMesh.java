@@ -0,0 +1,629 @@
+package geometries;
+
+import primitives.Color;
+import primitives.Double3;
+import primitives.Material;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * The TriangleMesh class represents a surface made of triangles sharing their vertices.
+ * <p>
+ * The vertices are kept in a flat array of coordinates and the triangles in a flat array of vertex indices,
+ * so a mesh of any size is made of a few arrays instead of an object (or several) per triangle.
+ * The triangles are arranged in a bounding volume hierarchy (built by the surface area heuristic)
+ * which is stored in flat arrays as well.
+ * <p>
+ * The whole mesh has a single emission and material. An intersection is reported on a {@link Face} -
+ * a light-weight geometry which represents the hit triangle and supplies its normal.
+ */
+public class TriangleMesh extends Geometry {
+
+    /**
+     * Distance from the mesh within which a point is considered on it, relative to the size of the mesh
+     */
+    private static final double ON_MESH = 1e-9;
+
+    /**
+     * Coordinates of the vertices - x, y and z of each vertex in turn
+     */
+    private final double[] vertices;
+    /**
+     * Indices of the vertices of the triangles - three for each triangle in turn
+     */
+    private final int[] indices;
+
+    /**
+     * The triangles in the order of the hierarchy leaves
+     */
+    private final int[] order;
+    /**
+     * Bounding boxes of the hierarchy nodes - minimal x, y, z and maximal x, y, z of each node in turn.
+     * The nodes are stored in depth-first order, so the left child of a node follows it.
+     */
+    private final double[] nodeBounds;
+    /**
+     * Contents of the hierarchy nodes - two values for each node: for a leaf, the position of its first
+     * triangle in {@link #order} and the number of its triangles; for an inner node, the index of its
+     * right child and 0
+     */
+    private final int[] nodes;
+
+    /**
+     * Constructs a mesh from shared vertex and index arrays. The arrays are not copied and must not be
+     * changed afterwards.
+     *
+     * @param vertices coordinates of the vertices - x, y and z of each vertex in turn
+     * @param indices  indices of the vertices of the triangles - three for each triangle in turn
+     * @throws IllegalArgumentException if the arrays are not made of whole vertices and triangles,
+     *                                  there are no triangles, or an index is not of a vertex
+     */
+    public TriangleMesh(double[] vertices, int[] indices) {
+        if (vertices.length % 3 != 0)
+            throw new IllegalArgumentException("The vertices array must hold 3 coordinates for each vertex");
+        if (indices.length % 3 != 0)
+            throw new IllegalArgumentException("The indices array must hold 3 indices for each triangle");
+        if (indices.length == 0)
+            throw new IllegalArgumentException("A mesh must have at least one triangle");
+        int vertexCount = vertices.length / 3;
+        for (int index : indices)
+            if (index < 0 || index >= vertexCount)
+                throw new IllegalArgumentException("Vertex index " + index + " is out of range");
+
+        this.vertices = vertices;
+        this.indices = indices;
+
+        Builder builder = new Builder(vertices, indices);
+        builder.build(0, indices.length / 3);
+        order = builder.order;
+        nodeBounds = Arrays.copyOf(builder.bounds, builder.count * 6);
+        nodes = Arrays.copyOf(builder.nodes, builder.count * 2);
+    }
+
+    /**
+     * Constructs a mesh with an already built hierarchy.
+     *
+     * @param vertices   coordinates of the vertices
+     * @param indices    indices of the vertices of the triangles
+     * @param order      the triangles in the order of the hierarchy leaves
+     * @param nodeBounds bounding boxes of the hierarchy nodes
+     * @param nodes      contents of the hierarchy nodes
+     */
+    private TriangleMesh(double[] vertices, int[] indices, int[] order, double[] nodeBounds, int[] nodes) {
+        this.vertices = vertices;
+        this.indices = indices;
+        this.order = order;
+        this.nodeBounds = nodeBounds;
+        this.nodes = nodes;
+    }
+
+    /**
+     * Writes the mesh together with its hierarchy (but without its emission and material),
+     * so it can be restored by {@link #read(ByteBuffer)} without building the hierarchy again.
+     *
+     * @param out the output to write into
+     * @throws IOException if the output fails
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(vertices.length / 3);
+        out.writeInt(indices.length / 3);
+        out.writeInt(nodes.length / 2);
+        for (double value : vertices) out.writeDouble(value);
+        for (int value : indices) out.writeInt(value);
+        for (int value : order) out.writeInt(value);
+        for (double value : nodeBounds) out.writeDouble(value);
+        for (int value : nodes) out.writeInt(value);
+    }
+
+    /**
+     * Restores a mesh written by {@link #write(DataOutput)}. The arrays are copied from the buffer in bulk,
+     * so reading from a memory mapped file involves no parsing.
+     *
+     * @param buffer the buffer to read from, positioned at the mesh (and left after it)
+     * @return the mesh
+     */
+    public static TriangleMesh read(ByteBuffer buffer) {
+        int vertexCount = buffer.getInt();
+        int triangleCount = buffer.getInt();
+        int nodeCount = buffer.getInt();
+
+        double[] vertices = new double[3 * vertexCount];
+        int[] indices = new int[3 * triangleCount];
+        int[] order = new int[triangleCount];
+        double[] nodeBounds = new double[6 * nodeCount];
+        int[] nodes = new int[2 * nodeCount];
+        buffer.asDoubleBuffer().get(vertices);
+        buffer.position(buffer.position() + Double.BYTES * vertices.length);
+        buffer.asIntBuffer().get(indices).get(order);
+        buffer.position(buffer.position() + Integer.BYTES * (indices.length + order.length));
+        buffer.asDoubleBuffer().get(nodeBounds);
+        buffer.position(buffer.position() + Double.BYTES * nodeBounds.length);
+        buffer.asIntBuffer().get(nodes);
+        buffer.position(buffer.position() + Integer.BYTES * nodes.length);
+        return new TriangleMesh(vertices, indices, order, nodeBounds, nodes);
+    }
+
+    /**
+     * Returns the number of vertices of the mesh
+     *
+     * @return the number of vertices
+     */
+    public int getVertexCount() {
+        return vertices.length / 3;
+    }
+
+    /**
+     * Returns the number of triangles of the mesh
+     *
+     * @return the number of triangles
+     */
+    public int getTriangleCount() {
+        return indices.length / 3;
+    }
+
+    /**
+     * Returns a vertex of the mesh
+     *
+     * @param index the index of the vertex
+     * @return the vertex
+     */
+    public Point getVertex(int index) {
+        return new Point(vertices[3 * index], vertices[3 * index + 1], vertices[3 * index + 2]);
+    }
+
+    /**
+     * Finds the normal of the mesh at a point by locating the triangle the point lies on.
+     * The intersections with the mesh need no such search - their faces supply the normal,
+     * see {@link Face#getNormal(Point)}.
+     *
+     * @param point a point on the mesh
+     * @return the normal of a triangle holding the point
+     * @throws IllegalArgumentException if the point is not on the mesh
+     */
+    @Override
+    public Vector getNormal(Point point) {
+        // rounding errors of points on the mesh grow with its size, and so does the tolerance
+        double dx = nodeBounds[3] - nodeBounds[0];
+        double dy = nodeBounds[4] - nodeBounds[1];
+        double dz = nodeBounds[5] - nodeBounds[2];
+        double tolerance = ON_MESH * Math.sqrt(dx * dx + dy * dy + dz * dz);
+        int triangle = locate(point.getX(), point.getY(), point.getZ(), 0, tolerance);
+        if (triangle < 0)
+            throw new IllegalArgumentException("The point " + point + " is not on the mesh");
+        return normal(triangle);
+    }
+
+    @Override
+    protected BoundingBox calcBoundingBox() {
+        return new BoundingBox(nodeBounds[0], nodeBounds[1], nodeBounds[2],
+                nodeBounds[3], nodeBounds[4], nodeBounds[5]);
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        return collect(ray, 0, maxDistance, null);
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        double[] distance = new double[1];
+        int triangle = closest(ray, 0, maxDistance, distance);
+        return triangle < 0 ? null : new GeoPoint(new Face(triangle), ray.getPoint(distance[0]));
+    }
+
+    @Override
+    protected Double3 calcTransparencyHelper(Ray ray, double maxDistance, Double3 ktr, double minK,
+                                             Geometry[] occluder) {
+        if (!getMaterial().kt.lowerThan(minK))
+            return super.calcTransparencyHelper(ray, maxDistance, ktr, minK, occluder);
+        int triangle = blocking(ray, 0, maxDistance);
+        if (triangle < 0) return ktr;
+        if (occluder != null) occluder[0] = new Face(triangle);
+        return Double3.ZERO;
+    }
+
+    /**
+     * Intersects a ray with a single triangle of the mesh.
+     *
+     * @param triangle    the index of the triangle
+     * @param ray         the ray
+     * @param maxDistance the maximum distance of the intersection
+     * @return the distance of the intersection along the ray, or positive infinity if there is none
+     */
+    private double intersect(int triangle, Ray ray, double maxDistance) {
+        int a = 3 * indices[3 * triangle];
+        int b = 3 * indices[3 * triangle + 1];
+        int c = 3 * indices[3 * triangle + 2];
+        double x0 = vertices[a], y0 = vertices[a + 1], z0 = vertices[a + 2];
+        return Triangle.intersect(ray, x0, y0, z0,
+                vertices[b] - x0, vertices[b + 1] - y0, vertices[b + 2] - z0,
+                vertices[c] - x0, vertices[c + 1] - y0, vertices[c + 2] - z0,
+                maxDistance);
+    }
+
+    /**
+     * Calculates the distance along the ray where it enters the bounding box of a node (slab test).
+     *
+     * @param node        the index of the node
+     * @param ray         the ray
+     * @param maxDistance the maximum distance along the ray
+     * @return the entry distance, or positive infinity if the ray misses the box within the distance
+     */
+    private double enter(int node, Ray ray, double maxDistance) {
+        int i = 6 * node;
+        return BoundingBox.intersect(ray, nodeBounds[i], nodeBounds[i + 1], nodeBounds[i + 2],
+                nodeBounds[i + 3], nodeBounds[i + 4], nodeBounds[i + 5], maxDistance);
+    }
+
+    /**
+     * Finds the triangle of the closest intersection under a node.
+     *
+     * @param ray         the ray
+     * @param node        the index of the node
+     * @param maxDistance the maximum distance of the intersection
+     * @param distance    a holder whose first element is set to the distance of the intersection along the ray
+     *                    (left as is if there is none)
+     * @return the index of the triangle, or -1 if there is no intersection within the distance
+     */
+    private int closest(Ray ray, int node, double maxDistance, double[] distance) {
+        int count = nodes[2 * node + 1];
+        if (count > 0) { // a leaf - the triangles are tested one by one
+            int closest = -1;
+            for (int k = nodes[2 * node], end = k + count; k < end; ++k) {
+                double t = intersect(order[k], ray, maxDistance);
+                if (t != Double.POSITIVE_INFINITY && (closest < 0 || t < maxDistance)) {
+                    closest = order[k];
+                    maxDistance = t;
+                }
+            }
+            if (closest >= 0) distance[0] = maxDistance;
+            return closest;
+        }
+
+        // visit the children front to back, the farther one only if it may hold a closer intersection
+        int near = node + 1;
+        int far = nodes[2 * node];
+        double tNear = enter(near, ray, maxDistance);
+        double tFar = enter(far, ray, maxDistance);
+        if (tFar < tNear) {
+            int n = near;
+            near = far;
+            far = n;
+            double t = tNear;
+            tNear = tFar;
+            tFar = t;
+        }
+        if (tNear == Double.POSITIVE_INFINITY) return -1;
+
+        int closest = closest(ray, near, maxDistance, distance);
+        if (closest >= 0) {
+            maxDistance = distance[0];
+            if (tFar > maxDistance) return closest;
+        }
+        if (tFar == Double.POSITIVE_INFINITY) return closest;
+        int farClosest = closest(ray, far, maxDistance, distance);
+        if (farClosest >= 0 && (closest < 0 || distance[0] < maxDistance)) return farClosest;
+        if (closest >= 0) distance[0] = maxDistance; // the farther child may have reported an equal distance
+        return closest;
+    }
+
+    /**
+     * Finds any triangle under a node which intersects the ray.
+     *
+     * @param ray         the ray
+     * @param node        the index of the node
+     * @param maxDistance the maximum distance of the intersection
+     * @return the index of a triangle intersecting the ray within the distance, or -1 if there is none
+     */
+    private int blocking(Ray ray, int node, double maxDistance) {
+        int count = nodes[2 * node + 1];
+        if (count > 0) {
+            for (int k = nodes[2 * node], end = k + count; k < end; ++k)
+                if (intersect(order[k], ray, maxDistance) != Double.POSITIVE_INFINITY)
+                    return order[k];
+            return -1;
+        }
+        int left = node + 1;
+        int right = nodes[2 * node];
+        int triangle = enter(left, ray, maxDistance) == Double.POSITIVE_INFINITY ? -1
+                : blocking(ray, left, maxDistance);
+        return triangle >= 0 || enter(right, ray, maxDistance) == Double.POSITIVE_INFINITY ? triangle
+                : blocking(ray, right, maxDistance);
+    }
+
+    /**
+     * Finds a triangle under a node which holds a point.
+     *
+     * @param x         the x coordinate of the point
+     * @param y         the y coordinate of the point
+     * @param z         the z coordinate of the point
+     * @param node      the index of the node
+     * @param tolerance the distance from a triangle within which the point is considered on it
+     * @return the index of a triangle holding the point, or -1 if there is none
+     */
+    private int locate(double x, double y, double z, int node, double tolerance) {
+        int i = 6 * node;
+        if (x < nodeBounds[i] - tolerance || y < nodeBounds[i + 1] - tolerance || z < nodeBounds[i + 2] - tolerance
+                || x > nodeBounds[i + 3] + tolerance || y > nodeBounds[i + 4] + tolerance
+                || z > nodeBounds[i + 5] + tolerance)
+            return -1;
+        int count = nodes[2 * node + 1];
+        if (count > 0) {
+            for (int k = nodes[2 * node], end = k + count; k < end; ++k)
+                if (holds(order[k], x, y, z, tolerance))
+                    return order[k];
+            return -1;
+        }
+        int triangle = locate(x, y, z, node + 1, tolerance);
+        return triangle >= 0 ? triangle : locate(x, y, z, nodes[2 * node], tolerance);
+    }
+
+    /**
+     * Checks whether a point lies on a triangle of the mesh.
+     *
+     * @param triangle  the index of the triangle
+     * @param x         the x coordinate of the point
+     * @param y         the y coordinate of the point
+     * @param z         the z coordinate of the point
+     * @param tolerance the distance from the triangle within which the point is considered on it
+     * @return true if the point is on the triangle
+     */
+    private boolean holds(int triangle, double x, double y, double z, double tolerance) {
+        int a = 3 * indices[3 * triangle];
+        int b = 3 * indices[3 * triangle + 1];
+        int c = 3 * indices[3 * triangle + 2];
+        double e1x = vertices[b] - vertices[a], e1y = vertices[b + 1] - vertices[a + 1];
+        double e1z = vertices[b + 2] - vertices[a + 2];
+        double e2x = vertices[c] - vertices[a], e2y = vertices[c + 1] - vertices[a + 1];
+        double e2z = vertices[c + 2] - vertices[a + 2];
+        double nx = e1y * e2z - e1z * e2y, ny = e1z * e2x - e1x * e2z, nz = e1x * e2y - e1y * e2x;
+        double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        if (length == 0) return false; // a degenerate triangle holds no normal
+
+        double distance = (x - vertices[a]) * nx + (y - vertices[a + 1]) * ny + (z - vertices[a + 2]) * nz;
+        return Math.abs(distance) <= tolerance * length
+                && inside(a, b, x, y, z, nx, ny, nz, tolerance * length)
+                && inside(b, c, x, y, z, nx, ny, nz, tolerance * length)
+                && inside(c, a, x, y, z, nx, ny, nz, tolerance * length);
+    }
+
+    /**
+     * Checks whether a point is not beyond an edge of a triangle, looking along the (not normalized) normal
+     * of the triangle.
+     *
+     * @param from      the position of the first vertex of the edge in the coordinates array
+     * @param to        the position of the second vertex of the edge in the coordinates array
+     * @param x         the x coordinate of the point
+     * @param y         the y coordinate of the point
+     * @param z         the z coordinate of the point
+     * @param nx        the x coordinate of the normal
+     * @param ny        the y coordinate of the normal
+     * @param nz        the z coordinate of the normal
+     * @param tolerance the distance beyond the edge within which the point is accepted, times the length of the
+     *                  normal
+     * @return true if the point is on the inner side of the edge or close enough to it
+     */
+    private boolean inside(int from, int to, double x, double y, double z,
+                           double nx, double ny, double nz, double tolerance) {
+        double ex = vertices[to] - vertices[from];
+        double ey = vertices[to + 1] - vertices[from + 1];
+        double ez = vertices[to + 2] - vertices[from + 2];
+        double px = x - vertices[from], py = y - vertices[from + 1], pz = z - vertices[from + 2];
+        double side = (ey * pz - ez * py) * nx + (ez * px - ex * pz) * ny + (ex * py - ey * px) * nz;
+        return side >= -tolerance * Math.sqrt(ex * ex + ey * ey + ez * ez);
+    }
+
+    /**
+     * Calculates the normal of a triangle of the mesh.
+     *
+     * @param triangle the index of the triangle
+     * @return the normal of the triangle
+     */
+    private Vector normal(int triangle) {
+        int a = 3 * indices[3 * triangle];
+        int b = 3 * indices[3 * triangle + 1];
+        int c = 3 * indices[3 * triangle + 2];
+        return new Vector(vertices[b] - vertices[a], vertices[b + 1] - vertices[a + 1],
+                vertices[b + 2] - vertices[a + 2])
+                .crossProduct(new Vector(vertices[c] - vertices[a], vertices[c + 1] - vertices[a + 1],
+                        vertices[c + 2] - vertices[a + 2]))
+                .normalize();
+    }
+
+    /**
+     * Collects all the intersections under a node.
+     *
+     * @param ray           the ray
+     * @param node          the index of the node
+     * @param maxDistance   the maximum distance of the intersections
+     * @param intersections the intersections collected so far, or null if there are none yet
+     * @return the intersections collected so far, or null if there are none
+     */
+    private List<GeoPoint> collect(Ray ray, int node, double maxDistance, List<GeoPoint> intersections) {
+        int count = nodes[2 * node + 1];
+        if (count > 0) {
+            for (int k = nodes[2 * node], end = k + count; k < end; ++k) {
+                double t = intersect(order[k], ray, maxDistance);
+                if (t != Double.POSITIVE_INFINITY) {
+                    if (intersections == null) intersections = new LinkedList<>();
+                    intersections.add(new GeoPoint(new Face(order[k]), ray.getPoint(t)));
+                }
+            }
+            return intersections;
+        }
+        int left = node + 1;
+        int right = nodes[2 * node];
+        if (enter(left, ray, maxDistance) != Double.POSITIVE_INFINITY)
+            intersections = collect(ray, left, maxDistance, intersections);
+        if (enter(right, ray, maxDistance) != Double.POSITIVE_INFINITY)
+            intersections = collect(ray, right, maxDistance, intersections);
+        return intersections;
+    }
+
+    /**
+     * A single triangle of the mesh, as reported in the intersections with the mesh.
+     * It shares the emission and the material of the mesh and supplies the normal of the triangle.
+     */
+    public class Face extends Geometry {
+
+        /**
+         * The index of the triangle in the mesh
+         */
+        private final int index;
+
+        /**
+         * Constructs a face of a triangle of the mesh.
+         *
+         * @param index the index of the triangle
+         */
+        private Face(int index) {
+            super(TriangleMesh.this.getMaterial()); // shared rather than a default material for every hit
+            this.index = index;
+        }
+
+        /**
+         * Returns the index of the triangle in the mesh
+         *
+         * @return the index of the triangle
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Returns the mesh of the face
+         *
+         * @return the mesh
+         */
+        public TriangleMesh getMesh() {
+            return TriangleMesh.this;
+        }
+
+        @Override
+        public Color getEmission() {
+            return TriangleMesh.this.getEmission();
+        }
+
+        @Override
+        public Material getMaterial() {
+            return TriangleMesh.this.getMaterial();
+        }
+
+        @Override
+        public Vector getNormal(Point point) {
+            return normal(index);
+        }
+
+        @Override
+        protected BoundingBox calcBoundingBox() {
+            return new BoundingBox(getVertex(indices[3 * index]), getVertex(indices[3 * index + 1]),
+                    getVertex(indices[3 * index + 2]));
+        }
+
+        @Override
+        protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+            double t = intersect(index, ray, maxDistance);
+            return t == Double.POSITIVE_INFINITY ? null : List.of(new GeoPoint(this, ray.getPoint(t)));
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            return obj instanceof Face other && other.getMesh() == getMesh() && other.index == index;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(getMesh()) * 31 + index;
+        }
+    }
+
+    /**
+     * Builds the bounding volume hierarchy of a mesh into flat arrays.
+     */
+    private static final class Builder {
+        /**
+         * Bounding boxes of the triangles - 6 values for each triangle
+         */
+        private final double[] boxes;
+        /**
+         * The splitter of the ranges of triangles
+         */
+        private final SahSplitter splitter;
+        /**
+         * The triangles, reordered while building
+         */
+        private final int[] order;
+        /**
+         * Bounding boxes of the built nodes
+         */
+        private double[] bounds = new double[6 * 16];
+        /**
+         * Contents of the built nodes
+         */
+        private int[] nodes = new int[2 * 16];
+        /**
+         * Number of the built nodes
+         */
+        private int count;
+
+        /**
+         * Prepares the bounding boxes of the triangles of a mesh.
+         *
+         * @param vertices the coordinates of the vertices of the mesh
+         * @param indices  the indices of the vertices of the triangles of the mesh
+         */
+        private Builder(double[] vertices, int[] indices) {
+            int triangles = indices.length / 3;
+            boxes = new double[6 * triangles];
+            for (int tr = 0; tr < triangles; ++tr)
+                for (int axis = 0; axis < 3; ++axis) {
+                    double a = vertices[3 * indices[3 * tr] + axis];
+                    double b = vertices[3 * indices[3 * tr + 1] + axis];
+                    double c = vertices[3 * indices[3 * tr + 2] + axis];
+                    boxes[6 * tr + axis] = Math.min(a, Math.min(b, c));
+                    boxes[6 * tr + 3 + axis] = Math.max(a, Math.max(b, c));
+                }
+            splitter = new SahSplitter(boxes);
+            order = splitter.order;
+        }
+
+        /**
+         * Recursively builds the hierarchy over a range of the triangles.
+         *
+         * @param from the first position of the range in the order (included)
+         * @param to   the last position of the range in the order (excluded)
+         * @return the index of the node holding the range
+         */
+        private int build(int from, int to) {
+            int node = count++;
+            if (node * 6 == bounds.length) {
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+                nodes = Arrays.copyOf(nodes, nodes.length * 2);
+            }
+            SahSplitter.empty(bounds, node);
+            for (int k = from; k < to; ++k)
+                SahSplitter.include(bounds, node, boxes, order[k]);
+
+            int mid = splitter.split(from, to, SahSplitter.area(bounds, node));
+            if (mid < 0) { // leaf
+                nodes[2 * node] = from;
+                nodes[2 * node + 1] = to - from;
+                return node;
+            }
+            build(from, mid); // the left child follows its parent
+            int right = build(mid, to);
+            nodes[2 * node] = right;
+            nodes[2 * node + 1] = 0;
+            return node;
+        }
+    }
+}
@@ -36,7 +36,6 @@ public class Tube extends RadialGeometry {
      *
      * @return the axis ray of the tube
      */
-    @SuppressWarnings("unused")
     public Ray getAxisRay() {
         return axisRay;
     }
@@ -47,6 +46,11 @@ public class Tube extends RadialGeometry {
         return p.subtract(axisRay.getPoint(t)).normalize();
     }
 
+    @Override
+    protected BoundingBox calcBoundingBox() {
+        return BoundingBox.INFINITE;
+    }
+
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
         return null;
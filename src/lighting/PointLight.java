@@ -30,7 +30,6 @@ public class PointLight extends Light implements LightSource {
      * @param kc the constant attenuation factor to set
      * @return the point light itself
      */
-    @SuppressWarnings("unused")
     public PointLight setKc(double kc) {
         this.kc = kc;
         return this;
@@ -58,6 +57,42 @@ public class PointLight extends Light implements LightSource {
         return this;
     }
 
+    /**
+     * Returns the position of the point light.
+     *
+     * @return the position
+     */
+    public Point getPosition() {
+        return position;
+    }
+
+    /**
+     * Returns the constant attenuation factor of the point light.
+     *
+     * @return the constant attenuation factor
+     */
+    public double getKc() {
+        return kc;
+    }
+
+    /**
+     * Returns the linear attenuation factor of the point light.
+     *
+     * @return the linear attenuation factor
+     */
+    public double getKl() {
+        return kl;
+    }
+
+    /**
+     * Returns the quadratic attenuation factor of the point light.
+     *
+     * @return the quadratic attenuation factor
+     */
+    public double getKq() {
+        return kq;
+    }
+
     @Override
     public Color getIntensity(Point p) {
         double d = position.distance(p);
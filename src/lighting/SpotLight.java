@@ -39,6 +39,24 @@ public class SpotLight extends PointLight {
         return this;
     }
 
+    /**
+     * Returns the direction of the spotlight.
+     *
+     * @return the direction
+     */
+    public Vector getDirection() {
+        return direction;
+    }
+
+    /**
+     * Returns the narrow beam factor of the spotlight.
+     *
+     * @return the narrow beam factor
+     */
+    public double getNarrowBeam() {
+        return beam;
+    }
+
 
     @Override
     public Color getIntensity(Point p) {
@@ -76,6 +76,15 @@ public class Color {
         return new java.awt.Color(ir > 255 ? 255 : ir, ig > 255 ? 255 : ig, ib > 255 ? 255 : ib);
     }
 
+    /**
+     * RGB components getter - returns the components as they are, without any conversion
+     *
+     * @return the RGB components of the color
+     */
+    public Double3 getRgb() {
+        return rgb;
+    }
+
     /**
      * Operation of adding this and one or more other colors (by component)
      *
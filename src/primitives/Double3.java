@@ -59,6 +59,33 @@ public class Double3 {
         this.d3 = value;
     }
 
+    /**
+     * First number getter
+     *
+     * @return the first number
+     */
+    public double getD1() {
+        return d1;
+    }
+
+    /**
+     * Second number getter
+     *
+     * @return the second number
+     */
+    public double getD2() {
+        return d2;
+    }
+
+    /**
+     * Third number getter
+     *
+     * @return the third number
+     */
+    public double getD3() {
+        return d3;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
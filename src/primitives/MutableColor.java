@@ -0,0 +1,55 @@
+package primitives;
+
+/**
+ * Mutable color accumulator for the hot path of the ray tracer.
+ * Unlike {@link Color}, whose every operation allocates a new object, the accumulator
+ * sums up contributions in place and creates a single Color at the end.
+ * It is not thread-safe - each thread (and each recursion level) should use its own accumulator.
+ */
+public final class MutableColor {
+    private double r;
+    private double g;
+    private double b;
+
+    /**
+     * Constructs an accumulator initialized with a color
+     *
+     * @param color the initial color
+     */
+    public MutableColor(Color color) {
+        Double3 rgb = color.getRgb();
+        r = rgb.d1;
+        g = rgb.d2;
+        b = rgb.d3;
+    }
+
+    /**
+     * Adds the contribution of a light source by the Phong model:
+     * intensity * ktr * (kd * diffusive + ks * specular)
+     *
+     * @param intensity the intensity of the light at the point
+     * @param ktr       the transparency factor of the light on its way to the point
+     * @param kd        the diffusive reflection coefficient of the material
+     * @param diffusive the diffusive factor (|n*l|)
+     * @param ks        the specular reflection coefficient of the material
+     * @param specular  the specular factor ((-v*r)^shininess)
+     * @return the accumulator itself
+     */
+    public MutableColor addLight(Color intensity, Double3 ktr, Double3 kd, double diffusive, Double3 ks,
+                                 double specular) {
+        Double3 rgb = intensity.getRgb();
+        r += rgb.d1 * ktr.d1 * (kd.d1 * diffusive + ks.d1 * specular);
+        g += rgb.d2 * ktr.d2 * (kd.d2 * diffusive + ks.d2 * specular);
+        b += rgb.d3 * ktr.d3 * (kd.d3 * diffusive + ks.d3 * specular);
+        return this;
+    }
+
+    /**
+     * Creates an immutable color from the accumulated value
+     *
+     * @return the accumulated color
+     */
+    public Color toColor() {
+        return new Color(r, g, b);
+    }
+}
@@ -30,7 +30,7 @@ public class Ray {
      */
     public Ray(Point p, Vector v) {
         p0 = p;
-        dir = v.normalize();
+        dir = normalized(v);
     }
 
     /**
@@ -40,9 +40,20 @@ public class Ray {
      * @param n     normal vector
      */
     public Ray(Vector v, Point p , Vector n) {
-        dir = v.normalize();
-        Vector delta = n.scale(alignZero(n.dotProduct(dir) > 0 ? DELTA : -DELTA));
-        p0 = p.add(delta);
+        dir = normalized(v);
+        double delta = alignZero(n.dotProduct(dir) > 0 ? DELTA : -DELTA);
+        p0 = new Point(p.xyz.d1 + n.xyz.d1 * delta, p.xyz.d2 + n.xyz.d2 * delta, p.xyz.d3 + n.xyz.d3 * delta);
+    }
+
+    /**
+     * Normalizes a direction vector, unless it is already a unit vector (as most directions
+     * calculated by the ray tracer are) - to avoid allocating a new vector
+     *
+     * @param v the direction vector
+     * @return the normalized vector
+     */
+    private static Vector normalized(Vector v) {
+        return isZero(v.lengthSquared() - 1) ? v : v.normalize();
     }
 
     /**
@@ -72,7 +83,8 @@ public class Ray {
      * @return point
      */
     public Point getPoint(double t) {
-        return isZero(t) ? p0 : p0.add(dir.scale(t));
+        return isZero(t) ? p0
+                : new Point(p0.xyz.d1 + dir.xyz.d1 * t, p0.xyz.d2 + dir.xyz.d2 * t, p0.xyz.d3 + dir.xyz.d3 * t);
     }
 
     /**
@@ -1,5 +1,7 @@
 package primitives;
 
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * Util class is used for some internal utilities, e.g. controlling accuracy
  *
@@ -60,7 +62,8 @@ public abstract class Util {
     }
 
     /**
-     * Provide a real random number in range between min and max
+     * Provide a real random number in range between min and max, from the generator of the current thread
+     * (so threads do not contend on a shared generator)
      *
      * @param min value (included)
      * @param max value (excluded)
@@ -68,6 +71,6 @@ public abstract class Util {
      */
     @SuppressWarnings("unused")
     public static double random(double min, double max) {
-        return Math.random() * (max - min) + min;
+        return ThreadLocalRandom.current().nextDouble() * (max - min) + min;
     }
 }
@@ -1,5 +1,7 @@
 package primitives;
 
+import static primitives.Util.isZero;
+
 /**
  * Represents a three-dimensional vector in Cartesian coordinate system.
  * A vector is defined by its x, y, and z components, which correspond to the
@@ -17,7 +19,7 @@ public class Vector extends Point {
      */
     public Vector(double d1, double d2, double d3) {
         super(d1, d2, d3);
-        if (xyz.equals(Double3.ZERO))
+        if (isZero(d1) && isZero(d2) && isZero(d3))
             throw new IllegalArgumentException("The vector is equal to zero");
     }
 
@@ -29,7 +31,7 @@ public class Vector extends Point {
      */
     Vector(Double3 xyz) {
         super(xyz);
-        if (xyz.equals(Double3.ZERO))
+        if (isZero(xyz.d1) && isZero(xyz.d2) && isZero(xyz.d3))
             throw new IllegalArgumentException("The vector is equal to zero");
     }
 
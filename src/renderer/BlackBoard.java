@@ -6,13 +6,18 @@ import primitives.Vector;
 
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Class for create BlackBoard of points
  */
 public abstract class BlackBoard {
 
+    /**
+     * The seed of the jitter of the points, unless another seed is given
+     */
+    public static final long DEFAULT_SEED = 0;
+
     /**
      * constructor list of points to create circle black board
      * by get size (x/y), 3D point and direction vectors, and radius of circle
@@ -26,6 +31,23 @@ public abstract class BlackBoard {
      *  @return list of all points
      */
     public static List<Point> constructBlackBorad(int xy, Point center, Vector vUp, Vector vRight, double radius) {
+        return constructBlackBorad(xy, center, vUp, vRight, radius, DEFAULT_SEED);
+    }
+
+    /**
+     * constructor list of points to create circle black board, as {@link #constructBlackBorad(int, Point, Vector,
+     * Vector, double)}, with the jitter of the points drawn from a given seed - the same seed gives the same points
+     *
+     *  @param xy number of points in x and y. NEED TO BE over than 1 (1 return only the given center point)
+     *  @param center point to create points around
+     *  @param vUp vUp vector
+     *  @param vRight vRight vector
+     *  @param radius of black board (radius 0.0 return only the center point)
+     *  @param seed seed of the jitter
+     *  @return list of all points
+     */
+    public static List<Point> constructBlackBorad(int xy, Point center, Vector vUp, Vector vRight, double radius,
+                                                  long seed) {
 
         if (xy < 1)
             throw new IllegalArgumentException("xy must be over than 0");
@@ -39,7 +61,7 @@ public abstract class BlackBoard {
         double rectSize = 2 * radius;
 
         double rxy = Util.alignZero(rectSize / xy);
-        Random random = new Random();
+        SplittableRandom random = new SplittableRandom(seed);
 
         for (int i = 0; i < xy; i++) {
             for (int j = 0; j < xy; j++) {
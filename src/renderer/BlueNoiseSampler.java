@@ -0,0 +1,105 @@
+package renderer;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Blue noise sampler - a best candidate sequence (Mitchell's algorithm), where every point is the farthest
+ * of a few random candidates from the previous points, measured around the wrapped square. The sequence
+ * is generated once and shared by all the pixels, shifted by a random offset (modulo 1) for every pixel.
+ */
+public class BlueNoiseSampler implements Sampler {
+
+    /**
+     * The seed of the random candidates, so the sequence is always the same
+     */
+    private static final long SEED = 0x5EED;
+    /**
+     * The number of candidates of a point, for every point before it
+     */
+    private static final int CANDIDATES_PER_POINT = 4;
+    /**
+     * The largest number of candidates of a point
+     */
+    private static final int MAX_CANDIDATES = 32;
+
+    /**
+     * The coordinates of the points of the sequence generated so far - 2 for each point
+     */
+    private volatile double[] sequence = new double[0];
+
+    @Override
+    public void sample(int index, int count, long scramble, double[] points, int offset) {
+        double[] sequence = this.sequence;
+        if (2 * index >= sequence.length) sequence = grow(Math.max(count, index + 1));
+        long hash = Sampler.mix(scramble);
+        points[offset] = shift(sequence[2 * index], Sampler.toUnit(hash));
+        points[offset + 1] = shift(sequence[2 * index + 1], Sampler.toUnit(Sampler.mix(hash)));
+    }
+
+    /**
+     * Generates the sequence up to a number of points. The candidates of every point are drawn from the same
+     * random numbers whatever the length, so a longer sequence begins with the shorter one.
+     *
+     * @param length the number of points
+     * @return the sequence
+     */
+    private synchronized double[] grow(int length) {
+        double[] sequence = this.sequence;
+        int generated = sequence.length / 2;
+        if (generated >= length) return sequence;
+
+        SplittableRandom random = new SplittableRandom(SEED);
+        double[] points = Arrays.copyOf(sequence, 2 * Math.max(length, 2 * generated));
+        for (int i = 0; i < points.length / 2; ++i) {
+            int candidates = Math.min(MAX_CANDIDATES, CANDIDATES_PER_POINT * i + 1);
+            double bestX = 0, bestY = 0, bestDistance = -1;
+            for (int c = 0; c < candidates; ++c) {
+                double x = random.nextDouble(), y = random.nextDouble();
+                if (i < generated) continue; // replay the random numbers of the points generated before
+                double distance = Double.POSITIVE_INFINITY;
+                for (int j = 0; j < i && distance > bestDistance; ++j)
+                    distance = Math.min(distance, wrappedDistanceSquared(x, y, points[2 * j], points[2 * j + 1]));
+                if (distance > bestDistance) {
+                    bestDistance = distance;
+                    bestX = x;
+                    bestY = y;
+                }
+            }
+            if (i >= generated) {
+                points[2 * i] = bestX;
+                points[2 * i + 1] = bestY;
+            }
+        }
+        this.sequence = points;
+        return points;
+    }
+
+    /**
+     * Calculates the squared distance between two points of the unit square, wrapped around its edges
+     *
+     * @param x1 the first coordinate of the first point
+     * @param y1 the second coordinate of the first point
+     * @param x2 the first coordinate of the second point
+     * @param y2 the second coordinate of the second point
+     * @return the squared distance
+     */
+    private static double wrappedDistanceSquared(double x1, double y1, double x2, double y2) {
+        double dx = Math.abs(x1 - x2), dy = Math.abs(y1 - y2);
+        dx = Math.min(dx, 1 - dx);
+        dy = Math.min(dy, 1 - dy);
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Shifts a coordinate modulo 1
+     *
+     * @param value the coordinate, in [0, 1)
+     * @param shift the shift, in [0, 1)
+     * @return the shifted coordinate, in [0, 1)
+     */
+    private static double shift(double value, double shift) {
+        double shifted = value + shift;
+        return shifted >= 1 ? shifted - 1 : shifted;
+    }
+}
@@ -5,8 +5,12 @@ import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 
+import java.io.Serial;
 import java.util.LinkedList;
 import java.util.MissingResourceException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
 
 import static primitives.Util.alignZero;
 import static primitives.Util.isZero;
@@ -15,6 +19,11 @@ import static primitives.Util.isZero;
  * The Camera class represents a camera in a 3D scene.
  */
 public class Camera {
+    /**
+     * The tile size of progressive rendering (unless the coarse step is larger)
+     */
+    private static final int PROGRESSIVE_TILE_SIZE = 32;
+
     private final Point p0;
     private final Vector vTo;
     private final Vector vUp;
@@ -28,6 +37,18 @@ public class Camera {
     private double focalDistance = 0.0;
 
     private PixelManager pixelManager;
+    private ProgressListener progressListener = ProgressListener.CONSOLE;
+    /**
+     * Whether the last render stopped at its time budget before all the pixels were rendered
+     */
+    private volatile boolean stopped;
+    private SampleStatistics sampleStatistics;
+    private RayStatistics rayStatistics;
+    /**
+     * Whether the render cost of every pixel is recorded
+     */
+    private boolean recordCosts;
+    private CostMap costMap;
 
 
     /**
@@ -134,6 +155,24 @@ public class Camera {
         return focalDistance;
     }
 
+    /**
+     * Gets the image writer of the camera.
+     *
+     * @return the image writer, or null if it was not set
+     */
+    public ImageWriter getImageWriter() {
+        return imageWriter;
+    }
+
+    /**
+     * Gets the ray tracer of the camera.
+     *
+     * @return the ray tracer, or null if it was not set
+     */
+    public RayTracerBase getRayTracer() {
+        return rayTracer;
+    }
+
     /**
      * Sets the size of the view plane.
      *
@@ -208,6 +247,38 @@ public class Camera {
         return this;
     }
 
+    /**
+     * sets the listener receiving the progress of multi-threaded rendering
+     *
+     * @param progressListener the listener (printing to the console by default)
+     * @return the camera itself
+     */
+    public Camera setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    /**
+     * sets whether the render cost of every pixel - its time, and its rays if the ray tracer counts them
+     * (see {@link RayTracerBasic#setCollectStatistics(boolean)}) - is recorded, for a heatmap of the costs
+     *
+     * @param recordCosts whether to record the costs (off by default)
+     * @return the camera itself
+     */
+    public Camera setRecordCosts(boolean recordCosts) {
+        this.recordCosts = recordCosts;
+        return this;
+    }
+
+    /**
+     * Checks whether the last render stopped at its time budget before all the pixels were rendered
+     *
+     * @return true if the render was stopped
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
     /**
      * Constructs a ray that passes through the middle of a pixel (i, j) on the view plane.
      *
@@ -250,31 +321,43 @@ public class Camera {
         int nY = this.imageWriter.getNy();
         int nX = this.imageWriter.getNx();
 
-        for (int i = 0; i < nX; i++)
-            for (int j = 0; j < nY; j++)
+        stopped = false;
+        long start = startRender();
+        for (int i = 0; i < nY; i++) {
+            RenderTileEvent event = new RenderTileEvent();
+            event.begin();
+            long rays = event.isEnabled() ? threadRays() : 0;
+            for (int j = 0; j < nX; j++)
                 castRay(nX, nY, j, i);
+            commitTileEvent(event, rays, 0, i, nX, i + 1, nX);
+        }
+        finishRender(start);
         return this;
     }
 
     /**
      * Renders the image with threads using the camera, image writer, and ray tracer.
      * @param threadsCount number of threads
-     * @param printInterval the interval
+     * @param printInterval the progress printing interval in percents, 0 if printing is not required
      * @return the camera itself
      */
     public Camera renderImageWithThreads(int threadsCount, double printInterval) {
         int nY = this.imageWriter.getNy();
         int nX = this.imageWriter.getNx();
-        pixelManager = new PixelManager(nY, nX, printInterval);
+        pixelManager = new PixelManager(nY, nX, printInterval, progressListener);
 
+        stopped = false;
+        long start = startRender();
         var threads = new LinkedList<Thread>(); // list of threads
         while (threadsCount-- > 0) // add appropriate number of threads
             threads.add(new Thread(() -> { // add a thread with its code
                 PixelManager.Pixel pixel; // current pixel(row,col)
                 // allocate pixel(row,col) in loop until there are no more pixels
-                while ((pixel = pixelManager.nextPixel()) != null)
+                while ((pixel = pixelManager.nextPixel()) != null) {
                     // cast ray through pixel (and color it – inside castRay)
                     castRay(nX, nY, pixel.col(), pixel.row());
+                    pixelManager.pixelDone();
+                }
             }));
         // start all the threads
         for (var thread : threads) thread.start();
@@ -283,10 +366,477 @@ public class Camera {
             for (var thread : threads) thread.join();
         } catch (InterruptedException ignore) {
         }
+        pixelManager.finish();
+        finishRender(start);
+
+        return this;
+    }
+
+    /**
+     * Renders the image in square tiles of pixels on a work-stealing fork-join pool.
+     * Threads take a whole tile at a time, which reduces the contention between them
+     * and keeps neighbouring (coherent) rays on the same thread.
+     *
+     * @param threadsCount  number of threads
+     * @param tileSize      the size of a tile side in pixels (e.g. 16 or 32)
+     * @param printInterval the progress printing interval in percents, 0 if printing is not required
+     * @return the camera itself
+     * @throws IllegalArgumentException if the tile size or the threads count is not positive
+     */
+    public Camera renderImageWithTiles(int threadsCount, int tileSize, double printInterval) {
+        if (imageWriter == null || rayTracer == null)
+            throw new MissingResourceException("Missing", "resource", "exception");
+        if (tileSize < 1 || threadsCount < 1)
+            throw new IllegalArgumentException("Tile size and threads count must be positive");
+
+        int nY = this.imageWriter.getNy();
+        int nX = this.imageWriter.getNx();
+        pixelManager = new PixelManager(nY, nX, printInterval, progressListener);
+
+        stopped = false;
+        long start = startRender();
+        ForkJoinPool pool = new ForkJoinPool(threadsCount);
+        try {
+            renderPass(pool, nX, nY, tileSize, Pass.FULL);
+        } finally {
+            pool.shutdown();
+        }
+        pixelManager.finish();
+        finishRender(start);
+        return this;
+    }
 
+    /**
+     * Renders the image progressively in multi-threaded passes of increasing resolution, for early previews
+     * of long renders. The first pass renders every {@code coarseStep}-th pixel in both directions and colors
+     * the whole block of pixels around it; every following pass halves the step and renders only the pixels
+     * which were not rendered yet, until the last pass renders the remaining pixels one by one. So every pixel
+     * is rendered once, and the whole render costs as much as a non-progressive one.
+     * <p>
+     * When the time budget expires the render stops, leaving the image of the passes done so far
+     * (see {@link #isStopped()}).
+     *
+     * @param threadsCount  number of threads
+     * @param coarseStep    the step of the first pass in pixels - a power of 2 (e.g. 8), 1 for a single pass
+     * @param timeBudget    the time budget in seconds, 0 for no budget
+     * @param writePasses   whether to write the image after every pass (but the last), as a preview
+     * @param printInterval the progress printing interval in percents, 0 if printing is not required
+     * @return the camera itself
+     * @throws IllegalArgumentException if the threads count is not positive, the step is not a power of 2
+     *                                  or the time budget is negative
+     */
+    public Camera renderImageProgressive(int threadsCount, int coarseStep, double timeBudget, boolean writePasses,
+                                         double printInterval) {
+        if (imageWriter == null || rayTracer == null)
+            throw new MissingResourceException("Missing", "resource", "exception");
+        if (threadsCount < 1 || coarseStep < 1 || Integer.bitCount(coarseStep) != 1 || timeBudget < 0)
+            throw new IllegalArgumentException(
+                    "Threads count must be positive, step a power of 2 and time budget non-negative");
+
+        int nY = this.imageWriter.getNy();
+        int nX = this.imageWriter.getNx();
+        pixelManager = new PixelManager(nY, nX, printInterval, progressListener);
+        // the tiles are aligned to the coarsest step, so the blocks of a pass never cross tiles
+        int tileSize = Math.max(PROGRESSIVE_TILE_SIZE, coarseStep);
+        long deadline = timeBudget == 0 ? 0 : System.nanoTime() + Math.max(1, (long) (timeBudget * 1e9));
+
+        stopped = false;
+        long start = startRender();
+        ForkJoinPool pool = new ForkJoinPool(threadsCount);
+        try {
+            for (int step = coarseStep; step >= 1 && !stopped; step /= 2) {
+                renderPass(pool, nX, nY, tileSize, new Pass(step, step == coarseStep, deadline));
+                if (writePasses && step > 1 && !stopped) imageWriter.writeToImage();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        pixelManager.finish();
+        finishRender(start);
         return this;
     }
 
+    /**
+     * Renders the image with a super sampling ray tracer, adding samples to every pixel until it converges
+     * or the time budget expires. The pixels are sampled in rounds of multi-threaded tiles: every round adds
+     * {@code minSamples} samples to each pixel which has not converged yet - the variance of its mean luminance
+     * is still above {@code maxVariance} and it has less samples than the beam of the ray tracer. The first round
+     * always completes, so every pixel has a color; later rounds stop when the time budget expires, leaving
+     * the mean of the samples taken so far in every pixel (see {@link #isStopped()}).
+     * <p>
+     * The samples and the variance of every pixel are kept for tuning the budgets
+     * (see {@link #getSampleStatistics()}). The adaptive super sampling setting of the tracer is not used.
+     *
+     * @param threadsCount  number of threads
+     * @param minSamples    the number of samples added to a pixel in a round (at least 2)
+     * @param maxVariance   the variance of the mean luminance of a converged pixel (0 stops sampling early only
+     *                      the pixels whose samples are all the same)
+     * @param timeBudget    the time budget in seconds, 0 for no budget
+     * @param printInterval the progress printing interval in percents, 0 if printing is not required
+     * @return the camera itself
+     * @throws IllegalArgumentException if the threads count is not positive, the samples are less than 2
+     *                                  or the variance or the time budget is negative
+     * @throws IllegalStateException    if the ray tracer is not a super sampling ray tracer
+     */
+    public Camera renderImageConverging(int threadsCount, int minSamples, double maxVariance, double timeBudget,
+                                        double printInterval) {
+        if (imageWriter == null || rayTracer == null)
+            throw new MissingResourceException("Missing", "resource", "exception");
+        if (threadsCount < 1 || minSamples < 2 || maxVariance < 0 || timeBudget < 0)
+            throw new IllegalArgumentException("Threads count must be positive, samples at least 2"
+                    + " and variance and time budget non-negative");
+        if (!(rayTracer instanceof RayTracerSuperSampling tracer))
+            throw new IllegalStateException("Converging rendering needs a super sampling ray tracer");
+
+        int nY = this.imageWriter.getNy();
+        int nX = this.imageWriter.getNx();
+        pixelManager = new PixelManager(nY, nX, printInterval, progressListener);
+        long deadline = timeBudget == 0 ? 0 : System.nanoTime() + Math.max(1, (long) (timeBudget * 1e9));
+        SampleStatistics statistics = new SampleStatistics(nX, nY);
+        sampleStatistics = statistics;
+        boolean[] converged = new boolean[nX * nY];
+        LongAdder convergedCount = new LongAdder();
+
+        stopped = false;
+        long start = startRender();
+        ForkJoinPool pool = new ForkJoinPool(threadsCount);
+        try {
+            for (int round = 0; !stopped && convergedCount.sum() < converged.length; ++round) {
+                long roundDeadline = round == 0 ? 0 : deadline; // the first round always completes
+                renderTiles(pool, nX, nY, PROGRESSIVE_TILE_SIZE, (col0, row0, col1, row1) -> {
+                    int count = sampleTile(tracer, statistics, converged, minSamples, maxVariance, roundDeadline,
+                            nX, nY, col0, row0, col1, row1);
+                    convergedCount.add(count);
+                    return count;
+                });
+            }
+        } finally {
+            pool.shutdown();
+        }
+        pixelManager.finish();
+        finishRender(start);
+        return this;
+    }
+
+    /**
+     * Adds a round of samples to the pixels of a tile which have not converged yet
+     *
+     * @param tracer      the super sampling ray tracer
+     * @param statistics  the statistics of the samples of the pixels
+     * @param converged   the flags of the converged pixels, row by row
+     * @param samples     the number of samples to add to a pixel
+     * @param maxVariance the variance of the mean luminance of a converged pixel
+     * @param deadline    the time (by System.nanoTime) to stop at, 0 for no time budget
+     * @param nX          the number of pixels in the X direction of the view plane
+     * @param nY          the number of pixels in the Y direction of the view plane
+     * @param col0        the first column of the tile (included)
+     * @param row0        the first row of the tile (included)
+     * @param col1        the last column of the tile (excluded)
+     * @param row1        the last row of the tile (excluded)
+     * @return the number of pixels which have converged in this round
+     */
+    private int sampleTile(RayTracerSuperSampling tracer, SampleStatistics statistics, boolean[] converged,
+                           int samples, double maxVariance, long deadline,
+                           int nX, int nY, int col0, int row0, int col1, int row1) {
+        int beamSize = tracer.getBeamSize();
+        int count = 0;
+        for (int i = row0; i < row1; i++) {
+            if (expired(deadline)) {
+                stopped = true;
+                break;
+            }
+            for (int j = col0; j < col1; j++) {
+                if (converged[i * nX + j]) continue;
+                long rays = costMap == null ? 0 : threadRays();
+                long start = costMap == null ? 0 : System.nanoTime();
+                Ray ray = constructRay(nX, nY, j, i);
+                int n = statistics.getSamples(j, i);
+                for (int end = Math.min(n + samples, beamSize); n < end; ++n)
+                    statistics.add(j, i, tracer.traceSample(ray, j, i, n));
+                if (costMap != null) costMap.add(j, i, System.nanoTime() - start, threadRays() - rays);
+                imageWriter.writePixel(j, i, statistics.getMean(j, i));
+                if (n == beamSize || statistics.getMeanVariance(j, i) <= maxVariance) {
+                    converged[i * nX + j] = true;
+                    ++count;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the render cost of every pixel in the last render, if the costs are recorded
+     * (see {@link #setRecordCosts(boolean)})
+     *
+     * @return the costs, or null if they were not recorded
+     */
+    public CostMap getCostMap() {
+        return costMap;
+    }
+
+    /**
+     * Gets the rays traced so far by the current thread, if the ray tracer counts them
+     *
+     * @return the number of rays, 0 if the rays are not counted
+     */
+    private long threadRays() {
+        return rayTracer instanceof RayTracerBasic tracer ? tracer.getThreadRays() : 0;
+    }
+
+    /**
+     * Gets the statistics of the rays of the last render, if the ray tracer counts them
+     * (see {@link RayTracerBasic#setCollectStatistics(boolean)})
+     *
+     * @return the statistics, or null if the rays were not counted
+     */
+    public RayStatistics getRayStatistics() {
+        return rayStatistics;
+    }
+
+    /**
+     * Starts a render - turns on the counting of the rays, if the ray tracer counts them
+     *
+     * @return the start time of the render (by System.nanoTime)
+     */
+    private long startRender() {
+        rayStatistics = null;
+        costMap = recordCosts ? new CostMap(imageWriter.getNx(), imageWriter.getNy()) : null;
+        if (rayTracer instanceof RayTracerBasic tracer) tracer.startStatistics();
+        return System.nanoTime();
+    }
+
+    /**
+     * Finishes a render, when all its threads are done - merges the statistics of the rays of the threads
+     *
+     * @param start the start time of the render (by System.nanoTime)
+     */
+    private void finishRender(long start) {
+        if (rayTracer instanceof RayTracerBasic tracer)
+            rayStatistics = tracer.collectStatistics(System.nanoTime() - start);
+    }
+
+    /**
+     * Gets the statistics of the samples of the pixels in the last {@link #renderImageConverging converging render}
+     *
+     * @return the statistics, or null if there was no converging render
+     */
+    public SampleStatistics getSampleStatistics() {
+        return sampleStatistics;
+    }
+
+    /**
+     * A pass of rendering over the image - the pixels on a grid of a given step (in both directions),
+     * each coloring the block of step x step pixels below and to the right of it.
+     *
+     * @param step     the step of the grid in pixels
+     * @param first    whether it is the first pass - otherwise the pixels on the grid of the double step,
+     *                 which were rendered by the previous pass, are skipped
+     * @param deadline the time (by System.nanoTime) to stop the render at, 0 for no time budget
+     */
+    private record Pass(int step, boolean first, long deadline) {
+        /**
+         * A single pass rendering all the pixels
+         */
+        static final Pass FULL = new Pass(1, true, 0);
+
+        /**
+         * Checks whether a pixel is rendered in this pass
+         *
+         * @param j the column of the pixel (on the grid of the pass)
+         * @param i the row of the pixel (on the grid of the pass)
+         * @return true if the pixel is rendered
+         */
+        boolean renders(int j, int i) {
+            int mask = 2 * step - 1;
+            return first || (j & mask) != 0 || (i & mask) != 0;
+        }
+
+    }
+
+    /**
+     * Checks whether a time budget has expired
+     *
+     * @param deadline the time (by System.nanoTime) the budget expires at, 0 for no time budget
+     * @return true if the render should stop
+     */
+    private static boolean expired(long deadline) {
+        return deadline != 0 && System.nanoTime() - deadline >= 0;
+    }
+
+    /**
+     * Renders a pass over the image in tiles on a fork-join pool
+     *
+     * @param pool     the pool
+     * @param nX       the number of pixels in the X direction of the view plane
+     * @param nY       the number of pixels in the Y direction of the view plane
+     * @param tileSize the size of a tile side in pixels (a multiple of the step of the pass)
+     * @param pass     the pass
+     */
+    private void renderPass(ForkJoinPool pool, int nX, int nY, int tileSize, Pass pass) {
+        renderTiles(pool, nX, nY, tileSize,
+                (col0, row0, col1, row1) -> renderTile(nX, nY, pass, col0, row0, col1, row1));
+    }
+
+    /**
+     * Renders the pixels of a pass in a tile
+     *
+     * @param nX   the number of pixels in the X direction of the view plane
+     * @param nY   the number of pixels in the Y direction of the view plane
+     * @param pass the pass
+     * @param col0 the first column of the tile (included)
+     * @param row0 the first row of the tile (included)
+     * @param col1 the last column of the tile (excluded)
+     * @param row1 the last row of the tile (excluded)
+     * @return the number of rendered pixels
+     */
+    private int renderTile(int nX, int nY, Pass pass, int col0, int row0, int col1, int row1) {
+        int step = pass.step();
+        int count = 0;
+        for (int i = row0; i < row1; i += step) {
+            if (expired(pass.deadline())) {
+                stopped = true;
+                break;
+            }
+            for (int j = col0; j < col1; j += step)
+                if (pass.renders(j, i)) {
+                    if (step == 1) castRay(nX, nY, j, i);
+                    else fillBlock(j, i, Math.min(j + step, nX), Math.min(i + step, nY), tracePixel(nX, nY, j, i));
+                    ++count;
+                }
+        }
+        return count;
+    }
+
+    /**
+     * Renders the image in tiles on a fork-join pool
+     *
+     * @param pool         the pool
+     * @param nX           the number of pixels in the X direction of the view plane
+     * @param nY           the number of pixels in the Y direction of the view plane
+     * @param tileSize     the size of a tile side in pixels
+     * @param tileRenderer the renderer of a tile
+     */
+    private void renderTiles(ForkJoinPool pool, int nX, int nY, int tileSize, TileRenderer tileRenderer) {
+        int tilesX = (nX + tileSize - 1) / tileSize;
+        int tilesY = (nY + tileSize - 1) / tileSize;
+        pool.invoke(new TilesTask(nX, nY, tileSize, tilesX, 0, tilesX * tilesY, tileRenderer));
+    }
+
+    /**
+     * Renderer of the pixels of a tile
+     */
+    @FunctionalInterface
+    private interface TileRenderer {
+        /**
+         * Renders the pixels of a tile
+         *
+         * @param col0 the first column of the tile (included)
+         * @param row0 the first row of the tile (included)
+         * @param col1 the last column of the tile (excluded)
+         * @param row1 the last row of the tile (excluded)
+         * @return the number of pixels finished, for the progress
+         */
+        int render(int col0, int row0, int col1, int row1);
+    }
+
+    /**
+     * Fork-join task rendering a range of tiles. The range is split in halves until a single tile
+     * is left, so idle threads can steal the halves still waiting in the queues of busy threads.
+     */
+    private class TilesTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final int nX;
+        private final int nY;
+        private final int tileSize;
+        private final int tilesX;
+        private final int from;
+        private final int to;
+        private final TileRenderer tileRenderer;
+
+        /**
+         * Constructs a task for a range of tiles (numbered row by row).
+         *
+         * @param nX           the number of pixels in the X direction of the view plane
+         * @param nY           the number of pixels in the Y direction of the view plane
+         * @param tileSize     the size of a tile side in pixels
+         * @param tilesX       the number of tiles in a row
+         * @param from         the first tile of the range (included)
+         * @param to           the last tile of the range (excluded)
+         * @param tileRenderer the renderer of a tile
+         */
+        TilesTask(int nX, int nY, int tileSize, int tilesX, int from, int to, TileRenderer tileRenderer) {
+            this.nX = nX;
+            this.nY = nY;
+            this.tileSize = tileSize;
+            this.tilesX = tilesX;
+            this.from = from;
+            this.to = to;
+            this.tileRenderer = tileRenderer;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new TilesTask(nX, nY, tileSize, tilesX, from, mid, tileRenderer),
+                        new TilesTask(nX, nY, tileSize, tilesX, mid, to, tileRenderer));
+                return;
+            }
+            if (stopped) return;
+
+            int col0 = (from % tilesX) * tileSize;
+            int row0 = (from / tilesX) * tileSize;
+            int col1 = Math.min(col0 + tileSize, nX);
+            int row1 = Math.min(row0 + tileSize, nY);
+            RenderTileEvent event = new RenderTileEvent();
+            event.begin();
+            long rays = event.isEnabled() ? threadRays() : 0;
+            int pixels = tileRenderer.render(col0, row0, col1, row1);
+            commitTileEvent(event, rays, col0, row0, col1, row1, pixels);
+            pixelManager.pixelsDone(pixels);
+        }
+    }
+
+    /**
+     * Commits the flight recorder event of a rendered tile, if it is recorded
+     *
+     * @param event  the event, begun before the tile was rendered
+     * @param rays   the rays traced by the current thread before the tile was rendered
+     * @param col0   the first column of the tile (included)
+     * @param row0   the first row of the tile (included)
+     * @param col1   the last column of the tile (excluded)
+     * @param row1   the last row of the tile (excluded)
+     * @param pixels the number of rendered pixels
+     */
+    private void commitTileEvent(RenderTileEvent event, long rays, int col0, int row0, int col1, int row1,
+                                 int pixels) {
+        if (!event.shouldCommit()) return;
+        event.col0 = col0;
+        event.row0 = row0;
+        event.col1 = col1;
+        event.row1 = row1;
+        event.pixels = pixels;
+        event.rays = threadRays() - rays;
+        event.commit();
+    }
+
+    /**
+     * Colors a block of pixels
+     *
+     * @param col0  the first column of the block (included)
+     * @param row0  the first row of the block (included)
+     * @param col1  the last column of the block (excluded)
+     * @param row1  the last row of the block (excluded)
+     * @param color the color
+     */
+    private void fillBlock(int col0, int row0, int col1, int row1, Color color) {
+        for (int i = row0; i < row1; i++)
+            for (int j = col0; j < col1; j++)
+                imageWriter.writePixel(j, i, color);
+    }
+
     /**
      * Casts a ray through a pixel (i, j) on the view plane and color the pixel with the color
      * of the ray.
@@ -297,9 +847,25 @@ public class Camera {
      * @param i  the row index of the pixel
      */
     private void castRay(int nX, int nY, int j, int i) {
-        imageWriter.writePixel(j, i, rayTracer.traceRay(constructRay(nX, nY, j, i)));
-        if (pixelManager != null)
-            pixelManager.pixelDone();
+        imageWriter.writePixel(j, i, tracePixel(nX, nY, j, i));
+    }
+
+    /**
+     * Traces the ray of a pixel, recording its cost if the costs are recorded
+     *
+     * @param nX the number of pixels in the X direction of the view plane
+     * @param nY the number of pixels in the Y direction of the view plane
+     * @param j  the column index of the pixel
+     * @param i  the row index of the pixel
+     * @return the color of the pixel
+     */
+    private Color tracePixel(int nX, int nY, int j, int i) {
+        if (costMap == null) return rayTracer.tracePixel(constructRay(nX, nY, j, i), j, i);
+        long rays = threadRays();
+        long start = System.nanoTime();
+        Color color = rayTracer.tracePixel(constructRay(nX, nY, j, i), j, i);
+        costMap.add(j, i, System.nanoTime() - start, threadRays() - rays);
+        return color;
     }
 
     /**
@@ -0,0 +1,143 @@
+package renderer;
+
+import primitives.Color;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The render cost of every pixel of an image - the time spent tracing it and the rays traced for it,
+ * kept in primitive arrays. Every pixel is updated by a single thread at a time, as the tiles of a render are.
+ * <p>
+ * The costs are written as false colour heatmap images (see {@link #writeHeatmap(String, boolean)}) showing
+ * the expensive regions of the image, and as comma separated values for further analysis.
+ */
+public class CostMap {
+
+    /**
+     * The colours of the heatmap, from the cheapest pixels to the most expensive ones
+     */
+    private static final Color[] HEAT = {
+            new Color(0, 0, 64), new Color(0, 0, 255), new Color(0, 255, 255),
+            new Color(0, 255, 0), new Color(255, 255, 0), new Color(255, 0, 0), new Color(255, 255, 255)};
+
+    private final int width;
+    private final int height;
+    /**
+     * The time spent on every pixel in nanoseconds, row by row
+     */
+    private final long[] nanos;
+    /**
+     * The rays traced for every pixel, row by row
+     */
+    private final long[] rays;
+
+    /**
+     * Constructs the cost map of an image without costs
+     *
+     * @param width  the number of pixels in a row
+     * @param height the number of rows
+     */
+    public CostMap(int width, int height) {
+        this.width = width;
+        this.height = height;
+        nanos = new long[width * height];
+        rays = new long[width * height];
+    }
+
+    /**
+     * Adds a cost to a pixel
+     *
+     * @param x     the column of the pixel
+     * @param y     the row of the pixel
+     * @param nanos the time in nanoseconds
+     * @param rays  the number of rays
+     */
+    public void add(int x, int y, long nanos, long rays) {
+        int p = y * width + x;
+        this.nanos[p] += nanos;
+        this.rays[p] += rays;
+    }
+
+    /**
+     * Gets the time spent on a pixel
+     *
+     * @param x the column of the pixel
+     * @param y the row of the pixel
+     * @return the time in nanoseconds
+     */
+    public long getNanos(int x, int y) {
+        return nanos[y * width + x];
+    }
+
+    /**
+     * Gets the rays traced for a pixel
+     *
+     * @param x the column of the pixel
+     * @param y the row of the pixel
+     * @return the number of rays
+     */
+    public long getRays(int x, int y) {
+        return rays[y * width + x];
+    }
+
+    /**
+     * Writes a heatmap image of the costs in the images directory. The costs are scaled logarithmically,
+     * since they differ by orders of magnitude, from dark blue through cyan, green, yellow and red to white.
+     * The scale spans the 1st to the 99th percentile of the costs, so that a few outliers (such as the first
+     * pixels, traced before the code is compiled) do not flatten it; pixels without cost are black.
+     *
+     * @param imageName the name of the image
+     * @param byRays    whether to map the rays of the pixels, otherwise their time
+     * @return the image writer of the heatmap
+     */
+    public ImageWriter writeHeatmap(String imageName, boolean byRays) {
+        long[] costs = byRays ? rays : nanos;
+        long[] sorted = Arrays.stream(costs).filter(cost -> cost > 0).sorted().toArray();
+        ImageWriter heatmap = new ImageWriter(imageName, width, height);
+        if (sorted.length > 0) {
+            double min = sorted[(int) (0.01 * (sorted.length - 1))];
+            double max = sorted[(int) (0.99 * (sorted.length - 1))];
+            double range = max > min ? Math.log(max / min) : 1;
+            for (int y = 0; y < height; ++y)
+                for (int x = 0; x < width; ++x) {
+                    long cost = costs[y * width + x];
+                    if (cost > 0) heatmap.writePixel(x, y, heat(Math.log(cost / min) / range));
+                }
+        }
+        heatmap.writeToImage();
+        return heatmap;
+    }
+
+    /**
+     * Maps a relative cost to the colour of the heatmap, interpolating between its colours
+     *
+     * @param t the relative cost, from 0 (cheapest) to 1 (most expensive)
+     * @return the colour
+     */
+    static Color heat(double t) {
+        double position = Math.min(Math.max(t, 0), 1) * (HEAT.length - 1);
+        int i = Math.min((int) position, HEAT.length - 2);
+        double f = position - i;
+        return HEAT[i].scale(1 - f).add(HEAT[i + 1].scale(f));
+    }
+
+    /**
+     * Writes the costs as comma separated values - a header line, then a line for every pixel
+     * (row by row) with its column, row, time in nanoseconds and number of rays
+     *
+     * @param path the path of the file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write("x,y,nanos,rays\n");
+            for (int y = 0; y < height; ++y)
+                for (int x = 0; x < width; ++x)
+                    writer.write(x + "," + y + "," + getNanos(x, y) + "," + getRays(x, y) + "\n");
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package renderer;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of encoding an image into a file (see {@link ImageWriter#writeToImage()})
+ */
+@Name("raytracer.Encode")
+@Label("Image Encoding")
+@Category({"Ray Tracer", "Image"})
+@Description("Encoding of an image into a file")
+final class EncodeEvent extends jdk.jfr.Event {
+
+    @Label("File")
+    String file;
+
+    @Label("Width")
+    int width;
+
+    @Label("Height")
+    int height;
+
+    @Label("File Size")
+    @DataAmount
+    long size;
+}
@@ -0,0 +1,154 @@
+package renderer;
+
+import primitives.Color;
+import primitives.Double3;
+
+/**
+ * Frame buffer of linear high dynamic range pixels, kept in a primitive array of double numbers -
+ * the red, green and blue components of every pixel, row by row, without an upper limit.
+ * <p>
+ * Render threads write their pixels directly into the array without locking, since every pixel is written
+ * by a single thread. The pixels are visible to other threads once the render threads have been joined
+ * (as {@link Camera} does before writing the image). The conversion to 8-bit components is done in bulk
+ * when the image is written.
+ */
+public class FrameBuffer {
+
+    private final int width;
+    private final int height;
+    /**
+     * The components of the pixels - 3 for each pixel, row by row
+     */
+    private final double[] pixels;
+
+    /**
+     * Constructs a black frame buffer
+     *
+     * @param width  the number of pixels in a row
+     * @param height the number of rows
+     * @throws IllegalArgumentException if the width or the height is not positive
+     */
+    public FrameBuffer(int width, int height) {
+        if (width <= 0 || height <= 0)
+            throw new IllegalArgumentException("Width and height must be positive");
+        this.width = width;
+        this.height = height;
+        pixels = new double[3 * width * height];
+    }
+
+    /**
+     * Gets the number of pixels in a row
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the number of rows
+     *
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Sets the color of a pixel
+     *
+     * @param x     the column of the pixel
+     * @param y     the row of the pixel
+     * @param color the color
+     */
+    public void set(int x, int y, Color color) {
+        Double3 rgb = color.getRgb();
+        set(x, y, rgb.getD1(), rgb.getD2(), rgb.getD3());
+    }
+
+    /**
+     * Sets the color components of a pixel
+     *
+     * @param x the column of the pixel
+     * @param y the row of the pixel
+     * @param r the red component
+     * @param g the green component
+     * @param b the blue component
+     */
+    public void set(int x, int y, double r, double g, double b) {
+        int i = 3 * (y * width + x);
+        pixels[i] = r;
+        pixels[i + 1] = g;
+        pixels[i + 2] = b;
+    }
+
+    /**
+     * Gets the color of a pixel
+     *
+     * @param x the column of the pixel
+     * @param y the row of the pixel
+     * @return the color
+     */
+    public Color get(int x, int y) {
+        int i = 3 * (y * width + x);
+        return new Color(pixels[i], pixels[i + 1], pixels[i + 2]);
+    }
+
+    /**
+     * Gets a color component of a pixel
+     *
+     * @param x         the column of the pixel
+     * @param y         the row of the pixel
+     * @param component the component - 0 for red, 1 for green and 2 for blue
+     * @return the value of the component
+     */
+    public double get(int x, int y, int component) {
+        return pixels[3 * (y * width + x) + component];
+    }
+
+    /**
+     * Converts rows of pixels to 8-bit RGB, packed into integers as in {@link java.awt.image.BufferedImage#TYPE_INT_RGB}.
+     * The components are truncated and those above 255 are set to 255, as in {@link Color#getColor()}.
+     *
+     * @param fromRow the first row (included)
+     * @param toRow   the last row (excluded)
+     * @param rgb     the array receiving the pixels of the whole image, row by row
+     */
+    public void toRgb(int fromRow, int toRow, int[] rgb) {
+        int to = toRow * width;
+        for (int p = fromRow * width, i = 3 * p; p < to; ++p, i += 3)
+            rgb[p] = toByte(pixels[i]) << 16 | toByte(pixels[i + 1]) << 8 | toByte(pixels[i + 2]);
+    }
+
+    /**
+     * Converts all the pixels to 8-bit RGB, packed into integers as in {@link java.awt.image.BufferedImage#TYPE_INT_RGB}
+     *
+     * @param rgb the array receiving the pixels, row by row
+     */
+    public void toRgb(int[] rgb) {
+        toRgb(0, height, rgb);
+    }
+
+    /**
+     * Converts a row of pixels to 8-bit components - red, green and blue for each pixel
+     *
+     * @param row    the row
+     * @param bytes  the array receiving the components
+     * @param offset the index of the first component in the array
+     */
+    public void toBytes(int row, byte[] bytes, int offset) {
+        for (int i = 3 * row * width, end = i + 3 * width; i < end; ++i)
+            bytes[offset++] = (byte) toByte(pixels[i]);
+    }
+
+    /**
+     * Converts a color component to 8 bits
+     *
+     * @param value the component
+     * @return the 8-bit component
+     */
+    private static int toByte(double value) {
+        int i = (int) value;
+        return i > 255 ? 255 : i;
+    }
+}
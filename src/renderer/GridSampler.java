@@ -0,0 +1,44 @@
+package renderer;
+
+/**
+ * Jittered stratified grid sampler - the square is divided into a grid of cells, as many as the samples
+ * (rounded up to a square number), and every sample is placed at a random point of its own cell.
+ * The cells are visited by a stride which is coprime with their number, so consecutive samples
+ * fall in distant cells.
+ */
+public class GridSampler implements Sampler {
+
+    /**
+     * The increment of the hash of consecutive samples - the golden ratio of 2^64
+     */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    @Override
+    public void sample(int index, int count, long scramble, double[] points, int offset) {
+        int side = (int) Math.ceil(Math.sqrt(count));
+        int cells = side * side;
+        int stride = Math.max(1, (int) Math.round(cells * 0.618));
+        while (gcd(stride, cells) != 1) ++stride;
+        int cell = (int) ((long) index * stride % cells);
+
+        long hash = Sampler.mix(scramble + (index + 1) * GOLDEN_GAMMA);
+        points[offset] = (cell % side + Sampler.toUnit(hash)) / side;
+        points[offset + 1] = (cell / side + Sampler.toUnit(Sampler.mix(hash))) / side;
+    }
+
+    /**
+     * Calculates the greatest common divisor of two positive numbers
+     *
+     * @param a the first number
+     * @param b the second number
+     * @return the greatest common divisor
+     */
+    static int gcd(int a, int b) {
+        while (b != 0) {
+            int r = a % b;
+            a = b;
+            b = r;
+        }
+        return a;
+    }
+}
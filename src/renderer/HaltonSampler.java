@@ -0,0 +1,42 @@
+package renderer;
+
+/**
+ * Halton sequence sampler - the radical inverses of the sample index in bases 2 and 3.
+ * The sequence of every pixel is shifted by a random offset (modulo 1, a Cranley-Patterson rotation),
+ * which keeps its low discrepancy.
+ */
+public class HaltonSampler implements Sampler {
+
+    @Override
+    public void sample(int index, int count, long scramble, double[] points, int offset) {
+        long hash = Sampler.mix(scramble);
+        points[offset] = shift((Integer.reverse(index) & 0xFFFFFFFFL) * 0x1.0p-32, Sampler.toUnit(hash));
+        points[offset + 1] = shift(radicalInverse3(index), Sampler.toUnit(Sampler.mix(hash)));
+    }
+
+    /**
+     * Calculates the radical inverse of a number in base 3 - its digits mirrored around the point
+     *
+     * @param index the number
+     * @return the radical inverse, in [0, 1)
+     */
+    private static double radicalInverse3(int index) {
+        double inverse = 0;
+        double digit = 1.0 / 3;
+        for (int i = index; i > 0; i /= 3, digit /= 3)
+            inverse += i % 3 * digit;
+        return inverse;
+    }
+
+    /**
+     * Shifts a coordinate modulo 1
+     *
+     * @param value the coordinate, in [0, 1)
+     * @param shift the shift, in [0, 1)
+     * @return the shifted coordinate, in [0, 1)
+     */
+    private static double shift(double value, double shift) {
+        double shifted = value + shift;
+        return shifted >= 1 ? shifted - 1 : shifted;
+    }
+}
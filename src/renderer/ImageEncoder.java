@@ -0,0 +1,56 @@
+package renderer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The ImageEncoder interface encodes the pixels of a frame buffer into an image file format.
+ * An encoder is chosen for an {@link ImageWriter}, which opens the file and times the encoding.
+ */
+public interface ImageEncoder {
+
+    /**
+     * PNG encoder compressing strips of the image in parallel
+     */
+    ImageEncoder PNG = new PngEncoder();
+    /**
+     * Uncompressed 8-bit binary PPM encoder
+     */
+    ImageEncoder PPM = new PpmEncoder();
+    /**
+     * Uncompressed high dynamic range PFM encoder
+     */
+    ImageEncoder PFM = new PfmEncoder();
+
+    /**
+     * Finds the encoder of a format
+     *
+     * @param format the name of the format - png, ppm or pfm (in any case)
+     * @return the encoder
+     * @throws IllegalArgumentException if the format is unknown
+     */
+    static ImageEncoder of(String format) {
+        return switch (format.toLowerCase()) {
+            case "png" -> PNG;
+            case "ppm" -> PPM;
+            case "pfm" -> PFM;
+            default -> throw new IllegalArgumentException("Unknown image format " + format);
+        };
+    }
+
+    /**
+     * Gets the extension of the files in the format of the encoder
+     *
+     * @return the extension, without the dot
+     */
+    String getExtension();
+
+    /**
+     * Encodes the pixels of a frame buffer
+     *
+     * @param frameBuffer the pixels
+     * @param out         the stream receiving the encoded image
+     * @throws IOException if the stream cannot be written
+     */
+    void encode(FrameBuffer frameBuffer, OutputStream out) throws IOException;
+}
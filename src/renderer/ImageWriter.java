@@ -2,16 +2,17 @@ package renderer;
 
 import primitives.Color;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.File;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Image writer class combines accumulation of pixel color matrix and finally
- * producing a non-optimized jpeg image from this matrix. The class although is
+ * producing an image file from this matrix (see {@link ImageEncoder}). The class although is
  * responsible for holding image related parameters of View Plane - pixel matrix
  * size and resolution
  *
@@ -23,8 +24,13 @@ public class ImageWriter {
 
     private static final String FOLDER_PATH = System.getProperty("user.dir") + "/images";
 
-    private final BufferedImage image;
+    private final FrameBuffer frameBuffer;
     private final String imageName;
+    private ImageEncoder encoder = ImageEncoder.PNG;
+    /**
+     * The duration of the last encoding in nanoseconds
+     */
+    private long encodeTime;
 
     private final Logger logger = Logger.getLogger("ImageWriter");
 
@@ -42,7 +48,7 @@ public class ImageWriter {
         this.nX = nX;
         this.nY = nY;
 
-        image = new BufferedImage(nX, nY, BufferedImage.TYPE_INT_RGB);
+        frameBuffer = new FrameBuffer(nX, nY);
     }
 
     // ***************** Getters/Setters ********************** //
@@ -65,20 +71,71 @@ public class ImageWriter {
         return nX;
     }
 
+    /**
+     * The frame buffer holding the (high dynamic range) colors of the pixels
+     *
+     * @return the frame buffer
+     */
+    public FrameBuffer getFrameBuffer() {
+        return frameBuffer;
+    }
+
+    /**
+     * The name of the image file (without the extension)
+     *
+     * @return the image name
+     */
+    public String getImageName() {
+        return imageName;
+    }
+
+    /**
+     * Sets the encoder of the image file (PNG by default)
+     *
+     * @param encoder the encoder
+     * @return the image writer itself
+     */
+    public ImageWriter setEncoder(ImageEncoder encoder) {
+        this.encoder = encoder;
+        return this;
+    }
+
+    /**
+     * The duration of the last {@link #writeToImage()} - encoding and writing the file
+     *
+     * @return the duration in nanoseconds
+     */
+    public long getEncodeTime() {
+        return encodeTime;
+    }
+
     // ***************** Operations ******************** //
 
     /**
-     * Function writeToImage produces unoptimized png file of the image according to
-     * pixel color matrix in the directory of the project
+     * Function writeToImage encodes the pixel color matrix into an image file (named by the image name
+     * and the extension of the encoder) in the images directory of the project
      */
     public void writeToImage() {
-        try {
-            File file = new File(FOLDER_PATH + "/" + imageName + ".png");
-            ImageIO.write(image, "png", file);
+        EncodeEvent event = new EncodeEvent();
+        event.begin();
+        long start = System.nanoTime();
+        Path file = Path.of(FOLDER_PATH, imageName + "." + encoder.getExtension());
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            encoder.encode(frameBuffer, out);
         } catch (IOException e) {
             logger.log(Level.SEVERE, "I/O error", e);
             throw new IllegalStateException("I/O error - may be missing directory " + FOLDER_PATH, e);
         }
+        encodeTime = System.nanoTime() - start;
+        if (event.shouldCommit()) {
+            event.file = file.toString();
+            event.width = getNx();
+            event.height = getNy();
+            event.size = file.toFile().length();
+            event.commit();
+        }
+        if (logger.isLoggable(Level.FINE))
+            logger.fine(String.format("Encoded %s in %.1f ms", file, encodeTime / 1e6));
     }
 
     /**
@@ -90,7 +147,7 @@ public class ImageWriter {
      * @param color  final color of the pixel
      */
     public void writePixel(int xIndex, int yIndex, Color color) {
-        image.setRGB(xIndex, yIndex, color.getColor().getRGB());
+        frameBuffer.set(xIndex, yIndex, color);
     }
 
 }
@@ -0,0 +1,36 @@
+package renderer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encoder of portable float map (PFM) images - the high dynamic range colors of the frame buffer as
+ * 32-bit floating point numbers, without clamping. The components are divided by 255, so the white
+ * of an 8-bit image is 1.0 as usual in the format. As the format requires, the rows are written
+ * from the bottom up, in little endian byte order (marked by the negative scale in the header).
+ */
+public class PfmEncoder implements ImageEncoder {
+
+    @Override
+    public String getExtension() {
+        return "pfm";
+    }
+
+    @Override
+    public void encode(FrameBuffer frameBuffer, OutputStream out) throws IOException {
+        int width = frameBuffer.getWidth();
+        int height = frameBuffer.getHeight();
+        out.write(("PF\n" + width + " " + height + "\n-1.0\n").getBytes(StandardCharsets.US_ASCII));
+        ByteBuffer row = ByteBuffer.allocate(12 * width).order(ByteOrder.LITTLE_ENDIAN);
+        for (int y = height - 1; y >= 0; --y) {
+            row.clear();
+            for (int x = 0; x < width; ++x)
+                for (int c = 0; c < 3; ++c)
+                    row.putFloat((float) (frameBuffer.get(x, y, c) / 255));
+            out.write(row.array());
+        }
+    }
+}
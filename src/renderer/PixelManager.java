@@ -0,0 +1,121 @@
+package renderer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/** PixelManager is a helper class. It is used for multi-threading in the
+ * renderer and
+ * for follow up its progress.<br/>
+ * A Camera uses one pixel manager object and several Pixel objects - one in
+ * each thread.<br/>
+ * The manager is lock-free: pixels are allocated by an atomic counter, processed
+ * pixels are counted by a striped adder, and the progress is reported to a
+ * {@link ProgressListener} by a single thread at a time - other threads never wait
+ * for it.
+ * @author Dan Zilberstein */
+class PixelManager {
+    /** Immutable class for object containing allocated pixel (with its row and
+     * column numbers) */
+    record Pixel(int col, int row) {
+    }
+
+    /** Minimal time between two checks of the progress (in nanoseconds) */
+    private static final long      CHECK_PERIOD = 10_000_000L;
+
+    /** Maximum columns of pixels */
+    private final int              maxCols;
+    /** Total amount of pixels in the generated image */
+    private final long             totalPixels;
+
+    /** Index (row by row) of the next pixel to allocate */
+    private final AtomicLong       nextIndex    = new AtomicLong();
+    /** Amount of pixels that have been processed */
+    private final LongAdder        pixels       = new LongAdder();
+
+    /** Progress listener, null if progress reporting is not required */
+    private final ProgressListener listener;
+    /** Progress reporting interval in tenths of percent */
+    private final long             printInterval;
+    /** Flag of a thread currently reporting the progress */
+    private final AtomicBoolean    reporting    = new AtomicBoolean();
+    /** Last reported progress (in tenths of percent) - accessed only by the
+     * reporting thread */
+    private int                    lastPrinted  = 0;
+    /** Earliest time for the next progress check (by System.nanoTime) */
+    private volatile long          nextCheck;
+
+    /** Initialize pixel manager data for multi-threading with progress printing
+     * in the console window
+     * @param maxRows  the amount of pixel rows
+     * @param maxCols  the amount of pixel columns
+     * @param interval progress printing interval in percents, 0 if printing is
+     *                 not required */
+    PixelManager(int maxRows, int maxCols, double interval) {
+        this(maxRows, maxCols, interval, ProgressListener.CONSOLE);
+    }
+
+    /** Initialize pixel manager data for multi-threading
+     * @param maxRows  the amount of pixel rows
+     * @param maxCols  the amount of pixel columns
+     * @param interval progress reporting interval in percents, 0 if reporting is
+     *                 not required
+     * @param listener the listener to report the progress to */
+    PixelManager(int maxRows, int maxCols, double interval, ProgressListener listener) {
+        this.maxCols  = maxCols;
+        totalPixels   = (long) maxRows * maxCols;
+        printInterval = (int) (interval * 10);
+        this.listener = printInterval == 0 ? null : listener;
+        nextCheck     = System.nanoTime();
+        if (this.listener != null) this.listener.progress(0d);
+    }
+
+    /** Function for thread-safe allocation of the next pixel - the pixel is
+     * claimed by an atomic increment of the shared pixel index, so threads never
+     * block each other.
+     * @return the next pixel, or null if there are no more pixels */
+    Pixel nextPixel() {
+        long index = nextIndex.getAndIncrement();
+        return index < totalPixels ? new Pixel((int) (index % maxCols), (int) (index / maxCols)) : null;
+    }
+
+    /** Finish pixel processing by updating and reporting of progress percentage */
+    void pixelDone() {
+        pixelsDone(1);
+    }
+
+    /** Finish processing of a group of pixels (e.g. a tile) by updating and
+     * reporting of progress percentage. The progress is checked at most once per
+     * check period, and only by a thread that is not blocked by another reporting
+     * thread.
+     * @param count the amount of processed pixels */
+    void pixelsDone(int count) {
+        pixels.add(count);
+        if (listener == null) return;
+        long now = System.nanoTime();
+        if (now - nextCheck < 0 || !reporting.compareAndSet(false, true)) return;
+        try {
+            nextCheck = now + CHECK_PERIOD;
+            report(printInterval);
+        } finally {
+            reporting.set(false);
+        }
+    }
+
+    /** Report the final progress once all the rendering threads have finished -
+     * must be called after the threads are joined */
+    void finish() {
+        if (listener != null) report(1);
+    }
+
+    /** Report the progress to the listener if it has advanced by the given
+     * interval since the last report
+     * @param interval minimal progress advance in tenths of percent */
+    private void report(long interval) {
+        int percentage = (int) (1000L * pixels.sum() / totalPixels);
+        if (percentage - lastPrinted >= interval) {
+            lastPrinted = percentage;
+            listener.progress(percentage / 10d);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package renderer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.stream.IntStream;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Encoder of PNG images (8-bit RGB) which compresses strips of rows on all the cores.
+ * <p>
+ * Every strip is filtered and deflated independently, ending with a flush to a byte boundary (except the
+ * last strip, which finishes the stream), so the compressed strips concatenate into one legal zlib stream -
+ * the way parallel gzip works. Every strip is written in an IDAT chunk of its own, and the Adler-32
+ * checksum of the stream is combined from the checksums of the strips.
+ * The filter of each row is chosen adaptively, by the smallest sum of absolute differences.
+ */
+public class PngEncoder implements ImageEncoder {
+
+    private static final byte[] SIGNATURE = {(byte) 137, 'P', 'N', 'G', '\r', '\n', 26, '\n'};
+    /**
+     * The default compression level - the fast levels compress the filtered rows almost as well as the
+     * higher ones, in a fraction of the time
+     */
+    public static final int DEFAULT_LEVEL = 3;
+    /**
+     * The modulus of Adler-32
+     */
+    private static final int ADLER_BASE = 65521;
+    /**
+     * The least number of rows in a strip - smaller strips compress worse
+     */
+    private static final int MIN_STRIP_ROWS = 16;
+    /**
+     * The size of the buffer receiving the compressed data
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final int level;
+    /**
+     * The zlib header - deflate with a 32K window, and the compression level class
+     */
+    private final byte[] zlibHeader;
+
+    /**
+     * Constructs an encoder with the {@link #DEFAULT_LEVEL default compression level}
+     */
+    public PngEncoder() {
+        this(DEFAULT_LEVEL);
+    }
+
+    /**
+     * Constructs an encoder with a compression level
+     *
+     * @param level the compression level - 0 (none, fastest) to 9 (best, slowest)
+     * @throws IllegalArgumentException if the level is illegal
+     */
+    public PngEncoder(int level) {
+        if (level < 0 || level > 9)
+            throw new IllegalArgumentException("Illegal compression level " + level);
+        this.level = level;
+        zlibHeader = new byte[]{0x78, (byte) (level < 2 ? 0x01 : level < 6 ? 0x5E : level == 6 ? 0x9C : 0xDA)};
+    }
+
+    @Override
+    public String getExtension() {
+        return "png";
+    }
+
+    @Override
+    public void encode(FrameBuffer frameBuffer, OutputStream out) throws IOException {
+        int width = frameBuffer.getWidth();
+        int height = frameBuffer.getHeight();
+        int stripRows = Math.max(MIN_STRIP_ROWS,
+                (height + 4 * Runtime.getRuntime().availableProcessors() - 1)
+                        / (4 * Runtime.getRuntime().availableProcessors()));
+        int strips = (height + stripRows - 1) / stripRows;
+
+        Strip[] compressed = new Strip[strips];
+        IntStream.range(0, strips).parallel().forEach(s -> compressed[s] =
+                compress(frameBuffer, s * stripRows, Math.min(height, (s + 1) * stripRows), s == strips - 1));
+
+        out.write(SIGNATURE);
+        byte[] header = new byte[13];
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        header[8] = 8; // bit depth
+        header[9] = 2; // color type - RGB
+        writeChunk(out, "IHDR", header, header.length);
+
+        long adler = 1;
+        for (int s = 0; s < strips; ++s) {
+            Strip strip = compressed[s];
+            adler = combineAdler(adler, strip.adler, strip.length);
+            if (s == strips - 1) { // the zlib stream ends with the checksum
+                byte[] trailer = new byte[4];
+                putInt(trailer, 0, (int) adler);
+                strip.data.write(trailer, 0, trailer.length);
+            }
+            byte[] data = strip.data.toByteArray();
+            writeChunk(out, "IDAT", data, data.length);
+        }
+        writeChunk(out, "IEND", new byte[0], 0);
+    }
+
+    /**
+     * A compressed strip of rows
+     *
+     * @param data   the compressed data
+     * @param adler  the Adler-32 checksum of the uncompressed (filtered) data
+     * @param length the length of the uncompressed data
+     */
+    private record Strip(ByteArrayOutputStream data, long adler, long length) {
+    }
+
+    /**
+     * Filters and compresses a strip of rows
+     *
+     * @param frameBuffer the pixels
+     * @param fromRow     the first row of the strip (included)
+     * @param toRow       the last row of the strip (excluded)
+     * @param last        whether the strip is the last one, which ends the compressed stream
+     * @return the compressed strip
+     */
+    private Strip compress(FrameBuffer frameBuffer, int fromRow, int toRow, boolean last) {
+        int rowLength = 3 * frameBuffer.getWidth();
+        byte[] previous = new byte[rowLength];
+        byte[] current = new byte[rowLength];
+        byte[][] candidates = new byte[5][rowLength + 1];
+        if (fromRow > 0) frameBuffer.toBytes(fromRow - 1, previous, 0);
+
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        if (fromRow == 0) data.write(zlibHeader, 0, zlibHeader.length);
+        Adler32 adler = new Adler32();
+        Deflater deflater = new Deflater(level, true);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try {
+            for (int y = fromRow; y < toRow; ++y) {
+                frameBuffer.toBytes(y, current, 0);
+                byte[] filtered = filter(previous, current, candidates);
+                adler.update(filtered);
+                deflater.setInput(filtered);
+                while (!deflater.needsInput())
+                    data.write(buffer, 0, deflater.deflate(buffer));
+                byte[] swap = previous;
+                previous = current;
+                current = swap;
+            }
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished())
+                    data.write(buffer, 0, deflater.deflate(buffer));
+            } else {
+                int count;
+                do {
+                    count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    data.write(buffer, 0, count);
+                } while (count == buffer.length);
+            }
+        } finally {
+            deflater.end();
+        }
+        return new Strip(data, adler.getValue(), (long) (toRow - fromRow) * (rowLength + 1));
+    }
+
+    /**
+     * Filters a row with all the filter types - none, sub, up, average and Paeth - in a single pass,
+     * and chooses the filter giving the smallest sum of absolute differences
+     *
+     * @param previous   the previous row (zeros for the first row)
+     * @param current    the row
+     * @param candidates five arrays receiving the row filtered by each type, after the filter type byte
+     * @return the chosen filtered row - the filter type followed by the filtered bytes
+     */
+    private static byte[] filter(byte[] previous, byte[] current, byte[][] candidates) {
+        byte[] none = candidates[0], sub = candidates[1], up = candidates[2], average = candidates[3],
+                paeth = candidates[4];
+        long sumNone = 0, sumSub = 0, sumUp = 0, sumAverage = 0, sumPaeth = 0;
+        for (int i = 0; i < current.length; ++i) {
+            int x = current[i] & 0xFF;
+            int b = previous[i] & 0xFF; // up
+            int a = 0, c = 0; // left and up left
+            if (i >= 3) {
+                a = current[i - 3] & 0xFF;
+                c = previous[i - 3] & 0xFF;
+            }
+            int p = a + b - c;
+            int pa = Math.abs(p - a), pb = Math.abs(p - b), pc = Math.abs(p - c);
+            byte f;
+            none[i + 1] = f = (byte) x;
+            sumNone += Math.abs(f);
+            sub[i + 1] = f = (byte) (x - a);
+            sumSub += Math.abs(f);
+            up[i + 1] = f = (byte) (x - b);
+            sumUp += Math.abs(f);
+            average[i + 1] = f = (byte) (x - ((a + b) >> 1));
+            sumAverage += Math.abs(f);
+            paeth[i + 1] = f = (byte) (x - (pa <= pb && pa <= pc ? a : pb <= pc ? b : c));
+            sumPaeth += Math.abs(f);
+        }
+
+        int best = 0;
+        long bestSum = sumNone;
+        if (sumSub < bestSum) {
+            best = 1;
+            bestSum = sumSub;
+        }
+        if (sumUp < bestSum) {
+            best = 2;
+            bestSum = sumUp;
+        }
+        if (sumAverage < bestSum) {
+            best = 3;
+            bestSum = sumAverage;
+        }
+        if (sumPaeth < bestSum) best = 4;
+        candidates[best][0] = (byte) best;
+        return candidates[best];
+    }
+
+    /**
+     * Combines the Adler-32 checksums of two consecutive blocks of data
+     *
+     * @param adler1  the checksum of the first block
+     * @param adler2  the checksum of the second block
+     * @param length2 the length of the second block
+     * @return the checksum of both blocks
+     */
+    static long combineAdler(long adler1, long adler2, long length2) {
+        long remainder = length2 % ADLER_BASE;
+        long sum1 = adler1 & 0xFFFF;
+        long sum2 = remainder * sum1 % ADLER_BASE;
+        sum1 += (adler2 & 0xFFFF) + ADLER_BASE - 1;
+        sum2 += (adler1 >>> 16) + (adler2 >>> 16) + ADLER_BASE - remainder;
+        sum1 %= ADLER_BASE;
+        sum2 %= ADLER_BASE;
+        return sum2 << 16 | sum1;
+    }
+
+    /**
+     * Writes a PNG chunk
+     *
+     * @param out    the stream
+     * @param type   the chunk type
+     * @param data   the chunk data
+     * @param length the length of the data
+     * @throws IOException if the stream cannot be written
+     */
+    private static void writeChunk(OutputStream out, String type, byte[] data, int length) throws IOException {
+        byte[] bytes = new byte[4];
+        putInt(bytes, 0, length);
+        out.write(bytes);
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < 4; ++i) bytes[i] = (byte) type.charAt(i);
+        crc.update(bytes);
+        crc.update(data, 0, length);
+        out.write(bytes);
+        out.write(data, 0, length);
+        putInt(bytes, 0, (int) crc.getValue());
+        out.write(bytes);
+    }
+
+    /**
+     * Puts a big endian integer into an array
+     *
+     * @param bytes  the array
+     * @param offset the index of the first byte of the integer
+     * @param value  the integer
+     */
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+}
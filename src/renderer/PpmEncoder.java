@@ -0,0 +1,29 @@
+package renderer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encoder of binary PPM images (P6) with 8-bit components - no compression, so it is the fastest
+ * format for intermediate images.
+ */
+public class PpmEncoder implements ImageEncoder {
+
+    @Override
+    public String getExtension() {
+        return "ppm";
+    }
+
+    @Override
+    public void encode(FrameBuffer frameBuffer, OutputStream out) throws IOException {
+        int width = frameBuffer.getWidth();
+        int height = frameBuffer.getHeight();
+        out.write(("P6\n" + width + " " + height + "\n255\n").getBytes(StandardCharsets.US_ASCII));
+        byte[] row = new byte[3 * width];
+        for (int y = 0; y < height; ++y) {
+            frameBuffer.toBytes(y, row, 0);
+            out.write(row);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package renderer;
+
+/**
+ * The ProgressListener interface receives the progress of rendering an image.
+ * The renderer notifies it from at most one thread at a time, so implementations need no synchronization.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+    /**
+     * A listener printing the progress percentage in place in the console window.
+     */
+    ProgressListener CONSOLE = percentage -> System.out.printf("%5.1f%%\r", percentage);
+
+    /**
+     * Notifies the listener that the rendering has reached another progress interval.
+     *
+     * @param percentage the percentage of the rendered pixels (0 to 100)
+     */
+    void progress(double percentage);
+}
@@ -0,0 +1,272 @@
+package renderer;
+
+import geometries.IntersectionStatistics;
+import geometries.IntersectionStatistics.Counts;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statistics of a render - the rays traced by kind, the depth of the recursion of the primary rays,
+ * the intersection tests of every {@link geometries.Intersectable} subclass and the render time.
+ * <p>
+ * Every render thread counts its rays into statistics of its own (see {@link RayTracerBasic#setCollectStatistics}),
+ * and the camera merges them into the statistics of the render when all the threads are done
+ * (see {@link Camera#getRayStatistics()}).
+ */
+public class RayStatistics {
+
+    private long primaryRays;
+    private long reflectedRays;
+    private long refractedRays;
+    private long shadowRays;
+    private long rouletteTerminations;
+    private long blockedShadowRays;
+    private long shadowCacheHits;
+    /**
+     * The sum of the recursion depths reached by the primary rays
+     */
+    private long depthSum;
+    /**
+     * The deepest recursion level reached by the primary ray traced now (by the thread of the statistics)
+     */
+    private int depth;
+    private long renderTime;
+    private Map<String, Counts> intersections = Map.of();
+
+    /**
+     * Counts a primary ray, before it is traced
+     */
+    void startPrimaryRay() {
+        ++primaryRays;
+        depth = 0;
+    }
+
+    /**
+     * Adds the recursion depth reached by the primary ray, after it was traced
+     */
+    void endPrimaryRay() {
+        depthSum += depth;
+    }
+
+    /**
+     * Records the recursion depth of a color calculation of the current primary ray
+     *
+     * @param depth the depth - 1 for the intersection of the primary ray
+     */
+    void reachDepth(int depth) {
+        if (depth > this.depth) this.depth = depth;
+    }
+
+    /**
+     * Counts a reflected ray
+     */
+    void countReflectedRay() {
+        ++reflectedRays;
+    }
+
+    /**
+     * Counts a refracted ray
+     */
+    void countRefractedRay() {
+        ++refractedRays;
+    }
+
+    /**
+     * Counts a shadow ray
+     */
+    void countShadowRay() {
+        ++shadowRays;
+    }
+
+    /**
+     * Counts a reflected or refracted ray terminated by Russian roulette
+     */
+    void countRouletteTermination() {
+        ++rouletteTerminations;
+    }
+
+    /**
+     * Counts a shadow ray blocked by an opaque geometry
+     */
+    void countBlockedShadowRay() {
+        ++blockedShadowRays;
+    }
+
+    /**
+     * Counts a shadow ray blocked by the last occluder of its light, without traversing the scene
+     */
+    void countShadowCacheHit() {
+        ++shadowCacheHits;
+    }
+
+    /**
+     * Merges the statistics of the threads of a render, with the intersection tests counted since the last
+     * collection, and resets the statistics of the threads
+     *
+     * @param threads    the statistics of the threads
+     * @param renderTime the render time in nanoseconds
+     * @return the statistics of the render
+     */
+    static RayStatistics merge(List<RayStatistics> threads, long renderTime) {
+        RayStatistics merged = new RayStatistics();
+        for (RayStatistics statistics : new ArrayList<>(threads)) {
+            merged.primaryRays += statistics.primaryRays;
+            merged.reflectedRays += statistics.reflectedRays;
+            merged.refractedRays += statistics.refractedRays;
+            merged.shadowRays += statistics.shadowRays;
+            merged.depthSum += statistics.depthSum;
+            merged.rouletteTerminations += statistics.rouletteTerminations;
+            merged.blockedShadowRays += statistics.blockedShadowRays;
+            merged.shadowCacheHits += statistics.shadowCacheHits;
+            statistics.primaryRays = statistics.reflectedRays = statistics.refractedRays = statistics.shadowRays = 0;
+            statistics.depthSum = statistics.rouletteTerminations = 0;
+            statistics.blockedShadowRays = statistics.shadowCacheHits = 0;
+        }
+        merged.renderTime = renderTime;
+        merged.intersections = IntersectionStatistics.collect();
+        return merged;
+    }
+
+    /**
+     * Gets the number of primary rays - traced from the camera, one per pixel or per sample of a pixel
+     *
+     * @return the number of primary rays
+     */
+    public long getPrimaryRays() {
+        return primaryRays;
+    }
+
+    /**
+     * Gets the number of reflected rays
+     *
+     * @return the number of reflected rays
+     */
+    public long getReflectedRays() {
+        return reflectedRays;
+    }
+
+    /**
+     * Gets the number of refracted (transmitted) rays
+     *
+     * @return the number of refracted rays
+     */
+    public long getRefractedRays() {
+        return refractedRays;
+    }
+
+    /**
+     * Gets the number of shadow rays - traced from the intersections towards the lights
+     *
+     * @return the number of shadow rays
+     */
+    public long getShadowRays() {
+        return shadowRays;
+    }
+
+    /**
+     * Gets the number of reflected and refracted rays terminated by Russian roulette, and not traced
+     * (see {@link RayTracerBasic#setRussianRoulette(double)})
+     *
+     * @return the number of terminated rays
+     */
+    public long getRouletteTerminations() {
+        return rouletteTerminations;
+    }
+
+    /**
+     * Gets the number of shadow rays blocked (by opaque geometries, or by transparent ones together)
+     *
+     * @return the number of blocked shadow rays
+     */
+    public long getBlockedShadowRays() {
+        return blockedShadowRays;
+    }
+
+    /**
+     * Gets the number of shadow rays blocked by the last occluder of their light, without traversing the scene
+     * (see {@link RayTracerBasic#setShadowCache(boolean)})
+     *
+     * @return the number of shadow cache hits
+     */
+    public long getShadowCacheHits() {
+        return shadowCacheHits;
+    }
+
+    /**
+     * Gets the part of the blocked shadow rays which were blocked by the last occluder of their light
+     *
+     * @return the hit rate of the shadow cache, 0 if no shadow ray was blocked
+     */
+    public double getShadowCacheHitRate() {
+        return blockedShadowRays == 0 ? 0 : shadowCacheHits / (double) blockedShadowRays;
+    }
+
+    /**
+     * Gets the number of rays of all the kinds
+     *
+     * @return the number of rays
+     */
+    public long getTotalRays() {
+        return primaryRays + reflectedRays + refractedRays + shadowRays;
+    }
+
+    /**
+     * Gets the average recursion depth reached by the primary rays - 0 for a ray missing the scene,
+     * 1 for a ray whose color is calculated without reflected or refracted rays, and so on
+     *
+     * @return the average depth, 0 if there were no primary rays
+     */
+    public double getAverageDepth() {
+        return primaryRays == 0 ? 0 : depthSum / (double) primaryRays;
+    }
+
+    /**
+     * Gets the render time
+     *
+     * @return the render time in nanoseconds
+     */
+    public long getRenderTime() {
+        return renderTime;
+    }
+
+    /**
+     * Gets the rays of all the kinds traced per second of the render
+     *
+     * @return the rays per second, 0 if the render time is unknown
+     */
+    public double getRaysPerSecond() {
+        return renderTime == 0 ? 0 : getTotalRays() * 1e9 / renderTime;
+    }
+
+    /**
+     * Gets the intersection tests and hits of every tested {@link geometries.Intersectable} subclass
+     *
+     * @return the counts by the simple name of the class
+     */
+    public Map<String, Counts> getIntersections() {
+        return intersections;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("rays %d (primary %d, reflected %d, refracted %d, shadow %d), %.0f rays/s%n",
+                getTotalRays(), primaryRays, reflectedRays, refractedRays, shadowRays, getRaysPerSecond()));
+        report.append(String.format("average depth %.3f%n", getAverageDepth()));
+        if (blockedShadowRays > 0)
+            report.append(String.format("blocked shadow rays %d, shadow cache hits %d (%.1f%%)%n",
+                    blockedShadowRays, shadowCacheHits, 100 * getShadowCacheHitRate()));
+        if (rouletteTerminations > 0)
+            report.append(String.format("terminated by Russian roulette %d%n", rouletteTerminations));
+        intersections.entrySet().stream() // the most tested classes first
+                .sorted((a, b) -> Long.compare(b.getValue().tests(), a.getValue().tests()))
+                .forEach(entry -> {
+                    Counts counts = entry.getValue();
+                    report.append(String.format("%-16s tests %12d  hits %12d (%.1f%%)%n", entry.getKey(),
+                            counts.tests(), counts.hits(), 100.0 * counts.hits() / counts.tests()));
+                });
+        return report.toString();
+    }
+}
@@ -31,4 +31,17 @@ public abstract class RayTracerBase {
      * @return the computed color of the intersected objects
      */
     public abstract Color traceRay(Ray ray);
+
+    /**
+     * Traces the ray of a pixel of the image. Tracers sampling every pixel differently use the position
+     * of the pixel; by default the ray is just traced.
+     *
+     * @param ray the ray through the center of the pixel
+     * @param x   the column of the pixel
+     * @param y   the row of the pixel
+     * @return the color of the pixel
+     */
+    public Color tracePixel(Ray ray, int x, int y) {
+        return traceRay(ray);
+    }
 }
@@ -1,23 +1,75 @@
 package renderer;
 
+import geometries.Geometry;
 import geometries.Intersectable.GeoPoint;
+import geometries.IntersectionStatistics;
 import lighting.LightSource;
 import primitives.*;
 import scene.Scene;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
 import static java.lang.Math.pow;
 import static primitives.Util.alignZero;
 
 /**
  * The RayTracerBasic class represents a basic implementation of a ray tracer.
  * It extends the RayTracerBase class and provides a simple algorithm for tracing rays and computing colors.
+ * <p>
+ * The reflected and refracted rays are traced recursively up to the maximal level of the scene, and are
+ * neglected once their accumulated coefficient falls below the minimal coefficient of the scene
+ * (see {@link Scene#setMaxLevel(int)} and {@link Scene#setMinK(double)}). Optionally, the rays are terminated
+ * earlier by Russian roulette (see {@link #setRussianRoulette(double)}).
+ * <p>
+ * Neighbouring points are usually shadowed from a light by the same geometry, so every thread remembers
+ * the geometry which blocked its last shadow ray to every light, and tests it before the whole scene
+ * (see {@link #setShadowCache(boolean)}).
  */
 public class RayTracerBasic extends RayTracerBase {
 
-    private static final int MAX_CALC_COLOR_LEVEL = 10;
-    private static final double MIN_CALC_COLOR_K = 0.001;
     private static final Double3 INITIAL_K = Double3.ONE;
 
+    /**
+     * The accumulated coefficient below which reflected and refracted rays play Russian roulette,
+     * 0 if they do not
+     */
+    private double rouletteThreshold;
+
+    /**
+     * Whether the last occluders of the lights are tested first by the shadow rays
+     */
+    private boolean shadowCache = true;
+    /**
+     * The opaque geometry which blocked the last shadow ray of the current thread to every light
+     * (by the index of the light in the scene), null for a light which was not blocked
+     */
+    private final ThreadLocal<Geometry[]> occluders = ThreadLocal.withInitial(() -> new Geometry[0]);
+
+    /**
+     * The number of rays traced from the camera (including all the samples of a pixel), for rendering statistics
+     */
+    private final LongAdder tracedRays = new LongAdder();
+
+    /**
+     * Whether the rays are counted into the statistics of the render threads
+     */
+    private boolean collectStatistics;
+    /**
+     * The statistics of all the threads which traced rays since the last collection
+     */
+    private final List<RayStatistics> threadStatistics = Collections.synchronizedList(new ArrayList<>());
+    /**
+     * The statistics of the current thread
+     */
+    private final ThreadLocal<RayStatistics> statistics = ThreadLocal.withInitial(() -> {
+        RayStatistics statistics = new RayStatistics();
+        threadStatistics.add(statistics);
+        return statistics;
+    });
 
     /**
      * Constructs a RayTracerBasic object with the given scene.
@@ -37,8 +89,114 @@ public class RayTracerBasic extends RayTracerBase {
      */
     @Override
     public Color traceRay(Ray ray) {
+        tracedRays.increment();
+        if (!collectStatistics) {
+            GeoPoint closestPoint = findClosestIntersection(ray);
+            return closestPoint == null ? scene.background : calcColor(closestPoint, ray);
+        }
+
+        RayStatistics threadStatistics = statistics.get();
+        threadStatistics.startPrimaryRay();
         GeoPoint closestPoint = findClosestIntersection(ray);
-        return closestPoint == null ? scene.background : calcColor(closestPoint, ray);
+        Color color = closestPoint == null ? scene.background : calcColor(closestPoint, ray);
+        threadStatistics.endPrimaryRay();
+        return color;
+    }
+
+    /**
+     * Gets the number of rays traced from the camera so far - one ray per pixel, or one ray per sample
+     * when the pixels are super sampled. The reflected, refracted and shadow rays are not counted.
+     *
+     * @return the number of traced rays
+     */
+    public long getTracedRays() {
+        return tracedRays.sum();
+    }
+
+    /**
+     * Sets the Russian roulette termination of the reflected and refracted rays. A ray whose accumulated
+     * coefficient k falls below the threshold survives with probability max(k) / threshold, and the color
+     * of a surviving ray is scaled by the inverse of the probability - so the expected color is unchanged
+     * (unbiased), while most of the weak rays are not traced. The noise added is controlled by the threshold:
+     * the lower it is, the fewer rays are terminated.
+     * <p>
+     * The roulette replaces the neglect of rays below the minimal coefficient of the scene, but the maximal
+     * level of the scene still bounds the recursion. The draw of a ray depends only on the ray, so the
+     * images are reproducible whatever the number of threads.
+     *
+     * @param threshold the coefficient below which the rays play the roulette (e.g. 0.1), 0 for no roulette
+     * @return the ray tracer itself
+     * @throws IllegalArgumentException if the threshold is not between 0 and 1
+     */
+    public RayTracerBasic setRussianRoulette(double threshold) {
+        if (threshold < 0 || threshold > 1)
+            throw new IllegalArgumentException("Russian roulette threshold must be between 0 and 1");
+        this.rouletteThreshold = threshold;
+        return this;
+    }
+
+    /**
+     * Sets whether the shadow rays test the last occluders of the lights first. A shadow ray blocked by the
+     * geometry which blocked the last shadow ray of the thread to the same light is resolved by a single
+     * intersection test, and only the other shadow rays traverse the scene. The images are the same either way,
+     * as long as the geometries are not removed from the scene between renders. On by default.
+     *
+     * @param shadowCache whether to test the last occluders first
+     * @return the ray tracer itself
+     */
+    public RayTracerBasic setShadowCache(boolean shadowCache) {
+        this.shadowCache = shadowCache;
+        return this;
+    }
+
+    /**
+     * Sets whether the rays are counted - by kind, with the recursion depth and the intersection tests
+     * (see {@link RayStatistics}). Counting costs a little time, so it is off by default.
+     *
+     * @param collectStatistics whether to count the rays
+     * @return the ray tracer itself
+     */
+    public RayTracerBasic setCollectStatistics(boolean collectStatistics) {
+        this.collectStatistics = collectStatistics;
+        return this;
+    }
+
+    /**
+     * Checks whether the rays are counted
+     *
+     * @return true if the rays are counted
+     */
+    public boolean isCollectingStatistics() {
+        return collectStatistics;
+    }
+
+    /**
+     * Gets the rays of all the kinds traced so far by the current thread, if the rays are counted
+     *
+     * @return the number of rays, 0 if the rays are not counted
+     */
+    long getThreadRays() {
+        return collectStatistics ? statistics.get().getTotalRays() : 0;
+    }
+
+    /**
+     * Starts counting the rays of a render, if they are counted - turns on the counting of the intersection tests
+     */
+    void startStatistics() {
+        if (collectStatistics) IntersectionStatistics.setEnabled(true);
+    }
+
+    /**
+     * Merges the statistics of all the threads of a render and resets them. To be called when the threads
+     * of the render are done.
+     *
+     * @param renderTime the render time in nanoseconds
+     * @return the statistics of the render, or null if the rays are not counted
+     */
+    RayStatistics collectStatistics(long renderTime) {
+        if (!collectStatistics) return null;
+        IntersectionStatistics.setEnabled(false);
+        return RayStatistics.merge(threadStatistics, renderTime);
     }
 
     /**
@@ -48,8 +206,7 @@ public class RayTracerBasic extends RayTracerBase {
      * @return the closest intersection point, or null if no intersections are found
      */
     private GeoPoint findClosestIntersection(Ray ray) {
-        var intersections = scene.geometries.findGeoIntersections(ray);
-        return intersections == null ? null : ray.findClosestGeoPoint(intersections);
+        return scene.geometries.findClosestGeoIntersection(ray);
     }
 
     /**
@@ -60,7 +217,7 @@ public class RayTracerBasic extends RayTracerBase {
      * @return the color at the intersection point
      */
     private Color calcColor(GeoPoint intersection, Ray ray) {
-        return calcColor(intersection, ray, MAX_CALC_COLOR_LEVEL, INITIAL_K)
+        return calcColor(intersection, ray, scene.maxLevel, INITIAL_K)
                 .add(scene.ambientLight.getIntensity());
     }
 
@@ -74,6 +231,7 @@ public class RayTracerBasic extends RayTracerBase {
      * @return the color at the intersection point
      */
     private Color calcColor(GeoPoint intersection, Ray ray, int level, Double3 k) {
+        if (collectStatistics) statistics.get().reachDepth(scene.maxLevel - level + 1);
         Vector n = intersection.geometry.getNormal(intersection.point);
         Vector v = ray.getDir();
         double nv = alignZero(n.dotProduct(v));
@@ -95,26 +253,68 @@ public class RayTracerBasic extends RayTracerBase {
      */
     private Color calcGlobalEffects(GeoPoint intersection, Vector n, Vector v, double nv, int level, Double3 k) {
         Material material = intersection.geometry.getMaterial();
-        return calcGlobalEffect(constructReflectedRay(n, intersection.point, v, nv), level, material.kr, k)
-                .add(calcGlobalEffect(constructRefractedRay(n, intersection.point, v), level, material.kt, k));
+        return calcGlobalEffect(constructReflectedRay(n, intersection.point, v, nv), true, level, material.kr, k)
+                .add(calcGlobalEffect(constructRefractedRay(n, intersection.point, v), false, level, material.kt, k));
     }
 
     /**
      * Calculates the color contribution from global effects (reflection or refraction) at the given intersection point and ray.
      *
-     * @param ray   the ray for the global effect
-     * @param level the current recursion level
-     * @param kx    the reflection/refraction coefficient of the current object
-     * @param k     the accumulated reflection/refraction coefficient
+     * @param ray       the ray for the global effect
+     * @param reflected whether the ray is reflected (otherwise refracted), for the statistics
+     * @param level     the current recursion level
+     * @param kx        the reflection/refraction coefficient of the current object
+     * @param k         the accumulated reflection/refraction coefficient
      * @return the color contribution from the global effect
      */
-    private Color calcGlobalEffect(Ray ray, int level, Double3 kx, Double3 k) {
+    private Color calcGlobalEffect(Ray ray, boolean reflected, int level, Double3 kx, Double3 k) {
         Double3 kkx = kx.product(k);
-        if (kkx.lowerThan(MIN_CALC_COLOR_K)) return Color.BLACK;
+        if (rouletteThreshold == 0) {
+            if (kkx.lowerThan(scene.minK)) return Color.BLACK;
+        } else if (kkx.lowerThan(rouletteThreshold)) {
+            double survival = max(kkx) / rouletteThreshold;
+            if (survival == 0 || roulette(ray) >= survival) {
+                if (collectStatistics && survival > 0) statistics.get().countRouletteTermination();
+                return Color.BLACK;
+            }
+            kx = kx.reduce(survival);
+            kkx = kkx.reduce(survival);
+        }
+        if (collectStatistics) {
+            if (reflected) statistics.get().countReflectedRay();
+            else statistics.get().countRefractedRay();
+        }
         GeoPoint intersection = findClosestIntersection(ray);
         return intersection == null ? scene.background : calcColor(intersection, ray, level - 1, kkx).scale(kx);
     }
 
+    /**
+     * Gets the greatest component of a coefficient
+     *
+     * @param k the coefficient
+     * @return the greatest component
+     */
+    private static double max(Double3 k) {
+        return Math.max(k.getD1(), Math.max(k.getD2(), k.getD3()));
+    }
+
+    /**
+     * Draws the Russian roulette of a ray - a number in [0, 1) hashed from the origin and the direction of the ray
+     *
+     * @param ray the ray
+     * @return the number drawn
+     */
+    private static double roulette(Ray ray) {
+        Point p0 = ray.getP0();
+        Vector dir = ray.getDir();
+        long hash = Sampler.mix(Double.doubleToLongBits(p0.getX()));
+        hash = Sampler.mix(hash ^ Double.doubleToLongBits(p0.getY()));
+        hash = Sampler.mix(hash ^ Double.doubleToLongBits(p0.getZ()));
+        hash = Sampler.mix(hash ^ Double.doubleToLongBits(dir.getX()));
+        hash = Sampler.mix(hash ^ Double.doubleToLongBits(dir.getY()));
+        return Sampler.toUnit(Sampler.mix(hash ^ Double.doubleToLongBits(dir.getZ())));
+    }
+
     /**
      * Constructs a refracted ray based on the given normal vector, intersection point, and incident ray.
      *
@@ -152,48 +352,64 @@ public class RayTracerBasic extends RayTracerBase {
      * @return the color contributions from local effects
      */
     private Color calcLocalEffects(GeoPoint intersection, Vector n, Vector v, double nv, Double3 k) {
-        Color color = intersection.geometry.getEmission();
+        // the contributions of the lights are summed up in place and a single color is created at the end
+        MutableColor color = new MutableColor(intersection.geometry.getEmission());
         Material material = intersection.geometry.getMaterial();
+        Geometry[] lastOccluders = shadowCache ? threadOccluders() : null;
 
+        int light = 0;
         for (LightSource lightSource : scene.lights) {
             Vector l = lightSource.getL(intersection.point);
             double nl = alignZero(n.dotProduct(l));
             if (nl * nv > 0) { // checks if sign(nl) == sign(nv)
-                Double3 ktr = transparency(lightSource, l, n, intersection);
-                if (!k.product(ktr).lowerThan(MIN_CALC_COLOR_K)) {
-                    Color il = lightSource.getIntensity(intersection.point).scale(ktr);
-                    color = color.add(il.scale(calcDiffusive(material, nl).add(calcSpecular(material, n, l, nl, v))));
-                }
+                Double3 ktr = transparency(lightSource, l, n, intersection, lastOccluders, light);
+                if (!k.product(ktr).lowerThan(scene.minK))
+                    color.addLight(lightSource.getIntensity(intersection.point), ktr,
+                            material.kd, calcDiffusive(nl),
+                            material.ks, calcSpecular(material, nl, nv, v.dotProduct(l)));
             }
+            ++light;
         }
-        return color;
+        return color.toColor();
     }
 
     /**
-     * Calculates the diffusive reflection contribution.
+     * Gets the last occluders of the lights of the current thread, with room for all the lights of the scene
      *
-     * @param material the material of the intersected object
-     * @param nl       the dot product of the normal and the light vector
-     * @return the diffusive reflection contribution
+     * @return the last occluders by the index of the light
+     */
+    private Geometry[] threadOccluders() {
+        Geometry[] lastOccluders = occluders.get();
+        if (lastOccluders.length < scene.lights.size()) {
+            lastOccluders = Arrays.copyOf(lastOccluders, scene.lights.size());
+            occluders.set(lastOccluders);
+        }
+        return lastOccluders;
+    }
+
+    /**
+     * Calculates the diffusive reflection factor.
+     *
+     * @param nl the dot product of the normal and the light vector
+     * @return the diffusive reflection factor |n*l|
      */
-    private Double3 calcDiffusive(Material material, double nl) {
-        return material.kd.scale(nl >= 0 ? nl : -nl);
+    private double calcDiffusive(double nl) {
+        return nl >= 0 ? nl : -nl;
     }
 
     /**
-     * Calculates the specular reflection contribution.
+     * Calculates the specular reflection factor.
+     * The reflected light vector r = l - 2(n*l)n is not constructed, since -v*r = 2(n*l)(n*v) - v*l.
      *
      * @param material the material of the intersected object
-     * @param n        the normal vector at the intersection point
-     * @param l        the light vector
      * @param nl       the dot product of the normal and the light vector
-     * @param v        the view vector
-     * @return the specular reflection contribution
+     * @param nv       the dot product of the normal and the view vector
+     * @param vl       the dot product of the view vector and the light vector
+     * @return the specular reflection factor (-v*r)^shininess
      */
-    private Double3 calcSpecular(Material material, Vector n, Vector l, double nl, Vector v) {
-        Vector r = l.subtract(n.scale(2 * nl));
-        double minusVR = alignZero(-v.dotProduct(r));
-        return minusVR < 0 ? Double3.ZERO : material.ks.scale(pow(minusVR, material.nShininess));
+    private double calcSpecular(Material material, double nl, double nv, double vl) {
+        double minusVR = alignZero(2 * nl * nv - vl);
+        return minusVR < 0 ? 0 : pow(minusVR, material.nShininess);
     }
 
     /**
@@ -217,7 +433,7 @@ public class RayTracerBasic extends RayTracerBase {
             return true;
 
         for (GeoPoint geoPoint : intersections)
-            if (geoPoint.geometry.getMaterial().kt.lowerThan(MIN_CALC_COLOR_K))
+            if (geoPoint.geometry.getMaterial().kt.lowerThan(scene.minK))
                 return false;
 
         return true;
@@ -228,27 +444,40 @@ public class RayTracerBasic extends RayTracerBase {
      * It casts a ray from the intersection point towards the light source and checks if any intersections occur
      * between the intersection point and the light source. The product of the transparency coefficients of the
      * objects between the intersection point and the light source is returned.
+     * The query stops at the first opaque object it meets.
+     * <p>
+     * If the last occluders of the lights are given, the last occluder of the light is tested first, and the
+     * occluder reported by a blocked query is remembered for the next one.
      *
-     * @param ls           the light source
-     * @param l            the direction vector towards the light source
-     * @param n            the normal vector at the intersection point
-     * @param intersection the intersection point
+     * @param ls            the light source
+     * @param l             the direction vector towards the light source
+     * @param n             the normal vector at the intersection point
+     * @param intersection  the intersection point
+     * @param lastOccluders the last occluders of the lights, null if they are not cached
+     * @param light         the index of the light source in the scene
      * @return the transparency coefficient (ktr)
      */
-    private Double3 transparency(LightSource ls, Vector l, Vector n, GeoPoint intersection) {
+    private Double3 transparency(LightSource ls, Vector l, Vector n, GeoPoint intersection,
+                                 Geometry[] lastOccluders, int light) {
         Vector lightDirection = l.scale(-1); // from point to light source
         Ray lightRay = new Ray(lightDirection, intersection.point, n);
+        if (collectStatistics) statistics.get().countShadowRay();
+        double distance = ls.getDistance(lightRay.getP0());
 
-        var intersections = scene.geometries.findGeoIntersections(lightRay, ls.getDistance(lightRay.getP0()));
-        if (intersections == null)
-            return Double3.ONE;
-
-        Double3 ktr = Double3.ONE;
-        for (GeoPoint geoPoint : intersections) {
-            ktr = ktr.product(geoPoint.geometry.getMaterial().kt);
-            if (ktr.lowerThan(MIN_CALC_COLOR_K))
-                return Double3.ZERO;
+        Geometry occluder = lastOccluders == null ? null : lastOccluders[light];
+        if (occluder != null && occluder.calcTransparency(lightRay, distance, INITIAL_K, scene.minK) == Double3.ZERO) {
+            if (collectStatistics) {
+                statistics.get().countBlockedShadowRay();
+                statistics.get().countShadowCacheHit();
+            }
+            return Double3.ZERO;
         }
+        // the same traversal reports the occluder of a blocked ray, so a miss costs no extra query
+        Geometry[] blocker = lastOccluders == null ? null : new Geometry[1];
+        Double3 ktr = scene.geometries.calcTransparency(lightRay, distance, INITIAL_K, scene.minK, blocker);
+        if (collectStatistics && ktr == Double3.ZERO) statistics.get().countBlockedShadowRay();
+        if (lastOccluders != null)
+            lastOccluders[light] = ktr == Double3.ZERO ? blocker[0] : null;
         return ktr;
     }
 }
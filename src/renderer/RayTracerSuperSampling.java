@@ -16,11 +16,24 @@ import java.util.List;
  */
 public class RayTracerSuperSampling extends RayTracerBasic {
 
-    private final List<Point> aperturePointList;
+    private List<Point> aperturePointList;
     private final Camera camera;
     private final int xyBeamSize;
-    private final int beamSize;
+    private int beamSize;
     private boolean isAdaptiveSuperSampling;
+    /**
+     * The sampler of the aperture points of every pixel, or null to use the same aperture points for all the pixels
+     */
+    private Sampler sampler;
+    /**
+     * The aperture points in the order of the samples of {@link #traceSample(Ray, int, int, int)}
+     */
+    private Point[] sampleOrder;
+    /**
+     * The seed of the samples of the image - of the jitter of the aperture points, or of the scrambling
+     * of the samples of every pixel
+     */
+    private long seed = BlackBoard.DEFAULT_SEED;
 
     /**
      * Constructor of RayTracerSuperSampling
@@ -34,9 +47,112 @@ public class RayTracerSuperSampling extends RayTracerBasic {
         this.camera = camera;
         this.xyBeamSize = xyBeamSize;
 
+        constructAperture();
+    }
+
+    /**
+     * Constructs the aperture points shared by all the pixels from the seed
+     */
+    private void constructAperture() {
         aperturePointList = BlackBoard.constructBlackBorad(xyBeamSize, camera.getP0(), camera.getVUp(),
-                camera.getVRight(), camera.getApertureRadius());
-        beamSize = aperturePointList.size();
+                camera.getVRight(), camera.getApertureRadius(), seed);
+        updateBeamSize();
+
+        // consecutive samples stride across the aperture (by about the golden ratio of the beam),
+        // so the first samples of a pixel already cover the whole aperture
+        Point[] points = aperturePointList.toArray(new Point[0]);
+        int size = points.length;
+        int stride = Math.max(1, (int) Math.round(size * 0.618));
+        while (GridSampler.gcd(stride, size) != 1) ++stride;
+        sampleOrder = new Point[size];
+        for (int i = 0; i < size; ++i)
+            sampleOrder[i] = points[(int) ((long) i * stride % size)];
+    }
+
+    /**
+     * Gets the number of rays in a beam - the samples of a pixel
+     *
+     * @return the beam size
+     */
+    public int getBeamSize() {
+        return beamSize;
+    }
+
+    /**
+     * Traces a single sample of a pixel - the ray from one of the aperture points to the focal point of the pixel.
+     * Tracing the samples 0 to {@link #getBeamSize()} - 1 covers the whole beam, and any prefix of the samples is
+     * spread across the aperture, so the samples may be added gradually until the pixel converges.
+     *
+     * @param ray    the center ray of the pixel
+     * @param x      the column of the pixel
+     * @param y      the row of the pixel
+     * @param sample the index of the sample - 0 to the beam size - 1
+     * @return the color of the sample
+     */
+    public Color traceSample(Ray ray, int x, int y, int sample) {
+        if (beamSize == 1) return super.traceRay(ray);
+        if (sampler == null) {
+            Point point = sampleOrder[sample];
+            return super.traceRay(new Ray(point, calculateFocalPoint(ray).subtract(point).normalize()));
+        }
+        double[] point = new double[2];
+        sampler.sample(sample, beamSize, Sampler.scramble(seed, x, y), point, 0);
+        return traceAperture(calculateFocalPoint(ray), point[0], point[1]);
+    }
+
+    @Override
+    public Color tracePixel(Ray ray, int x, int y) {
+        if (sampler == null || isAdaptiveSuperSampling || beamSize == 1) return traceRay(ray);
+        return traceBeam(ray, Sampler.scramble(seed, x, y));
+    }
+
+    /**
+     * Traces the beam of a pixel from the aperture points of the sampler
+     *
+     * @param ray      the center ray of the pixel
+     * @param scramble the scramble value of the samples of the pixel
+     * @return the average color of the beam
+     */
+    private Color traceBeam(Ray ray, long scramble) {
+        double[] points = new double[2 * beamSize];
+        sampler.generate(beamSize, scramble, points);
+        Point focalPoint = calculateFocalPoint(ray);
+        Color color = Color.BLACK;
+        for (int i = 0; i < beamSize; ++i)
+            color = color.add(traceAperture(focalPoint, points[2 * i], points[2 * i + 1]));
+        return color.reduce(beamSize);
+    }
+
+    /**
+     * Traces the ray from a point of the aperture to the focal point. The sample of the unit square is mapped
+     * to the aperture disk by the concentric mapping, which keeps the distances between the samples.
+     *
+     * @param focalPoint the focal point of the pixel
+     * @param u          the first coordinate of the sample, in [0, 1)
+     * @param v          the second coordinate of the sample, in [0, 1)
+     * @return the color of the ray
+     */
+    private Color traceAperture(Point focalPoint, double u, double v) {
+        double a = 2 * u - 1, b = 2 * v - 1;
+        double r, phi;
+        if (a * a > b * b) {
+            r = a;
+            phi = Math.PI / 4 * b / a;
+        } else if (b != 0) {
+            r = b;
+            phi = Math.PI / 2 - Math.PI / 4 * a / b;
+        } else {
+            r = 0;
+            phi = 0;
+        }
+        double radius = camera.getApertureRadius();
+        double right = r * Math.cos(phi) * radius, up = r * Math.sin(phi) * radius;
+        Point p0 = camera.getP0();
+        Vector vRight = camera.getVRight(), vUp = camera.getVUp();
+        Point point = new Point(p0.getX() + right * vRight.getX() + up * vUp.getX(),
+                p0.getY() + right * vRight.getY() + up * vUp.getY(),
+                p0.getZ() + right * vRight.getZ() + up * vUp.getZ());
+        return super.traceRay(new Ray(point, focalPoint.subtract(point).normalize()));
     }
 
     @Override
@@ -44,6 +160,8 @@ public class RayTracerSuperSampling extends RayTracerBasic {
         Color color = Color.BLACK;
 
         if (!isAdaptiveSuperSampling) {
+            if (sampler != null && beamSize > 1)
+                return traceBeam(ray, seed);
             List<Ray> raysBeam = createRayBeamFromPointsToTarget(ray, aperturePointList);
             for (Ray r : raysBeam)
                 color = color.add(super.traceRay(r));
@@ -91,10 +209,17 @@ public class RayTracerSuperSampling extends RayTracerBasic {
         Vector vRight = camera.getVRight();
         Vector vUp = camera.getVUp();
 
-        return color.add(recCastRay(nXY / 2, color, middle.add(vRight.scale(nXY / 4)).add(vUp.scale(nXY / 4)), ray),
+        SubdivisionEvent event = new SubdivisionEvent();
+        event.begin();
+        color = color.add(recCastRay(nXY / 2, color, middle.add(vRight.scale(nXY / 4)).add(vUp.scale(nXY / 4)), ray),
                 recCastRay(nXY / 2,  color, middle.add(vRight.scale(nXY / 4)).add(vUp.scale(-nXY / 4)), ray),
                 recCastRay(nXY / 2,  color, middle.add(vRight.scale(-nXY / 4)).add(vUp.scale(nXY / 4)), ray),
                 recCastRay(nXY / 2,  color, middle.add(vRight.scale(-nXY / 4)).add(vUp.scale(-nXY / 4)), ray));
+        if (event.shouldCommit()) {
+            event.size = nXY;
+            event.commit();
+        }
+        return color;
     }
 
     /**
@@ -157,4 +282,39 @@ public class RayTracerSuperSampling extends RayTracerBasic {
         isAdaptiveSuperSampling = adaptiveSuperSampling;
         return this;
     }
-}
\ No newline at end of file
+
+    /**
+     * Sets the sampler of the aperture points. The beam of every pixel is then sampled differently,
+     * from xy*xy points of the sampler on the aperture disk (not used by adaptive super sampling).
+     *
+     * @param sampler the sampler, or null to use the same jittered grid of aperture points for all the pixels
+     * @return the ray tracer itself
+     */
+    public RayTracerSuperSampling setSampler(Sampler sampler) {
+        this.sampler = sampler;
+        updateBeamSize();
+        return this;
+    }
+
+    /**
+     * Updates the beam size - the aperture points shared by all the pixels, or xy*xy points of the sampler
+     */
+    private void updateBeamSize() {
+        int points = aperturePointList.size();
+        beamSize = sampler == null || points == 1 ? points : xyBeamSize * xyBeamSize;
+    }
+
+    /**
+     * Sets the seed of the samples, so that renders with the same seed are identical - whatever the number
+     * of threads and the order of the pixels. Every frame of an animation is given a seed of its own.
+     *
+     * @param seed  the seed ({@link BlackBoard#DEFAULT_SEED} by default)
+     * @param frame the number of the frame (0 for a still image)
+     * @return the ray tracer itself
+     */
+    public RayTracerSuperSampling setSeed(long seed, int frame) {
+        this.seed = Sampler.seed(seed, frame);
+        constructAperture();
+        return this;
+    }
+}
@@ -0,0 +1,41 @@
+package renderer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of rendering a tile (or a row) of the image, with its pixel range,
+ * so that pauses and stalls of the threads can be related to regions of the image
+ */
+@Name("raytracer.RenderTile")
+@Label("Render Tile")
+@Category({"Ray Tracer", "Render"})
+@Description("Rendering of a tile or a row of the image")
+@StackTrace(false)
+final class RenderTileEvent extends jdk.jfr.Event {
+
+    @Label("First Column")
+    int col0;
+
+    @Label("First Row")
+    int row0;
+
+    @Label("End Column")
+    @Description("The column after the last one")
+    int col1;
+
+    @Label("End Row")
+    @Description("The row after the last one")
+    int row1;
+
+    @Label("Pixels")
+    @Description("The pixels rendered (a pass may render part of the pixels of the tile)")
+    int pixels;
+
+    @Label("Rays")
+    @Description("The rays traced for the tile, if the ray tracer counts them")
+    long rays;
+}
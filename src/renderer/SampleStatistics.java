@@ -0,0 +1,140 @@
+package renderer;
+
+import primitives.Color;
+import primitives.Double3;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Running statistics of the samples of every pixel of an image - the number of samples, their mean color
+ * and the variance of their luminance. Kept in primitive arrays; every pixel is updated by a single thread
+ * at a time, as the tiles of a render are.
+ */
+public class SampleStatistics {
+
+    private final int width;
+    private final int height;
+    /**
+     * The sums of the color components of the samples - 3 for each pixel, row by row
+     */
+    private final double[] sums;
+    /**
+     * The sums of the luminance of the samples
+     */
+    private final double[] luminance;
+    /**
+     * The sums of the squared luminance of the samples
+     */
+    private final double[] squares;
+    /**
+     * The numbers of samples
+     */
+    private final int[] counts;
+
+    /**
+     * Constructs statistics of an image without samples
+     *
+     * @param width  the number of pixels in a row
+     * @param height the number of rows
+     */
+    public SampleStatistics(int width, int height) {
+        this.width = width;
+        this.height = height;
+        int pixels = width * height;
+        sums = new double[3 * pixels];
+        luminance = new double[pixels];
+        squares = new double[pixels];
+        counts = new int[pixels];
+    }
+
+    /**
+     * Adds a sample to a pixel
+     *
+     * @param x     the column of the pixel
+     * @param y     the row of the pixel
+     * @param color the color of the sample
+     */
+    public void add(int x, int y, Color color) {
+        Double3 rgb = color.getRgb();
+        double r = rgb.getD1(), g = rgb.getD2(), b = rgb.getD3();
+        int p = y * width + x;
+        sums[3 * p] += r;
+        sums[3 * p + 1] += g;
+        sums[3 * p + 2] += b;
+        double l = 0.2126 * r + 0.7152 * g + 0.0722 * b;
+        luminance[p] += l;
+        squares[p] += l * l;
+        ++counts[p];
+    }
+
+    /**
+     * Gets the number of samples of a pixel
+     *
+     * @param x the column of the pixel
+     * @param y the row of the pixel
+     * @return the number of samples
+     */
+    public int getSamples(int x, int y) {
+        return counts[y * width + x];
+    }
+
+    /**
+     * Gets the mean color of the samples of a pixel
+     *
+     * @param x the column of the pixel
+     * @param y the row of the pixel
+     * @return the mean color, black if there are no samples
+     */
+    public Color getMean(int x, int y) {
+        int p = y * width + x;
+        int n = counts[p];
+        return n == 0 ? Color.BLACK : new Color(sums[3 * p] / n, sums[3 * p + 1] / n, sums[3 * p + 2] / n);
+    }
+
+    /**
+     * Gets the (unbiased) variance of the luminance of the samples of a pixel
+     *
+     * @param x the column of the pixel
+     * @param y the row of the pixel
+     * @return the variance, 0 if there are less than 2 samples
+     */
+    public double getVariance(int x, int y) {
+        int p = y * width + x;
+        int n = counts[p];
+        if (n < 2) return 0;
+        double mean = luminance[p] / n;
+        return Math.max(0, (squares[p] - n * mean * mean) / (n - 1));
+    }
+
+    /**
+     * Gets the variance of the mean luminance of a pixel - the variance of the samples divided by their number.
+     * It measures the noise left in the pixel, and decreases as samples are added.
+     *
+     * @param x the column of the pixel
+     * @param y the row of the pixel
+     * @return the variance of the mean, 0 if there are less than 2 samples
+     */
+    public double getMeanVariance(int x, int y) {
+        int n = counts[y * width + x];
+        return n < 2 ? 0 : getVariance(x, y) / n;
+    }
+
+    /**
+     * Writes the statistics as comma separated values - a header line, then a line for every pixel
+     * (row by row) with its column, row, number of samples and variance of the samples
+     *
+     * @param path the path of the file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write("x,y,samples,variance\n");
+            for (int y = 0; y < height; ++y)
+                for (int x = 0; x < width; ++x)
+                    writer.write(x + "," + y + "," + getSamples(x, y) + "," + getVariance(x, y) + "\n");
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package renderer;
+
+/**
+ * The Sampler interface generates the two-dimensional samples of a pixel in the unit square [0, 1) x [0, 1) -
+ * for example the points of the aperture sampled by {@link RayTracerSuperSampling}.
+ * <p>
+ * A sampler is stateless: a sample depends only on its index, the number of samples and a scramble value,
+ * which decorrelates the samples of different pixels (see {@link #scramble(long, int, int)}) so that neighbouring
+ * pixels do not repeat the same pattern. Any prefix of the samples is spread over the square, so the samples
+ * of a pixel may be taken gradually.
+ */
+public interface Sampler {
+
+    /**
+     * Jittered stratified grid sampler
+     */
+    Sampler GRID = new GridSampler();
+    /**
+     * Halton sequence sampler (bases 2 and 3) with a random shift per pixel
+     */
+    Sampler HALTON = new HaltonSampler();
+    /**
+     * Sobol sequence sampler with random digit scrambling per pixel
+     */
+    Sampler SOBOL = new SobolSampler();
+    /**
+     * Blue noise sampler - a best candidate sequence with a random shift per pixel
+     */
+    Sampler BLUE_NOISE = new BlueNoiseSampler();
+
+    /**
+     * Finds a sampler by its name
+     *
+     * @param name the name of the sampler - grid, halton, sobol or blue (in any case)
+     * @return the sampler
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    static Sampler of(String name) {
+        return switch (name.toLowerCase()) {
+            case "grid" -> GRID;
+            case "halton" -> HALTON;
+            case "sobol" -> SOBOL;
+            case "blue" -> BLUE_NOISE;
+            default -> throw new IllegalArgumentException("Unknown sampler " + name);
+        };
+    }
+
+    /**
+     * Gets a sample of a pixel
+     *
+     * @param index    the index of the sample - 0 to count - 1
+     * @param count    the number of samples of the pixel
+     * @param scramble the scramble value of the pixel
+     * @param points   the array receiving the two coordinates of the sample
+     * @param offset   the index of the first coordinate in the array
+     */
+    void sample(int index, int count, long scramble, double[] points, int offset);
+
+    /**
+     * Generates all the samples of a pixel
+     *
+     * @param count    the number of samples
+     * @param scramble the scramble value of the pixel
+     * @param points   the array receiving the coordinates of the samples - 2 for each sample
+     */
+    default void generate(int count, long scramble, double[] points) {
+        for (int i = 0; i < count; ++i)
+            sample(i, count, scramble, points, 2 * i);
+    }
+
+    /**
+     * Calculates the scramble value of a pixel. It depends only on the seed and the position of the pixel,
+     * so a pixel is sampled the same whichever thread renders it, and in whatever order.
+     *
+     * @param seed the seed of the image (see {@link #seed(long, int)})
+     * @param x    the column of the pixel
+     * @param y    the row of the pixel
+     * @return the scramble value
+     */
+    static long scramble(long seed, int x, int y) {
+        return mix(seed + mix((long) y << 32 | x & 0xFFFFFFFFL));
+    }
+
+    /**
+     * Calculates the seed of a frame of an animation, so that every frame is sampled differently
+     *
+     * @param seed  the seed of the animation
+     * @param frame the number of the frame
+     * @return the seed of the frame
+     */
+    static long seed(long seed, int frame) {
+        return frame == 0 ? seed : mix(seed + frame * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * Mixes the bits of a value (the finalizer of SplitMix64), so that close values give unrelated results
+     *
+     * @param value the value
+     * @return the mixed value
+     */
+    static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * Converts the high bits of a value to a number in [0, 1)
+     *
+     * @param value the value
+     * @return the number
+     */
+    static double toUnit(long value) {
+        return (value >>> 11) * 0x1.0p-53;
+    }
+}
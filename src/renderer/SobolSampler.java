@@ -0,0 +1,40 @@
+package renderer;
+
+/**
+ * Sobol sequence sampler - the first two dimensions of the Sobol sequence, computed with 32-bit
+ * integer arithmetic. The bits of the samples of every pixel are flipped by a random mask
+ * (random digit scrambling), which keeps the sequence stratified in every power of 2 of samples.
+ */
+public class SobolSampler implements Sampler {
+
+    /**
+     * The direction numbers of the second dimension
+     */
+    private static final int[] DIRECTIONS = new int[32];
+
+    static {
+        DIRECTIONS[0] = 1 << 31;
+        for (int i = 1; i < DIRECTIONS.length; ++i)
+            DIRECTIONS[i] = DIRECTIONS[i - 1] ^ (DIRECTIONS[i - 1] >>> 1);
+    }
+
+    @Override
+    public void sample(int index, int count, long scramble, double[] points, int offset) {
+        long mask = Sampler.mix(scramble);
+        int y = 0;
+        for (int i = 0, bits = index; bits != 0; ++i, bits >>>= 1)
+            if ((bits & 1) != 0) y ^= DIRECTIONS[i];
+        points[offset] = toUnit(Integer.reverse(index) ^ (int) mask);
+        points[offset + 1] = toUnit(y ^ (int) (mask >>> 32));
+    }
+
+    /**
+     * Converts the unsigned bits of an integer to a number in [0, 1)
+     *
+     * @param bits the bits
+     * @return the number
+     */
+    private static double toUnit(int bits) {
+        return (bits & 0xFFFFFFFFL) * 0x1.0p-32;
+    }
+}
@@ -0,0 +1,24 @@
+package renderer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a subdivision of adaptive super sampling
+ * (see {@link RayTracerSuperSampling#setAdaptiveSuperSampling(boolean)}) - a square of the aperture
+ * whose corners differ, sampled by its 4 quarters
+ */
+@Name("raytracer.Subdivision")
+@Label("Adaptive Subdivision")
+@Category({"Ray Tracer", "Render"})
+@Description("Subdivision of a square of the aperture by adaptive super sampling")
+@StackTrace(false)
+final class SubdivisionEvent extends jdk.jfr.Event {
+
+    @Label("Size")
+    @Description("The side of the subdivided square")
+    double size;
+}
@@ -0,0 +1,341 @@
+package scene;
+
+import geometries.TriangleMesh;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Loader of Wavefront OBJ files into triangle meshes.
+ * <p>
+ * The file is streamed in blocks of bytes and parsed in place - the coordinates and the indices go
+ * directly into primitive arrays, without creating a string or a point for each line or vertex.
+ * Only the vertices ({@code v}) and the faces ({@code f}) are read; faces with more than three vertices
+ * are split into triangles (as a fan), and all the other statements are ignored.
+ * <p>
+ * The number of vertices and triangles, the load time and the peak memory of the arrays the loader reads
+ * into are reported by the logger. The peak is counted by the loader itself, so unlike a sample of the heap
+ * it does not depend on the garbage collector or on the other threads, and grows linearly with the file.
+ */
+public final class ObjLoader {
+
+    private static final Logger logger = Logger.getLogger("ObjLoader");
+
+    /**
+     * Size of the blocks the file is read in
+     */
+    private static final int BLOCK_SIZE = 1 << 16;
+    /**
+     * Exact powers of 10 - the largest power which is exactly representable is 10^22
+     */
+    private static final double[] POWERS_OF_10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    /**
+     * The largest mantissa which converts exactly to a double
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private final InputStream in;
+    private final byte[] block = new byte[BLOCK_SIZE];
+    private int position;
+    private int limit;
+    private int line = 1;
+
+    /**
+     * The value of the last number read
+     */
+    private double number;
+    /**
+     * The text of the last number read, for the rare numbers which are not converted exactly in place
+     */
+    private final StringBuilder text = new StringBuilder();
+
+    private double[] vertices = new double[3 * 1024];
+    private int vertexCount;
+    private int[] indices = new int[3 * 1024];
+    private int indexCount;
+    /**
+     * Vertex indices of the face being read
+     */
+    private int[] face = new int[16];
+    /**
+     * Peak size in bytes of the vertex and index arrays, including the old arrays while they are copied
+     * into larger ones and the final arrays of the mesh
+     */
+    private long peakBytes;
+
+    /**
+     * Constructs a loader reading from a stream
+     *
+     * @param in the stream of the OBJ file
+     */
+    private ObjLoader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Loads an OBJ file into a triangle mesh
+     *
+     * @param path the path of the file
+     * @return the mesh
+     * @throws IOException if the file cannot be read or is not a legal OBJ file with at least one face
+     */
+    public static TriangleMesh load(Path path) throws IOException {
+        long start = System.nanoTime();
+
+        TriangleMesh mesh;
+        ObjLoader loader;
+        SceneLoadEvent event = new SceneLoadEvent();
+        event.begin();
+        try (InputStream in = Files.newInputStream(path)) {
+            loader = new ObjLoader(in);
+            mesh = loader.read(path.toString());
+        } finally {
+            if (event.shouldCommit()) {
+                event.file = path.toString();
+                event.size = path.toFile().length();
+                event.commit();
+            }
+        }
+
+        if (logger.isLoggable(Level.INFO))
+            logger.info(String.format("Loaded %s: %d vertices, %d triangles in %d ms, peak memory %d KB",
+                    path, mesh.getVertexCount(), mesh.getTriangleCount(), (System.nanoTime() - start) / 1_000_000,
+                    loader.peakBytes / 1024));
+        return mesh;
+    }
+
+    /**
+     * Loads an OBJ file into a triangle mesh and adds it to the geometries of a scene
+     *
+     * @param scene the scene
+     * @param path  the path of the file
+     * @return the mesh, so its emission and material may be set
+     * @throws IOException if the file cannot be read or is not a legal OBJ file with at least one face
+     */
+    public static TriangleMesh load(Scene scene, Path path) throws IOException {
+        TriangleMesh mesh = load(path);
+        scene.geometries.add(mesh);
+        return mesh;
+    }
+
+    /**
+     * Reads the whole file into a mesh
+     *
+     * @param name the name of the file, for the error messages
+     * @return the mesh
+     * @throws IOException if the file cannot be read or is not a legal OBJ file with at least one face
+     */
+    private TriangleMesh read(String name) throws IOException {
+        for (int c = next(); c >= 0; c = next()) {
+            if (c == 'v') {
+                c = next();
+                if (c == ' ' || c == '\t') readVertex();
+                else skipLine(c); // texture coordinates, normals...
+            } else if (c == 'f') {
+                c = next();
+                if (c == ' ' || c == '\t') readFace();
+                else skipLine(c);
+            } else
+                skipLine(c);
+        }
+        if (indexCount == 0)
+            throw new IOException(name + " has no faces");
+        updatePeak(Double.BYTES * 3L * vertexCount + Integer.BYTES * (long) indexCount); // the trimmed copies
+        return new TriangleMesh(Arrays.copyOf(vertices, 3 * vertexCount), Arrays.copyOf(indices, indexCount));
+    }
+
+    /**
+     * Reads the coordinates of a vertex statement (after the "v")
+     *
+     * @throws IOException if the file cannot be read or the vertex is illegal
+     */
+    private void readVertex() throws IOException {
+        if (3 * vertexCount + 3 > vertices.length) {
+            double[] old = vertices;
+            vertices = Arrays.copyOf(old, old.length * 2);
+            updatePeak(Double.BYTES * (long) old.length);
+        }
+        int c = skipSpaces(next());
+        for (int i = 0; i < 3; ++i) {
+            c = skipSpaces(readNumber(c));
+            vertices[3 * vertexCount + i] = number;
+        }
+        ++vertexCount;
+        skipLine(c); // an optional w coordinate or vertex color
+    }
+
+    /**
+     * Reads the vertex indices of a face statement (after the "f") and splits the face into triangles
+     *
+     * @throws IOException if the file cannot be read or the face is illegal
+     */
+    private void readFace() throws IOException {
+        int size = 0;
+        int c = skipSpaces(next());
+        while (c >= 0 && c != '\n' && c != '\r' && c != '#') {
+            boolean negative = c == '-';
+            if (negative) c = next();
+            if (c < '0' || c > '9') throw error("Illegal vertex index in a face");
+            long digits = 0;
+            for (; c >= '0' && c <= '9'; c = next()) {
+                digits = digits * 10 + c - '0';
+                // no index beyond the vertex count is legal - stop before the digits overflow
+                if (digits > vertexCount) throw error("Vertex index out of range in a face");
+            }
+            // OBJ indices start at 1, negative indices are relative to the last vertex
+            int index = (int) (negative ? vertexCount - digits : digits - 1);
+            if (index < 0 || index >= vertexCount) throw error("Vertex index out of range in a face");
+            while (c == '/' || c == '-' || c >= '0' && c <= '9') c = next(); // texture and normal indices
+            if (size == face.length) face = Arrays.copyOf(face, size * 2);
+            face[size++] = index;
+            c = skipSpaces(c);
+        }
+        if (size < 3) throw error("A face must have at least 3 vertices");
+
+        int triangles = size - 2;
+        if (indexCount + 3 * triangles > indices.length) {
+            int[] old = indices;
+            indices = Arrays.copyOf(old, Math.max(old.length * 2, indexCount + 3 * triangles));
+            updatePeak(Integer.BYTES * (long) old.length);
+        }
+        for (int i = 1; i <= triangles; ++i) {
+            indices[indexCount++] = face[0];
+            indices[indexCount++] = face[i];
+            indices[indexCount++] = face[i + 1];
+        }
+        skipLine(c);
+    }
+
+    /**
+     * Updates the peak size of the arrays with their current size
+     *
+     * @param extra the size in bytes of other arrays which are alive at the moment
+     */
+    private void updatePeak(long extra) {
+        peakBytes = Math.max(peakBytes,
+                Double.BYTES * (long) vertices.length + Integer.BYTES * (long) indices.length + extra);
+    }
+
+    /**
+     * Reads a decimal number (with an optional sign, fraction and exponent) into {@link #number}.
+     * The usual numbers are converted exactly without creating a string.
+     *
+     * @param c the first character of the number
+     * @return the character following the number
+     * @throws IOException if the file cannot be read or there is no number
+     */
+    private int readNumber(int c) throws IOException {
+        text.setLength(0);
+        boolean negative = c == '-';
+        if (c == '-' || c == '+') c = next();
+
+        long mantissa = 0;
+        int exponent = 0;
+        boolean digits = false, exact = true;
+        for (; c >= '0' && c <= '9'; c = next()) {
+            digits = true;
+            if (mantissa < MAX_EXACT_MANTISSA / 10) mantissa = mantissa * 10 + c - '0';
+            else {
+                ++exponent;
+                exact &= c == '0';
+            }
+            text.append((char) c);
+        }
+        if (c == '.') {
+            text.append('.');
+            for (c = next(); c >= '0' && c <= '9'; c = next()) {
+                digits = true;
+                if (mantissa < MAX_EXACT_MANTISSA / 10) {
+                    mantissa = mantissa * 10 + c - '0';
+                    --exponent;
+                } else
+                    exact &= c == '0';
+                text.append((char) c);
+            }
+        }
+        if (!digits) throw error("Illegal number");
+
+        if (c == 'e' || c == 'E') {
+            text.append('e');
+            c = next();
+            boolean negativeExponent = c == '-';
+            if (c == '-' || c == '+') {
+                text.append((char) c);
+                c = next();
+            }
+            if (c < '0' || c > '9') throw error("Illegal number");
+            int e = 0;
+            for (; c >= '0' && c <= '9'; c = next()) {
+                if (e < 100_000) e = e * 10 + c - '0';
+                text.append((char) c);
+            }
+            exponent += negativeExponent ? -e : e;
+        }
+
+        double result;
+        if (exact && exponent == 0) result = mantissa;
+        else if (exact && exponent > 0 && exponent < POWERS_OF_10.length) result = mantissa * POWERS_OF_10[exponent];
+        else if (exact && exponent < 0 && -exponent < POWERS_OF_10.length) result = mantissa / POWERS_OF_10[-exponent];
+        else result = Double.parseDouble(text.toString()); // rare - let the library round correctly
+        number = negative ? -result : result;
+        return c;
+    }
+
+    /**
+     * Skips spaces and tabs
+     *
+     * @param c the current character
+     * @return the first character which is not a space
+     * @throws IOException if the file cannot be read
+     */
+    private int skipSpaces(int c) throws IOException {
+        while (c == ' ' || c == '\t') c = next();
+        return c;
+    }
+
+    /**
+     * Skips the rest of the line
+     *
+     * @param c the current character
+     * @throws IOException if the file cannot be read
+     */
+    private void skipLine(int c) throws IOException {
+        while (c >= 0 && c != '\n') c = next();
+        if (c == '\n') ++line;
+    }
+
+    /**
+     * Reads the next character of the file
+     *
+     * @return the character, or -1 at the end of the file
+     * @throws IOException if the file cannot be read
+     */
+    private int next() throws IOException {
+        if (position == limit) {
+            limit = in.read(block);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return block[position++] & 0xFF;
+    }
+
+    /**
+     * Creates an exception for an illegal statement
+     *
+     * @param message the description of the problem
+     * @return the exception
+     */
+    private IOException error(String message) {
+        return new IOException(message + " at line " + line);
+    }
+}
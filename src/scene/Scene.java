@@ -40,6 +40,16 @@ public class Scene {
      */
     public List<LightSource> lights = new LinkedList<>();
 
+    /**
+     * The maximal recursion level of the reflected and refracted rays - 1 for no reflections and refractions.
+     */
+    public int maxLevel = 10;
+
+    /**
+     * The accumulated coefficient below which the reflected and refracted rays and the lights are neglected.
+     */
+    public double minK = 0.001;
+
     /**
      * Constructs a Scene object with the given name.
      *
@@ -94,4 +104,32 @@ public class Scene {
         this.lights = lights;
         return this;
     }
+
+    /**
+     * Sets the maximal recursion level of the reflected and refracted rays.
+     *
+     * @param maxLevel the maximal level - 1 for no reflections and refractions
+     * @return the scene itself
+     * @throws IllegalArgumentException if the level is not positive
+     */
+    public Scene setMaxLevel(int maxLevel) {
+        if (maxLevel < 1)
+            throw new IllegalArgumentException("Maximal level must be positive");
+        this.maxLevel = maxLevel;
+        return this;
+    }
+
+    /**
+     * Sets the accumulated coefficient below which the reflected and refracted rays and the lights are neglected.
+     *
+     * @param minK the minimal coefficient - 0 to neglect nothing
+     * @return the scene itself
+     * @throws IllegalArgumentException if the coefficient is not between 0 and 1
+     */
+    public Scene setMinK(double minK) {
+        if (minK < 0 || minK > 1)
+            throw new IllegalArgumentException("Minimal coefficient must be between 0 and 1");
+        this.minK = minK;
+        return this;
+    }
 }
@@ -0,0 +1,476 @@
+package scene;
+
+import geometries.*;
+import lighting.*;
+import primitives.*;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary cache of compiled scenes.
+ * <p>
+ * A scene is written once - with its background, ambient light, recursion limits, lights, geometries and their
+ * materials - and later opened by mapping the file into memory. All the numbers are stored in binary form, so reading
+ * is a sequence of fixed size reads; the arrays of triangle meshes (including their hierarchies) are copied
+ * in bulk. Materials shared by several geometries are stored once and shared again when the scene is read.
+ * The hierarchy of a geometries collection is made of objects, so its topology is stored instead - the order of
+ * the geometries and the size of every node - and the hierarchy is rebuilt by it after reading in linear time,
+ * without planning it again.
+ * <p>
+ * The file must not be larger than 2GB.
+ */
+public final class SceneCache {
+
+    /**
+     * Magic number of the file format ("RTSC")
+     */
+    private static final int MAGIC = 0x52545343;
+    /**
+     * Version of the file format
+     */
+    private static final int VERSION = 3;
+
+    // geometry tags
+    private static final byte GEOMETRIES = 0;
+    private static final byte SPHERE = 1;
+    private static final byte PLANE = 2;
+    private static final byte TRIANGLE = 3;
+    private static final byte POLYGON = 4;
+    private static final byte TUBE = 5;
+    private static final byte CYLINDER = 6;
+    private static final byte MESH = 7;
+
+    // light tags
+    private static final byte DIRECTIONAL_LIGHT = 0;
+    private static final byte POINT_LIGHT = 1;
+    private static final byte SPOT_LIGHT = 2;
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private SceneCache() {
+    }
+
+    /**
+     * Writes a scene into a cache file
+     *
+     * @param scene the scene
+     * @param path  the path of the file
+     * @throws IOException              if the file cannot be written
+     * @throws IllegalArgumentException if the scene holds a geometry or a light which is not supported
+     */
+    public static void write(Scene scene, Path path) throws IOException {
+        // the materials are collected first, so each geometry refers to its material by index
+        Map<Material, Integer> materials = new IdentityHashMap<>();
+        List<Material> materialList = new ArrayList<>();
+        collectMaterials(scene.geometries, materials, materialList);
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            byte[] name = scene.name.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(name.length);
+            out.write(name);
+            writeColor(out, scene.background);
+            writeColor(out, scene.ambientLight.getIntensity());
+            out.writeInt(scene.maxLevel);
+            out.writeDouble(scene.minK);
+
+            out.writeInt(materialList.size());
+            for (Material material : materialList) {
+                writeDouble3(out, material.kd);
+                writeDouble3(out, material.ks);
+                writeDouble3(out, material.kr);
+                writeDouble3(out, material.kt);
+                out.writeInt(material.nShininess);
+            }
+
+            out.writeInt(scene.lights.size());
+            for (LightSource light : scene.lights)
+                writeLight(out, light);
+
+            writeGeometry(out, scene.geometries, materials);
+        }
+    }
+
+    /**
+     * Reads a scene from a cache file, mapping the file into memory
+     *
+     * @param path the path of the file
+     * @return the scene
+     * @throws IOException if the file cannot be read or is not a scene cache file
+     */
+    public static Scene read(Path path) throws IOException {
+        SceneLoadEvent event = new SceneLoadEvent();
+        event.begin();
+        try {
+            return map(path);
+        } finally {
+            if (event.shouldCommit()) {
+                event.file = path.toString();
+                event.size = path.toFile().length();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Maps a cache file into memory and reads the scene from it
+     *
+     * @param path the path of the file
+     * @return the scene
+     * @throws IOException if the file cannot be read or is not a scene cache file
+     */
+    private static Scene map(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < 8 || buffer.getInt() != MAGIC)
+            throw new IOException(path + " is not a scene cache file");
+        int version = buffer.getInt();
+        if (version != VERSION)
+            throw new IOException(path + " has an unsupported version " + version);
+
+        try {
+            byte[] name = new byte[buffer.getInt()];
+            buffer.get(name);
+            Scene scene = new Scene(new String(name, StandardCharsets.UTF_8));
+            scene.setBackground(readColor(buffer));
+            scene.setAmbientLight(new AmbientLight(readColor(buffer), 1));
+            scene.setMaxLevel(buffer.getInt()).setMinK(buffer.getDouble());
+
+            Material[] materials = new Material[buffer.getInt()];
+            for (int i = 0; i < materials.length; ++i)
+                materials[i] = new Material().setKd(readDouble3(buffer)).setKs(readDouble3(buffer))
+                        .setKr(readDouble3(buffer)).setKt(readDouble3(buffer)).setShininess(buffer.getInt());
+
+            for (int i = buffer.getInt(); i > 0; --i)
+                scene.lights.add(readLight(buffer));
+
+            if (buffer.get() != GEOMETRIES)
+                throw new IOException(path + " is corrupted - the geometries are missing");
+            scene.setGeometries(readGeometries(buffer, materials));
+            return scene;
+        } catch (RuntimeException e) { // buffer underflow, illegal tag or index
+            throw new IOException(path + " is corrupted", e);
+        }
+    }
+
+    /**
+     * Collects the materials of the geometries, each distinct material once
+     *
+     * @param geometry  the geometry (or collection of geometries)
+     * @param indices   the indices of the materials collected so far
+     * @param materials the materials collected so far
+     */
+    private static void collectMaterials(Intersectable geometry, Map<Material, Integer> indices,
+                                         List<Material> materials) {
+        if (geometry instanceof Geometries collection)
+            for (Intersectable item : collection.getGeometries())
+                collectMaterials(item, indices, materials);
+        else if (geometry instanceof Geometry g && !indices.containsKey(g.getMaterial())) {
+            indices.put(g.getMaterial(), materials.size());
+            materials.add(g.getMaterial());
+        }
+    }
+
+    /**
+     * Writes a geometry (or a collection of geometries)
+     *
+     * @param out       the output
+     * @param geometry  the geometry
+     * @param materials the indices of the materials
+     * @throws IOException if the output fails
+     */
+    private static void writeGeometry(DataOutputStream out, Intersectable geometry, Map<Material, Integer> materials)
+            throws IOException {
+        if (geometry instanceof Geometries collection) {
+            out.writeByte(GEOMETRIES);
+            out.writeBoolean(collection.hasBVH());
+            List<Intersectable> items = collection.getGeometries();
+            out.writeInt(items.size());
+            for (Intersectable item : items)
+                writeGeometry(out, item, materials);
+            if (collection.hasBVH()) collection.writeBVH(out);
+            return;
+        }
+
+        // the more specific classes are checked first
+        if (geometry instanceof Sphere sphere) {
+            writeHeader(out, SPHERE, sphere, materials);
+            writePoint(out, sphere.getCenter());
+            out.writeDouble(sphere.getRadius());
+        } else if (geometry instanceof Plane plane) {
+            writeHeader(out, PLANE, plane, materials);
+            writePoint(out, plane.getQ0());
+            writePoint(out, plane.getNormal());
+        } else if (geometry instanceof Triangle triangle) {
+            writeHeader(out, TRIANGLE, triangle, materials);
+            for (Point vertex : triangle.getVertices())
+                writePoint(out, vertex);
+        } else if (geometry instanceof Polygon polygon) {
+            writeHeader(out, POLYGON, polygon, materials);
+            out.writeInt(polygon.getVertices().size());
+            for (Point vertex : polygon.getVertices())
+                writePoint(out, vertex);
+        } else if (geometry instanceof Cylinder cylinder) {
+            writeHeader(out, CYLINDER, cylinder, materials);
+            writeRay(out, cylinder.getAxisRay());
+            out.writeDouble(cylinder.getRadius());
+            out.writeDouble(cylinder.getHeight());
+        } else if (geometry instanceof Tube tube) {
+            writeHeader(out, TUBE, tube, materials);
+            writeRay(out, tube.getAxisRay());
+            out.writeDouble(tube.getRadius());
+        } else if (geometry instanceof TriangleMesh mesh) {
+            writeHeader(out, MESH, mesh, materials);
+            mesh.write(out);
+        } else
+            throw new IllegalArgumentException("The scene cache does not support " + geometry.getClass().getName());
+    }
+
+    /**
+     * Writes the tag, the emission and the material of a geometry
+     *
+     * @param out       the output
+     * @param tag       the tag of the geometry type
+     * @param geometry  the geometry
+     * @param materials the indices of the materials
+     * @throws IOException if the output fails
+     */
+    private static void writeHeader(DataOutputStream out, byte tag, Geometry geometry,
+                                    Map<Material, Integer> materials) throws IOException {
+        out.writeByte(tag);
+        writeColor(out, geometry.getEmission());
+        out.writeInt(materials.get(geometry.getMaterial()));
+    }
+
+    /**
+     * Reads a collection of geometries (after its tag)
+     *
+     * @param buffer    the buffer
+     * @param materials the materials of the scene
+     * @return the collection
+     */
+    private static Geometries readGeometries(ByteBuffer buffer, Material[] materials) {
+        boolean bvh = buffer.get() != 0;
+        Intersectable[] items = new Intersectable[buffer.getInt()];
+        for (int i = 0; i < items.length; ++i)
+            items[i] = readGeometry(buffer, materials);
+        Geometries geometries = new Geometries(items);
+        return bvh ? geometries.readBVH(buffer) : geometries;
+    }
+
+    /**
+     * Reads a geometry (or a collection of geometries)
+     *
+     * @param buffer    the buffer
+     * @param materials the materials of the scene
+     * @return the geometry
+     */
+    private static Intersectable readGeometry(ByteBuffer buffer, Material[] materials) {
+        byte tag = buffer.get();
+        if (tag == GEOMETRIES)
+            return readGeometries(buffer, materials);
+
+        Color emission = readColor(buffer);
+        Material material = materials[buffer.getInt()];
+        Geometry geometry = switch (tag) {
+            case SPHERE -> new Sphere(readPoint(buffer), buffer.getDouble());
+            case PLANE -> new Plane(readPoint(buffer), readVector(buffer));
+            case TRIANGLE -> new Triangle(readPoint(buffer), readPoint(buffer), readPoint(buffer));
+            case POLYGON -> {
+                Point[] vertices = new Point[buffer.getInt()];
+                for (int i = 0; i < vertices.length; ++i)
+                    vertices[i] = readPoint(buffer);
+                yield new Polygon(vertices);
+            }
+            case CYLINDER -> {
+                Ray axis = readRay(buffer);
+                double radius = buffer.getDouble();
+                yield new Cylinder(radius, axis, buffer.getDouble());
+            }
+            case TUBE -> {
+                Ray axis = readRay(buffer);
+                yield new Tube(buffer.getDouble(), axis);
+            }
+            case MESH -> TriangleMesh.read(buffer);
+            default -> throw new IllegalArgumentException("Unknown geometry tag " + tag);
+        };
+        return geometry.setEmission(emission).setMaterial(material);
+    }
+
+    /**
+     * Writes a light source
+     *
+     * @param out   the output
+     * @param light the light source
+     * @throws IOException if the output fails
+     */
+    private static void writeLight(DataOutputStream out, LightSource light) throws IOException {
+        // a spotlight is a point light as well, so it is checked first
+        if (light instanceof SpotLight spot) {
+            out.writeByte(SPOT_LIGHT);
+            writePointLight(out, spot);
+            writePoint(out, spot.getDirection());
+            out.writeDouble(spot.getNarrowBeam());
+        } else if (light instanceof PointLight point) {
+            out.writeByte(POINT_LIGHT);
+            writePointLight(out, point);
+        } else if (light instanceof DirectionalLight directional) {
+            out.writeByte(DIRECTIONAL_LIGHT);
+            writeColor(out, directional.getIntensity());
+            writePoint(out, directional.getDirection());
+        } else
+            throw new IllegalArgumentException("The scene cache does not support " + light.getClass().getName());
+    }
+
+    /**
+     * Writes the fields of a point light
+     *
+     * @param out   the output
+     * @param light the point light
+     * @throws IOException if the output fails
+     */
+    private static void writePointLight(DataOutputStream out, PointLight light) throws IOException {
+        writeColor(out, light.getIntensity());
+        writePoint(out, light.getPosition());
+        out.writeDouble(light.getKc());
+        out.writeDouble(light.getKl());
+        out.writeDouble(light.getKq());
+    }
+
+    /**
+     * Reads a light source
+     *
+     * @param buffer the buffer
+     * @return the light source
+     */
+    private static LightSource readLight(ByteBuffer buffer) {
+        byte tag = buffer.get();
+        if (tag == DIRECTIONAL_LIGHT)
+            return new DirectionalLight(readColor(buffer), readVector(buffer));
+        if (tag != POINT_LIGHT && tag != SPOT_LIGHT)
+            throw new IllegalArgumentException("Unknown light tag " + tag);
+
+        Color intensity = readColor(buffer);
+        Point position = readPoint(buffer);
+        double kc = buffer.getDouble(), kl = buffer.getDouble(), kq = buffer.getDouble();
+        PointLight light = tag == POINT_LIGHT ? new PointLight(intensity, position)
+                : new SpotLight(intensity, position, readVector(buffer)).setNarrowBeam(buffer.getDouble());
+        return light.setKc(kc).setKl(kl).setKq(kq);
+    }
+
+    /**
+     * Writes a color
+     *
+     * @param out   the output
+     * @param color the color
+     * @throws IOException if the output fails
+     */
+    private static void writeColor(DataOutputStream out, Color color) throws IOException {
+        writeDouble3(out, color.getRgb());
+    }
+
+    /**
+     * Writes a triad of numbers
+     *
+     * @param out     the output
+     * @param double3 the triad
+     * @throws IOException if the output fails
+     */
+    private static void writeDouble3(DataOutputStream out, Double3 double3) throws IOException {
+        out.writeDouble(double3.getD1());
+        out.writeDouble(double3.getD2());
+        out.writeDouble(double3.getD3());
+    }
+
+    /**
+     * Writes a point (or a vector)
+     *
+     * @param out   the output
+     * @param point the point
+     * @throws IOException if the output fails
+     */
+    private static void writePoint(DataOutputStream out, Point point) throws IOException {
+        out.writeDouble(point.getX());
+        out.writeDouble(point.getY());
+        out.writeDouble(point.getZ());
+    }
+
+    /**
+     * Writes a ray
+     *
+     * @param out the output
+     * @param ray the ray
+     * @throws IOException if the output fails
+     */
+    private static void writeRay(DataOutputStream out, Ray ray) throws IOException {
+        writePoint(out, ray.getP0());
+        writePoint(out, ray.getDir());
+    }
+
+    /**
+     * Reads a color
+     *
+     * @param buffer the buffer
+     * @return the color
+     */
+    private static Color readColor(ByteBuffer buffer) {
+        return new Color(buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+    }
+
+    /**
+     * Reads a triad of numbers
+     *
+     * @param buffer the buffer
+     * @return the triad
+     */
+    private static Double3 readDouble3(ByteBuffer buffer) {
+        return new Double3(buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+    }
+
+    /**
+     * Reads a point
+     *
+     * @param buffer the buffer
+     * @return the point
+     */
+    private static Point readPoint(ByteBuffer buffer) {
+        return new Point(buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+    }
+
+    /**
+     * Reads a vector
+     *
+     * @param buffer the buffer
+     * @return the vector
+     */
+    private static Vector readVector(ByteBuffer buffer) {
+        return new Vector(buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+    }
+
+    /**
+     * Reads a ray
+     *
+     * @param buffer the buffer
+     * @return the ray
+     */
+    private static Ray readRay(ByteBuffer buffer) {
+        return new Ray(readPoint(buffer), readVector(buffer));
+    }
+}
@@ -0,0 +1,31 @@
+package scene;
+
+import renderer.Camera;
+
+/**
+ * The SceneDescription class holds what is read from a scene description file -
+ * the scene and the camera which views it.
+ */
+public class SceneDescription {
+
+    /**
+     * The scene
+     */
+    public final Scene scene;
+
+    /**
+     * The camera, ready to render the scene, or null if the file does not describe a camera
+     */
+    public final Camera camera;
+
+    /**
+     * Constructs a scene description.
+     *
+     * @param scene  the scene
+     * @param camera the camera, or null if there is none
+     */
+    public SceneDescription(Scene scene, Camera camera) {
+        this.scene = scene;
+        this.camera = camera;
+    }
+}
@@ -0,0 +1,26 @@
+package scene;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of loading a scene file - a scene description (see {@link XmlSceneParser#parse}),
+ * a scene cache (see {@link SceneCache#read}) or an OBJ model (see {@link ObjLoader#load(java.nio.file.Path)}).
+ * Like all the events of the renderer it costs nothing when no recording is running.
+ */
+@Name("raytracer.SceneLoad")
+@Label("Scene Load")
+@Category({"Ray Tracer", "Scene"})
+@Description("Loading of a scene description, scene cache or OBJ model file")
+final class SceneLoadEvent extends jdk.jfr.Event {
+
+    @Label("File")
+    String file;
+
+    @Label("File Size")
+    @DataAmount
+    long size;
+}
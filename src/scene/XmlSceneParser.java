@@ -0,0 +1,451 @@
+package scene;
+
+import geometries.*;
+import lighting.AmbientLight;
+import lighting.DirectionalLight;
+import lighting.PointLight;
+import lighting.SpotLight;
+import primitives.*;
+import renderer.Camera;
+import renderer.ImageWriter;
+import renderer.RayTracerBasic;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parser of XML scene description files.
+ * <p>
+ * The file is read as a stream of elements in a single pass (StAX), and every element is turned into
+ * its object as soon as it is read, so no document tree is kept in memory. Numbers are written as
+ * attributes, and points, vectors and colors as three numbers separated by spaces. For example:
+ * <pre>{@code
+ * <scene name="example" background-color="75 127 90" max-level="10" min-k="0.001">
+ *     <ambient-light color="255 191 191" k="0.1"/>
+ *     <camera position="0 0 1000" to="0 0 -1" up="0 1 0" vp-distance="1000" vp-size="200 200">
+ *         <image name="example" width="800" height="800"/>
+ *     </camera>
+ *     <materials>
+ *         <material id="shiny" kd="0.5" ks="0.5" shininess="100"/>
+ *     </materials>
+ *     <lights>
+ *         <directional-light color="100 100 100" direction="1 -1 -1"/>
+ *         <point-light color="500 300 0" position="-50 50 100" kc="1" kl="0.0005" kq="0.0005"/>
+ *         <spot-light color="500 300 0" position="50 50 100" direction="-1 -1 -2" kl="0.001" narrow-beam="10"/>
+ *     </lights>
+ *     <geometries bvh="true">
+ *         <sphere center="0 0 -100" radius="50" emission="0 0 100" material="shiny"/>
+ *         <triangle p0="-100 0 -100" p1="0 100 -100" p2="-100 100 -100">
+ *             <material kd="0.8" kt="0.3"/>
+ *         </triangle>
+ *         <polygon vertices="0 0 -200  100 0 -200  100 100 -200  0 100 -200"/>
+ *         <plane point="0 -50 0" normal="0 1 0"/>
+ *         <tube radius="5" origin="0 0 -300" direction="0 1 0"/>
+ *         <cylinder radius="5" origin="50 0 -300" direction="0 1 0" height="40"/>
+ *         <mesh file="model.obj" emission="20 20 20" material="shiny"/>
+ *         <geometries> ... </geometries>
+ *     </geometries>
+ * </scene>
+ * }</pre>
+ * A material is either given as a child element of its geometry or referred to by the id of a material
+ * defined under {@code <materials>}. Mesh files (Wavefront OBJ) are relative to the scene file.
+ * A geometries element with {@code bvh="true"} is compiled into a bounding volume hierarchy when it ends.
+ * The recursion limits of the reflected and refracted rays ({@code max-level} and {@code min-k}) are optional,
+ * with the defaults of {@link Scene}.
+ */
+public final class XmlSceneParser {
+
+    private final Path path;
+    private final XMLStreamReader reader;
+
+    private Scene scene;
+    private Camera camera;
+    private final Map<String, Material> materials = new HashMap<>();
+    /**
+     * The objects of the open elements - the innermost last
+     */
+    private final Deque<Object> open = new ArrayDeque<>();
+    /**
+     * The open geometries elements which are compiled into a hierarchy when they end
+     */
+    private final Set<Geometries> compiled = new HashSet<>();
+
+    /**
+     * Constructs a parser of a file
+     *
+     * @param path   the path of the file
+     * @param reader the XML stream of the file
+     */
+    private XmlSceneParser(Path path, XMLStreamReader reader) {
+        this.path = path;
+        this.reader = reader;
+    }
+
+    /**
+     * Parses a scene description file
+     *
+     * @param path the path of the file
+     * @return the scene and the camera described in the file
+     * @throws IOException if the file cannot be read or is not a legal scene description
+     */
+    public static SceneDescription parse(Path path) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        SceneLoadEvent event = new SceneLoadEvent();
+        event.begin();
+        try (InputStream in = Files.newInputStream(path)) {
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            try {
+                return new XmlSceneParser(path, reader).read();
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException(path + ": " + e.getMessage(), e);
+        } finally {
+            if (event.shouldCommit()) {
+                event.file = path.toString();
+                event.size = path.toFile().length();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Reads the whole file
+     *
+     * @return the scene and the camera described in the file
+     * @throws XMLStreamException if the file is not legal XML
+     * @throws IOException        if the file is not a legal scene description
+     */
+    private SceneDescription read() throws XMLStreamException, IOException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                try {
+                    open.push(start(reader.getLocalName()));
+                } catch (IllegalArgumentException e) { // thrown by the constructors of illegal objects
+                    throw error(e.getMessage());
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                Object element = open.pop();
+                if (element instanceof Geometries geometries && compiled.remove(geometries))
+                    geometries.buildBVH();
+            }
+        }
+        if (scene == null) throw error("The file does not describe a scene");
+        if (camera != null) camera.setRayTracer(new RayTracerBasic(scene));
+        return new SceneDescription(scene, camera);
+    }
+
+    /**
+     * Handles the start of an element
+     *
+     * @param name the name of the element
+     * @return the object of the element, kept until its end
+     * @throws IOException if the element is not legal in its place
+     */
+    private Object start(String name) throws IOException {
+        Object parent = open.peek();
+        if (scene == null) {
+            if (!name.equals("scene")) throw error("The root element must be <scene>");
+            String fileName = path.getFileName().toString();
+            scene = new Scene(attribute("name", fileName));
+            if (has("background-color")) scene.setBackground(color("background-color"));
+            if (has("max-level")) scene.setMaxLevel(integer("max-level"));
+            if (has("min-k")) scene.setMinK(number("min-k"));
+            return scene;
+        }
+
+        switch (name) {
+            case "ambient-light" -> {
+                expect(parent == scene, name);
+                scene.setAmbientLight(new AmbientLight(color("color"), has("k") ? double3("k") : Double3.ONE));
+                return name;
+            }
+            case "camera" -> {
+                expect(parent == scene, name);
+                camera = new Camera(point("position"), vector("to"), vector("up"))
+                        .setVPDistance(number("vp-distance"));
+                double[] size = numbers("vp-size", 2);
+                camera.setVPSize(size[0], size[1]);
+                if (has("aperture-radius")) camera.setApertureRadius(number("aperture-radius"));
+                if (has("focal-distance")) camera.setFocalDistance(number("focal-distance"));
+                return camera;
+            }
+            case "image" -> {
+                expect(parent == camera && camera != null, name);
+                camera.setImageWriter(new ImageWriter(attribute("name", null),
+                        integer("width"), integer("height")));
+                return name;
+            }
+            case "materials", "lights" -> {
+                expect(parent == scene, name);
+                return name;
+            }
+            case "material" -> {
+                Material material = new Material();
+                if (has("kd")) material.setKd(double3("kd"));
+                if (has("ks")) material.setKs(double3("ks"));
+                if (has("kr")) material.setKr(double3("kr"));
+                if (has("kt")) material.setKt(double3("kt"));
+                if (has("shininess")) material.setShininess(integer("shininess"));
+                if ("materials".equals(parent))
+                    materials.put(attribute("id", null), material);
+                else if (parent instanceof Geometry geometry)
+                    geometry.setMaterial(material);
+                else
+                    throw error("<material> must be in <materials> or in a geometry");
+                return material;
+            }
+            case "directional-light" -> {
+                expect("lights".equals(parent), name);
+                scene.lights.add(new DirectionalLight(color("color"), vector("direction")));
+                return name;
+            }
+            case "point-light", "spot-light" -> {
+                expect("lights".equals(parent), name);
+                PointLight light = name.equals("point-light") ? new PointLight(color("color"), point("position"))
+                        : new SpotLight(color("color"), point("position"), vector("direction"))
+                        .setNarrowBeam(has("narrow-beam") ? number("narrow-beam") : 1);
+                if (has("kc")) light.setKc(number("kc"));
+                if (has("kl")) light.setKl(number("kl"));
+                if (has("kq")) light.setKq(number("kq"));
+                scene.lights.add(light);
+                return light;
+            }
+            case "geometries" -> {
+                Geometries geometries;
+                if (parent == scene)
+                    geometries = scene.geometries;
+                else if (parent instanceof Geometries outer)
+                    outer.add(geometries = new Geometries());
+                else
+                    throw error("<geometries> must be in <scene> or in <geometries>");
+                if ("true".equals(attribute("bvh", "false"))) compiled.add(geometries);
+                return geometries;
+            }
+            default -> {
+                if (!(parent instanceof Geometries geometries))
+                    throw error("Unknown element <" + name + "> or a geometry outside of <geometries>");
+                Geometry geometry = geometry(name);
+                if (has("emission")) geometry.setEmission(color("emission"));
+                if (has("material")) {
+                    Material material = materials.get(attribute("material", null));
+                    if (material == null) throw error("Unknown material " + attribute("material", null));
+                    geometry.setMaterial(material);
+                }
+                geometries.add(geometry);
+                return geometry;
+            }
+        }
+    }
+
+    /**
+     * Creates a geometry from the attributes of its element
+     *
+     * @param name the name of the element
+     * @return the geometry
+     * @throws IOException if the element is not a geometry or its attributes are illegal
+     */
+    private Geometry geometry(String name) throws IOException {
+        return switch (name) {
+            case "sphere" -> new Sphere(point("center"), number("radius"));
+            case "triangle" -> new Triangle(point("p0"), point("p1"), point("p2"));
+            case "polygon" -> {
+                String[] values = split("vertices");
+                if (values.length % 3 != 0) throw error("The vertices of a polygon must be triads of numbers");
+                Point[] vertices = new Point[values.length / 3];
+                for (int i = 0; i < vertices.length; ++i)
+                    vertices[i] = new Point(parse(values[3 * i]), parse(values[3 * i + 1]), parse(values[3 * i + 2]));
+                yield new Polygon(vertices);
+            }
+            case "plane" -> has("normal") ? new Plane(point("point"), vector("normal"))
+                    : new Plane(point("p0"), point("p1"), point("p2"));
+            case "tube" -> new Tube(number("radius"), new Ray(point("origin"), vector("direction")));
+            case "cylinder" ->
+                    new Cylinder(number("radius"), new Ray(point("origin"), vector("direction")), number("height"));
+            case "mesh" -> ObjLoader.load(path.resolveSibling(attribute("file", null)));
+            default -> throw error("Unknown element <" + name + ">");
+        };
+    }
+
+    /**
+     * Checks that an element is in its place
+     *
+     * @param legal whether the element is in its place
+     * @param name  the name of the element
+     * @throws IOException if the element is not in its place
+     */
+    private void expect(boolean legal, String name) throws IOException {
+        if (!legal) throw error("<" + name + "> is out of its place");
+    }
+
+    /**
+     * Checks whether the current element has an attribute
+     *
+     * @param name the name of the attribute
+     * @return true if the attribute exists
+     */
+    private boolean has(String name) {
+        return reader.getAttributeValue(null, name) != null;
+    }
+
+    /**
+     * Returns an attribute of the current element
+     *
+     * @param name         the name of the attribute
+     * @param defaultValue the value of a missing attribute, or null if the attribute is required
+     * @return the value of the attribute
+     * @throws IOException if a required attribute is missing
+     */
+    private String attribute(String name, String defaultValue) throws IOException {
+        String value = reader.getAttributeValue(null, name);
+        if (value != null) return value;
+        if (defaultValue == null) throw error("Missing attribute " + name);
+        return defaultValue;
+    }
+
+    /**
+     * Splits a required attribute of the current element into the words separated by spaces
+     *
+     * @param name the name of the attribute
+     * @return the words of the attribute
+     * @throws IOException if the attribute is missing
+     */
+    private String[] split(String name) throws IOException {
+        return attribute(name, null).trim().split("\\s+");
+    }
+
+    /**
+     * Parses a number
+     *
+     * @param value the text of the number
+     * @return the number
+     * @throws IOException if the text is not a number
+     */
+    private double parse(String value) throws IOException {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw error("Illegal number " + value);
+        }
+    }
+
+    /**
+     * Parses a required attribute of the current element as a fixed count of numbers
+     *
+     * @param name  the name of the attribute
+     * @param count the count of the numbers
+     * @return the numbers
+     * @throws IOException if the attribute is missing or is not the given count of numbers
+     */
+    private double[] numbers(String name, int count) throws IOException {
+        String[] values = split(name);
+        if (values.length != count) throw error("Attribute " + name + " must have " + count + " numbers");
+        double[] numbers = new double[count];
+        for (int i = 0; i < count; ++i)
+            numbers[i] = parse(values[i]);
+        return numbers;
+    }
+
+    /**
+     * Parses a required number attribute of the current element
+     *
+     * @param name the name of the attribute
+     * @return the number
+     * @throws IOException if the attribute is missing or illegal
+     */
+    private double number(String name) throws IOException {
+        return numbers(name, 1)[0];
+    }
+
+    /**
+     * Parses a required integer attribute of the current element
+     *
+     * @param name the name of the attribute
+     * @return the integer
+     * @throws IOException if the attribute is missing or is not an integer
+     */
+    private int integer(String name) throws IOException {
+        String value = attribute(name, null).trim();
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw error("Illegal integer " + value);
+        }
+    }
+
+    /**
+     * Parses a required triad attribute of the current element - a single number stands for three equal ones
+     *
+     * @param name the name of the attribute
+     * @return the triad
+     * @throws IOException if the attribute is missing or illegal
+     */
+    private Double3 double3(String name) throws IOException {
+        String[] values = split(name);
+        if (values.length == 1) return new Double3(parse(values[0]));
+        double[] d = numbers(name, 3);
+        return new Double3(d[0], d[1], d[2]);
+    }
+
+    /**
+     * Parses a required point attribute of the current element
+     *
+     * @param name the name of the attribute
+     * @return the point
+     * @throws IOException if the attribute is missing or illegal
+     */
+    private Point point(String name) throws IOException {
+        double[] d = numbers(name, 3);
+        return new Point(d[0], d[1], d[2]);
+    }
+
+    /**
+     * Parses a required vector attribute of the current element
+     *
+     * @param name the name of the attribute
+     * @return the vector
+     * @throws IOException if the attribute is missing or illegal
+     */
+    private Vector vector(String name) throws IOException {
+        double[] d = numbers(name, 3);
+        return new Vector(d[0], d[1], d[2]);
+    }
+
+    /**
+     * Parses a required color attribute of the current element
+     *
+     * @param name the name of the attribute
+     * @return the color
+     * @throws IOException if the attribute is missing or illegal
+     */
+    private Color color(String name) throws IOException {
+        double[] d = numbers(name, 3);
+        return new Color(d[0], d[1], d[2]);
+    }
+
+    /**
+     * Creates an exception for an illegal element, with the location of the element
+     *
+     * @param message the description of the problem
+     * @return the exception
+     */
+    private IOException error(String message) {
+        return new IOException(path + ":" + reader.getLocation().getLineNumber() + ": " + message);
+    }
+}
@@ -0,0 +1,324 @@
+package test;
+
+import renderer.BlackBoard;
+import renderer.Camera;
+import renderer.CostMap;
+import renderer.ImageEncoder;
+import renderer.ImageWriter;
+import renderer.RayTracerBasic;
+import renderer.RayTracerSuperSampling;
+import renderer.Sampler;
+import scene.Scene;
+import scene.SceneDescription;
+import scene.XmlSceneParser;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static java.lang.System.err;
+import static java.lang.System.out;
+
+/**
+ * Command line render driver - renders a scene description file (see {@link XmlSceneParser})
+ * into an image in the "images" folder of the working directory, and prints how long every phase took.
+ * <p>
+ * Usage:
+ * <pre>  java test.Render scene.xml [options]</pre>
+ * Options:
+ * <pre>
+ *   --size WIDTH HEIGHT   the image resolution (default: the image of the camera in the file)
+ *   --output NAME         the image name (default: the image of the camera in the file, or the scene name)
+ *   --format png|ppm|pfm  the image file format (default: png)
+ *   --tracer basic|super  the ray tracer (default: basic)
+ *   --beam N              the samples per pixel side of the super sampling tracer (default: 9)
+ *   --adaptive            use adaptive super sampling
+ *   --sampler NAME        the sampler of the aperture points of every pixel - grid, halton, sobol or blue
+ *                         (default: the same jittered grid for all the pixels)
+ *   --seed N              the seed of the samples - the same seed renders the same image with any number
+ *                         of threads (default: 0)
+ *   --frame N             the frame number of an animation, sampled differently from the other frames (default: 0)
+ *   --max-level N         the maximal recursion level of reflected and refracted rays (default: the scene's)
+ *   --min-k K             the coefficient below which reflected and refracted rays are neglected (default: the scene's)
+ *   --roulette THRESHOLD  terminate reflected and refracted rays whose coefficient is below THRESHOLD by Russian
+ *                         roulette, unbiased, instead of neglecting them below the minimal coefficient
+ *   --no-shadow-cache     do not test the last occluder of every light first by the shadow rays
+ *   --threads N           the number of render threads (default: all the cores, 1 renders in the main thread)
+ *   --tile N              the tile size of multi-threaded rendering (default: 32)
+ *   --no-bvh              do not build a bounding volume hierarchy for the scene
+ *   --progressive STEP    render progressively from every STEP-th pixel (a power of 2), writing a preview
+ *                         image after every pass
+ *   --budget SECONDS      stop rendering when the time budget expires, keeping the image rendered so far
+ *                         (progressively, from every 8th pixel unless --progressive is given)
+ *   --converge VARIANCE   add samples of the super sampling tracer to every pixel until the variance of its mean
+ *                         luminance is at most VARIANCE, the whole beam is sampled or the budget expires
+ *   --min-samples N       the samples added to a pixel in every round of --converge (default: 4)
+ *   --statistics FILE     write the samples and the variance of every pixel of --converge (CSV)
+ *   --ray-stats           count the rays by kind and the intersection tests of every geometry type, and print them
+ *   --heatmap FILE        record the time and the rays of every pixel, write them as heatmap images
+ *                         (NAME-time and NAME-rays) and as comma separated values to FILE
+ * </pre>
+ */
+public final class Render {
+
+    /**
+     * The coarse step of progressive rendering within a time budget, unless another step is given
+     */
+    private static final int BUDGET_STEP = 8;
+
+    private Path file;
+    private int width;
+    private int height;
+    private String output;
+    private ImageEncoder format = ImageEncoder.PNG;
+    private boolean superSampling;
+    private int beam = 9;
+    private boolean adaptive;
+    private Sampler sampler;
+    private long seed = BlackBoard.DEFAULT_SEED;
+    private int frame;
+    private int maxLevel;
+    private double minK = -1;
+    private double roulette;
+    private boolean shadowCache = true;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int tile = 32;
+    private boolean bvh = true;
+    private int progressiveStep = 1;
+    private double budget;
+    private double maxVariance = -1;
+    private int minSamples = 4;
+    private Path statistics;
+    private boolean rayStatistics;
+    private Path heatmap;
+
+    /**
+     * Don't let anyone instantiate this class from outside.
+     */
+    private Render() {
+    }
+
+    /**
+     * Renders a scene description file
+     *
+     * @param args the file and the options
+     */
+    public static void main(String[] args) {
+        Render render = new Render();
+        try {
+            render.parseArguments(args);
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println("Usage: java test.Render scene.xml [--size WIDTH HEIGHT] [--output NAME] [--format png|ppm|pfm]"
+                    + " [--tracer basic|super] [--beam N] [--adaptive] [--sampler NAME] [--seed N] [--frame N]"
+                    + " [--max-level N] [--min-k K] [--roulette THRESHOLD] [--no-shadow-cache] [--threads N]"
+                    + " [--tile N] [--no-bvh] [--progressive STEP] [--budget SECONDS] [--converge VARIANCE]"
+                    + " [--min-samples N] [--statistics FILE] [--ray-stats] [--heatmap FILE]");
+            System.exit(2);
+        }
+        try {
+            render.run();
+        } catch (IOException | IllegalArgumentException e) {
+            err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads the command line arguments into the options
+     *
+     * @param args the command line arguments
+     * @throws IllegalArgumentException if the arguments are illegal
+     */
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; ++i) {
+            String arg = args[i];
+            switch (arg) {
+                case "--size" -> {
+                    width = positive(args, ++i);
+                    height = positive(args, ++i);
+                }
+                case "--output" -> output = value(args, ++i);
+                case "--format" -> format = ImageEncoder.of(value(args, ++i));
+                case "--tracer" -> {
+                    String tracer = value(args, ++i);
+                    if (!tracer.equals("basic") && !tracer.equals("super"))
+                        throw new IllegalArgumentException("Unknown tracer " + tracer);
+                    superSampling = tracer.equals("super");
+                }
+                case "--beam" -> beam = positive(args, ++i);
+                case "--adaptive" -> adaptive = true;
+                case "--sampler" -> sampler = Sampler.of(value(args, ++i));
+                case "--seed" -> seed = integer(args, ++i);
+                case "--frame" -> {
+                    long value = integer(args, ++i);
+                    if (value < 0 || value > Integer.MAX_VALUE)
+                        throw new IllegalArgumentException("Illegal frame " + value);
+                    frame = (int) value;
+                }
+                case "--max-level" -> maxLevel = positive(args, ++i);
+                case "--min-k" -> minK = number(args, ++i);
+                case "--roulette" -> roulette = number(args, ++i);
+                case "--no-shadow-cache" -> shadowCache = false;
+                case "--threads" -> threads = positive(args, ++i);
+                case "--tile" -> tile = positive(args, ++i);
+                case "--no-bvh" -> bvh = false;
+                case "--progressive" -> progressiveStep = positive(args, ++i);
+                case "--budget" -> {
+                    budget = number(args, ++i);
+                    if (budget == 0) throw new IllegalArgumentException("The time budget must be positive");
+                }
+                case "--converge" -> {
+                    maxVariance = number(args, ++i);
+                    superSampling = true;
+                }
+                case "--min-samples" -> minSamples = positive(args, ++i);
+                case "--statistics" -> statistics = Path.of(value(args, ++i));
+                case "--ray-stats" -> rayStatistics = true;
+                case "--heatmap" -> heatmap = Path.of(value(args, ++i));
+                default -> {
+                    if (arg.startsWith("--") || file != null)
+                        throw new IllegalArgumentException("Unknown argument " + arg);
+                    file = Path.of(arg);
+                }
+            }
+        }
+        if (file == null) throw new IllegalArgumentException("Missing scene file");
+    }
+
+    /**
+     * Returns the value of an option
+     *
+     * @param args  the command line arguments
+     * @param index the index of the value
+     * @return the value
+     * @throws IllegalArgumentException if the value is missing
+     */
+    private static String value(String[] args, int index) {
+        if (index >= args.length) throw new IllegalArgumentException("Missing value of " + args[index - 1]);
+        return args[index];
+    }
+
+    /**
+     * Returns the positive integer value of an option
+     *
+     * @param args  the command line arguments
+     * @param index the index of the value
+     * @return the value
+     * @throws IllegalArgumentException if the value is missing or is not a positive integer
+     */
+    private static int positive(String[] args, int index) {
+        String value = value(args, index);
+        try {
+            int number = Integer.parseInt(value);
+            if (number > 0) return number;
+        } catch (NumberFormatException ignore) {
+        }
+        throw new IllegalArgumentException("Illegal value " + value + " - a positive integer is expected");
+    }
+
+    /**
+     * Returns the integer value of an option
+     *
+     * @param args  the command line arguments
+     * @param index the index of the value
+     * @return the value
+     * @throws IllegalArgumentException if the value is missing or is not an integer
+     */
+    private static long integer(String[] args, int index) {
+        String value = value(args, index);
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Illegal value " + value + " - an integer is expected");
+        }
+    }
+
+    /**
+     * Returns the non-negative number value of an option
+     *
+     * @param args  the command line arguments
+     * @param index the index of the value
+     * @return the value
+     * @throws IllegalArgumentException if the value is missing or is not a non-negative number
+     */
+    private static double number(String[] args, int index) {
+        String value = value(args, index);
+        try {
+            double number = Double.parseDouble(value);
+            if (number >= 0 && number < Double.POSITIVE_INFINITY) return number;
+        } catch (NumberFormatException ignore) {
+        }
+        throw new IllegalArgumentException("Illegal value " + value + " - a non-negative number is expected");
+    }
+
+    /**
+     * Loads the scene, renders it and writes the image, timing every phase
+     *
+     * @throws IOException              if the scene file cannot be read
+     * @throws IllegalArgumentException if the scene has no camera or image resolution
+     */
+    private void run() throws IOException {
+        long start = System.nanoTime();
+        SceneDescription description = XmlSceneParser.parse(file);
+        long loaded = System.nanoTime();
+
+        Scene scene = description.scene;
+        if (bvh && !scene.geometries.hasBVH()) scene.geometries.buildBVH();
+        long built = System.nanoTime();
+        if (maxLevel > 0) scene.setMaxLevel(maxLevel);
+        if (minK >= 0) scene.setMinK(minK);
+
+        Camera camera = description.camera;
+        if (camera == null) throw new IllegalArgumentException(file + " does not describe a camera");
+        ImageWriter image = camera.getImageWriter();
+        if (output == null) output = image != null ? image.getImageName() : scene.name;
+        if (width == 0) {
+            if (image == null) throw new IllegalArgumentException(file + " does not describe an image - use --size");
+            width = image.getNx();
+            height = image.getNy();
+        }
+        camera.setImageWriter(new ImageWriter(output, width, height).setEncoder(format));
+
+        RayTracerBasic tracer = superSampling
+                ? new RayTracerSuperSampling(scene, camera, beam).setAdaptiveSuperSampling(adaptive)
+                        .setSampler(sampler).setSeed(seed, frame)
+                : new RayTracerBasic(scene);
+        camera.setRayTracer(tracer.setRussianRoulette(roulette).setShadowCache(shadowCache)
+                        .setCollectStatistics(rayStatistics || heatmap != null))
+                .setRecordCosts(heatmap != null);
+
+        long renderStart = System.nanoTime();
+        if (maxVariance >= 0)
+            camera.renderImageConverging(threads, minSamples, maxVariance, budget, 0);
+        else if (progressiveStep > 1 || budget > 0)
+            camera.renderImageProgressive(threads, progressiveStep > 1 ? progressiveStep : BUDGET_STEP, budget,
+                    progressiveStep > 1, 0);
+        else if (threads == 1) camera.renderImage();
+        else camera.renderImageWithTiles(threads, tile, 0);
+        long rendered = System.nanoTime();
+        camera.writeToImage();
+        long encoded = System.nanoTime();
+        if (statistics != null && camera.getSampleStatistics() != null)
+            camera.getSampleStatistics().write(statistics);
+        if (heatmap != null) {
+            CostMap costs = camera.getCostMap();
+            costs.writeHeatmap(output + "-time", false);
+            costs.writeHeatmap(output + "-rays", true);
+            costs.write(heatmap);
+        }
+
+        double renderSeconds = (rendered - renderStart) / 1e9;
+        out.printf("Rendered %s.%s (%d x %d, %s, %d thread%s)%n", output, format.getExtension(), width, height,
+                superSampling ? (adaptive ? "adaptive " : "") + "super sampling " + beam + "x" + beam : "basic",
+                threads, threads == 1 ? "" : "s");
+        out.printf("  scene load          %10.1f ms%n", (loaded - start) / 1e6);
+        out.printf("  acceleration build  %10.1f ms%n", (built - loaded) / 1e6);
+        out.printf("  render              %10.1f ms%s%n", renderSeconds * 1e3,
+                camera.isStopped() ? " (stopped at the time budget)" : "");
+        out.printf("  encode              %10.1f ms%n", (encoded - rendered) / 1e6);
+        out.printf("  total               %10.1f ms%n", (encoded - start) / 1e6);
+        out.printf("  camera rays %d, %.0f rays/s%n", tracer.getTracedRays(), tracer.getTracedRays() / renderSeconds);
+        if (rayStatistics)
+            out.print(camera.getRayStatistics().toString().indent(2));
+    }
+}
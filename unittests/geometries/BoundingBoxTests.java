@@ -0,0 +1,78 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for geometries.BoundingBox class
+ */
+class BoundingBoxTests {
+
+    private final BoundingBox box = new BoundingBox(new Point(-1, -1, -1), new Point(1, 1, 1));
+
+    /**
+     * Test method for {@link BoundingBox#intersect(Ray, double)}.
+     */
+    @Test
+    void testIntersect() {
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: Ray crosses the box
+        assertEquals(4, box.intersect(new Ray(new Point(-5, 0, 0), new Vector(1, 0, 0)), Double.POSITIVE_INFINITY),
+                1e-10, "Wrong entry distance");
+
+        // TC02: Ray starts inside the box
+        assertEquals(0, box.intersect(new Ray(Point.ZERO, new Vector(1, 2, 3)), Double.POSITIVE_INFINITY),
+                "Ray inside the box enters it at 0");
+
+        // TC03: Ray misses the box
+        assertFalse(box.intersects(new Ray(new Point(-5, 3, 0), new Vector(1, 0, 0)), Double.POSITIVE_INFINITY),
+                "Ray passes beside the box");
+
+        // TC04: Box is behind the ray
+        assertFalse(box.intersects(new Ray(new Point(5, 0, 0), new Vector(1, 0, 0)), Double.POSITIVE_INFINITY),
+                "Box is behind the ray");
+
+        // TC05: Box is beyond the max distance
+        assertFalse(box.intersects(new Ray(new Point(-5, 0, 0), new Vector(1, 0, 0)), 3),
+                "Box is beyond the distance");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC10: Ray parallel to an axis inside the slab
+        assertTrue(box.intersects(new Ray(new Point(0, 0, -5), new Vector(0, 0, 1)), Double.POSITIVE_INFINITY),
+                "Axis parallel ray through the box");
+
+        // TC11: Ray parallel to an axis outside the slab
+        assertFalse(box.intersects(new Ray(new Point(0, 2, -5), new Vector(0, 0, 1)), Double.POSITIVE_INFINITY),
+                "Axis parallel ray beside the box");
+
+        // TC12: Flat box crossed by a ray
+        BoundingBox flat = new BoundingBox(new Point(-1, -1, 0), new Point(1, 1, 0));
+        assertTrue(flat.intersects(new Ray(new Point(0, 0, -1), new Vector(0, 0, 1)), Double.POSITIVE_INFINITY),
+                "Ray crosses a flat box");
+    }
+
+    /**
+     * Test method for {@link BoundingBox#union(BoundingBox)}.
+     */
+    @Test
+    void testUnion() {
+        // ============ Equivalence Partitions Tests ==============
+        BoundingBox union = box.union(new BoundingBox(new Point(2, 0, 0), new Point(3, 4, 0)));
+
+        // TC01: United box contains both boxes
+        assertEquals(-1, union.getMin(0), "Wrong minimal x");
+        assertEquals(3, union.getMax(0), "Wrong maximal x");
+        assertEquals(4, union.getMax(1), "Wrong maximal y");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC10: United with an infinite box
+        assertTrue(box.union(BoundingBox.INFINITE).isInfinite(), "Union with infinite box must be infinite");
+    }
+}
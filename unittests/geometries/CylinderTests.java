@@ -11,6 +11,7 @@ import primitives.Ray;
 import primitives.Vector;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Unit tests for geometries.Cylinder class
@@ -53,4 +54,25 @@ class CylinderTests {
         assertEquals(cl.getNormal(new Point(0, 1, 2)), new Vector(0, 1, 0), "bad normal to Cylinder");
     }
 
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link Cylinder#getBoundingBox()}.
+     */
+    @Test
+    void getBoundingBox() {
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01 - axis parallel to y: the bases extend by the radius along x and z
+        BoundingBox box = new Cylinder(2, new Ray(new Point(0, -2, 0), new Vector(0, 1, 0)), 3).getBoundingBox();
+        assertEquals(-2, box.getMin(0), 1e-10, "bad minimal x of Cylinder box");
+        assertEquals(-2, box.getMin(1), 1e-10, "bad minimal y of Cylinder box");
+        assertEquals(1, box.getMax(1), 1e-10, "bad maximal y of Cylinder box");
+        assertEquals(2, box.getMax(2), 1e-10, "bad maximal z of Cylinder box");
+
+        // =============== Boundary Values Tests ==================
+
+        //TC11 - the box of a tube is unbounded
+        assertTrue(new Tube(1, new Ray(Point.ZERO, new Vector(0, 1, 0))).getBoundingBox().isInfinite(),
+                "Tube box must be infinite");
+    }
+}
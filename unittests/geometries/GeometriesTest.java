@@ -1,12 +1,26 @@
 package geometries;
 
 import org.junit.jupiter.api.Test;
+import primitives.Double3;
+import primitives.Material;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Unit tests for geometries.Geometries class
@@ -86,4 +100,220 @@ class GeometriesTest {
         // TC02: outside distance
         assertNull(geometries.findGeoIntersectionsHelper(tRay, 1));
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link Geometries#buildBVH()}.
+     */
+    @Test
+    void buildBVH() {
+        Geometries geometries = new Geometries();
+        for (int i = 0; i < 10; ++i)
+            for (int j = 0; j < 10; ++j)
+                geometries.add(new Geometries(new Sphere(new Point(i * 3, j * 3, 0), 1),
+                        new Triangle(new Point(i * 3, j * 3, 5), new Point(i * 3 + 2, j * 3, 5),
+                                new Point(i * 3, j * 3 + 2, 5))));
+        geometries.add(new Plane(new Point(0, 0, 10), new Vector(0, 0, 1)));
+
+        List<Ray> rays = List.of(
+                new Ray(new Point(0.5, 0.5, -10), new Vector(0, 0, 1)),
+                new Ray(new Point(-5, 0, 0), new Vector(1, 0, 0)),
+                new Ray(new Point(-5, -5, -5), new Vector(1, 1, 0.5)),
+                new Ray(new Point(1.5, 1.5, -10), new Vector(0, 0, 1)),
+                new Ray(new Point(0, 0, 20), new Vector(0, 0, 1)));
+        List<Integer> expected = rays.stream().map(r -> size(geometries.findIntersections(r))).toList();
+
+        geometries.buildBVH();
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: The hierarchy finds the same intersections as the linear traversal
+        for (int i = 0; i < rays.size(); ++i)
+            assertEquals(expected.get(i), size(geometries.findIntersections(rays.get(i))),
+                    "Wrong number of intersection points with the hierarchy");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC10: Geometries added after building are intersected as well
+        geometries.add(new Sphere(new Point(0, 0, 20), 1));
+        assertEquals(2, size(geometries.findIntersections(new Ray(new Point(0, 0, 15), new Vector(0, 0, 1)))),
+                "Added geometry is not intersected");
+    }
+
+    /**
+     * Test method for {@link Geometries#writeBVH(DataOutput)} and {@link Geometries#readBVH(ByteBuffer)}.
+     */
+    @Test
+    void readBVH() throws IOException {
+        Geometries geometries = new Geometries();
+        Random random = new Random(3127);
+        for (int i = 0; i < 200; ++i)
+            geometries.add(new Sphere(new Point(50 * random.nextDouble(), 50 * random.nextDouble(),
+                    50 * random.nextDouble()), 0.5 + random.nextDouble()));
+        geometries.add(new Plane(new Point(0, 0, -10), new Vector(0, 0, 1)));
+        byte[] written = writeBVH(geometries.buildBVH());
+        Geometries restored = new Geometries(geometries.getGeometries().toArray(new Intersectable[0]))
+                .readBVH(ByteBuffer.wrap(written));
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: The restored hierarchy is the same as the built one
+        assertTrue(restored.hasBVH(), "The hierarchy was not restored");
+        assertArrayEquals(written, writeBVH(restored), "The restored hierarchy differs from the built one");
+
+        // TC02: The restored hierarchy finds the same closest intersections
+        for (int i = 0; i < 500; ++i) {
+            Ray ray = new Ray(new Point(25, 25, 100),
+                    new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+            assertSame(geometries.findClosestGeoIntersection(ray).geometry,
+                    restored.findClosestGeoIntersection(ray).geometry, "Wrong closest geometry");
+        }
+
+        // =============== Boundary Values Tests ==================
+
+        // TC10: A hierarchy of other geometries
+        Geometries other = new Geometries(new Sphere(new Point(0, 0, 0), 1));
+        assertThrows(IllegalArgumentException.class, () -> other.readBVH(ByteBuffer.wrap(written)),
+                "Restored a hierarchy of other geometries");
+
+        // TC11: Only unbounded geometries
+        Geometries plane = new Geometries(new Plane(new Point(0, 0, 0), new Vector(0, 0, 1))).buildBVH();
+        assertTrue(new Geometries(plane.getGeometries().get(0)).readBVH(ByteBuffer.wrap(writeBVH(plane))).hasBVH(),
+                "The hierarchy of unbounded geometries was not restored");
+
+        // TC12: A collection without a hierarchy
+        assertThrows(IllegalStateException.class, () -> writeBVH(other), "Wrote a missing hierarchy");
+    }
+
+    /**
+     * Writes the hierarchy of a collection of geometries into an array
+     *
+     * @param geometries the collection
+     * @return the written hierarchy
+     * @throws IOException if the output fails
+     */
+    private static byte[] writeBVH(Geometries geometries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        geometries.writeBVH(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Test method for {@link Geometries#findClosestGeoIntersection(Ray)}.
+     */
+    @Test
+    void findClosestGeoIntersection() {
+        Geometries geometries = new Geometries();
+        for (int i = 0; i < 10; ++i)
+            geometries.add(new Sphere(new Point(0, 0, i * 3), 1), new Sphere(new Point(3, 0, i * 3), 1));
+        Ray ray = new Ray(new Point(0, 0, 40), new Vector(0, 0, -1));
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: The closest of several intersected geometries
+        assertEquals(new Point(0, 0, 28), geometries.findClosestGeoIntersection(ray).point, "Wrong closest point");
+
+        // TC02: The same closest intersection with the hierarchy
+        geometries.buildBVH();
+        assertEquals(new Point(0, 0, 28), geometries.findClosestGeoIntersection(ray).point,
+                "Wrong closest point with the hierarchy");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC10: All the intersections are beyond the distance
+        assertNull(geometries.findClosestGeoIntersection(ray, 5), "Intersections beyond the distance");
+
+        // TC11: No geometry is intersected
+        assertNull(geometries.findClosestGeoIntersection(new Ray(new Point(10, 10, 10), new Vector(1, 0, 0))),
+                "No intersection points");
+    }
+
+    /**
+     * Test method for {@link Geometries#calcTransparency(Ray, double, Double3, double)}.
+     */
+    @Test
+    void calcTransparency() {
+        Material glass = new Material().setKt(0.5);
+        Geometries geometries = new Geometries(
+                new Sphere(new Point(0, 0, 2), 0.5).setMaterial(glass),
+                new Plane(new Point(0, 0, 4), new Vector(0, 0, 1)).setMaterial(glass),
+                new Sphere(new Point(0, 0, 6), 0.5));
+        Ray ray = new Ray(Point.ZERO, new Vector(0, 0, 1));
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: Transparent geometries only - both sphere intersections and the plane
+        assertEquals(new Double3(0.125), geometries.calcTransparency(ray, 5, Double3.ONE, 0.001),
+                "Wrong transparency through transparent geometries");
+
+        // TC02: An opaque geometry blocks the ray
+        assertEquals(Double3.ZERO, geometries.calcTransparency(ray, 10, Double3.ONE, 0.001),
+                "Opaque geometry must block the ray");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC10: Nothing between the point and the distance
+        assertEquals(Double3.ONE, geometries.calcTransparency(ray, 1, Double3.ONE, 0.001),
+                "Nothing blocks the ray");
+    }
+
+    /**
+     * Test method for {@link Geometries#findOccluder(Ray, double, double)}.
+     */
+    @Test
+    void findOccluder() {
+        Material glass = new Material().setKt(0.5);
+        Sphere opaque = new Sphere(new Point(0, 0, 6), 0.5);
+        Geometries geometries = new Geometries(
+                new Sphere(new Point(0, 0, 2), 0.5).setMaterial(glass),
+                new Plane(new Point(0, 0, 4), new Vector(0, 0, 1)).setMaterial(glass),
+                opaque);
+        Ray ray = new Ray(Point.ZERO, new Vector(0, 0, 1));
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: The opaque geometry behind the transparent ones is the occluder
+        assertSame(opaque, geometries.findOccluder(ray, 10, 0.001), "Wrong occluder");
+
+        // TC02: The same occluder is found through the hierarchy
+        assertSame(opaque, geometries.buildBVH().findOccluder(ray, 10, 0.001), "Wrong occluder in the hierarchy");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC10: Transparent geometries only
+        assertNull(geometries.findOccluder(ray, 5, 0.001), "Transparent geometries are not occluders");
+    }
+
+    /**
+     * Test method for {@link Geometries#getBoundingBox()}.
+     */
+    @Test
+    void getBoundingBox() {
+        Geometries group = new Geometries(new Sphere(new Point(0, 0, 0), 1), new Sphere(new Point(4, 0, 0), 1));
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: The box of a group unites the boxes of its items
+        BoundingBox box = group.getBoundingBox();
+        assertEquals(-1, box.getMin(0), 1e-10, "Wrong minimal x of the group box");
+        assertEquals(5, box.getMax(0), 1e-10, "Wrong maximal x of the group box");
+
+        // TC02: A ray missing the group box is rejected
+        assertNull(group.findIntersections(new Ray(new Point(0, 5, 0), new Vector(1, 0, 0))),
+                "Ray misses the group");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC10: Adding an item extends the box
+        group.add(new Sphere(new Point(0, 5, 0), 1));
+        assertEquals(2, group.findIntersections(new Ray(new Point(-5, 5, 0), new Vector(1, 0, 0))).size(),
+                "Added item is not intersected");
+
+        // TC11: A group with an unbounded item is unbounded
+        group.add(new Plane(Point.ZERO, new Vector(0, 0, 1)));
+        assertTrue(group.getBoundingBox().isInfinite(), "Group with a plane must be unbounded");
+    }
+
+    private static int size(List<Point> points) {
+        return points == null ? 0 : points.size();
+    }
+}
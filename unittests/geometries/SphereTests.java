@@ -149,4 +149,30 @@ class SphereTests {
         // TC01: 2 points out of distance
         assertNull(tSphere.findGeoIntersectionsHelper(tRay, 1));
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link Sphere#findClosestGeoIntersection(Ray, double)}.
+     */
+    @Test
+    public void findClosestGeoIntersection() {
+        Sphere tSphere = new Sphere(new Point(0, 0, 3), 2);
+        Ray tRay = new Ray(new Point(0, 0, -1), new Vector(0, 0, 1));
+        Ray tRay2 = new Ray(new Point(0, 0, 2), new Vector(0, 0, 1));
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: ray outside the sphere - the near intersection
+        assertEquals(new Point(0, 0, 1), tSphere.findClosestGeoIntersection(tRay, 7).point, "wrong closest point");
+        // TC02: ray inside the sphere - the far intersection
+        assertEquals(new Point(0, 0, 5), tSphere.findClosestGeoIntersection(tRay2, 7).point, "wrong closest point");
+        // TC03: both intersections out of distance
+        assertNull(tSphere.findClosestGeoIntersection(tRay, 1), "intersections out of distance");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC10: ray starts at the center
+        assertEquals(new Point(0, 0, 5),
+                tSphere.findClosestGeoIntersection(new Ray(new Point(0, 0, 3), new Vector(0, 0, 1))).point,
+                "wrong closest point from the center");
+    }
+}
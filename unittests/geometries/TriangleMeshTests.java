@@ -0,0 +1,227 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Double3;
+import primitives.Material;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for geometries.TriangleMesh class
+ */
+class TriangleMeshTests {
+
+    /**
+     * A unit square in the plane z = 0 made of two triangles
+     */
+    private final TriangleMesh square = new TriangleMesh(
+            new double[]{0, 0, 0, 1, 0, 0, 1, 1, 0, 0, 1, 0},
+            new int[]{0, 1, 2, 0, 2, 3});
+
+    /**
+     * Test method for {@link TriangleMesh#TriangleMesh(double[], int[])}.
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: correct mesh
+        assertEquals(2, square.getTriangleCount(), "Wrong number of triangles");
+        assertEquals(4, square.getVertexCount(), "Wrong number of vertices");
+
+        // TC02: incomplete vertex
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleMesh(new double[]{0, 0, 0, 1, 0, 0, 1, 1}, new int[]{0, 1, 2}),
+                "Constructed a mesh with an incomplete vertex");
+
+        // TC03: incomplete triangle
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleMesh(new double[]{0, 0, 0, 1, 0, 0, 1, 1, 0}, new int[]{0, 1}),
+                "Constructed a mesh with an incomplete triangle");
+
+        // TC04: index of a missing vertex
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleMesh(new double[]{0, 0, 0, 1, 0, 0, 1, 1, 0}, new int[]{0, 1, 3}),
+                "Constructed a mesh with an index of a missing vertex");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: no triangles
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleMesh(new double[]{0, 0, 0}, new int[0]),
+                "Constructed a mesh without triangles");
+    }
+
+    /**
+     * Test method for {@link TriangleMesh#getNormal(Point)}.
+     */
+    @Test
+    void testGetNormal() {
+        // a triangle in the plane z = 0 and a triangle in the plane x = 0 sharing an edge
+        TriangleMesh corner = new TriangleMesh(
+                new double[]{0, 0, 0, 1, 0, 0, 0, 1, 0, 0, 0, 1},
+                new int[]{0, 1, 2, 0, 2, 3});
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a point on the first triangle
+        assertEquals(new Vector(0, 0, 1), corner.getNormal(new Point(0.25, 0.25, 0)),
+                "Wrong normal of the first triangle");
+
+        // TC02: a point on the second triangle
+        assertEquals(new Vector(1, 0, 0), corner.getNormal(new Point(0, 0.25, 0.25)),
+                "Wrong normal of the second triangle");
+
+        // TC03: a point off the mesh
+        assertThrows(IllegalArgumentException.class, () -> corner.getNormal(new Point(0.5, 0.5, 0.5)),
+                "Found a normal at a point off the mesh");
+
+        // TC04: a point on the plane of a triangle but outside it
+        assertThrows(IllegalArgumentException.class, () -> corner.getNormal(new Point(0.75, 0.75, 0)),
+                "Found a normal at a point outside the triangles");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: a point on the far edge of a triangle
+        assertEquals(new Vector(0, 0, 1), corner.getNormal(new Point(0.5, 0.5, 0)), "Wrong normal on the edge");
+    }
+
+    /**
+     * Test method for {@link TriangleMesh#findGeoIntersections(Ray)}.
+     */
+    @Test
+    void testFindGeoIntersections() {
+        square.setEmission(new Color(10, 20, 30)).setMaterial(new Material().setKd(0.5));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the ray crosses the first triangle
+        List<GeoPoint> result = square.findGeoIntersections(new Ray(new Point(0.75, 0.25, 1), new Vector(0, 0, -1)));
+        assertNotNull(result, "The ray should cross the mesh");
+        assertEquals(1, result.size(), "Wrong number of points");
+        assertEquals(new Point(0.75, 0.25, 0), result.get(0).point, "Wrong intersection point");
+        TriangleMesh.Face face = (TriangleMesh.Face) result.get(0).geometry;
+        assertEquals(0, face.getIndex(), "Wrong face");
+        assertEquals(new Vector(0, 0, 1), face.getNormal(result.get(0).point), "Wrong normal of the face");
+        assertSame(square.getEmission(), face.getEmission(), "The face should share the emission of the mesh");
+        assertSame(square.getMaterial(), face.getMaterial(), "The face should share the material of the mesh");
+
+        // TC02: the ray crosses the second triangle
+        result = square.findGeoIntersections(new Ray(new Point(0.25, 0.75, 1), new Vector(0, 0, -1)));
+        assertEquals(1, ((TriangleMesh.Face) result.get(0).geometry).getIndex(), "Wrong face");
+
+        // TC03: the ray misses the mesh
+        assertNull(square.findGeoIntersections(new Ray(new Point(2, 2, 1), new Vector(0, 0, -1))),
+                "The ray should miss the mesh");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: the ray is beyond the maximal distance
+        assertNull(square.findGeoIntersections(new Ray(new Point(0.75, 0.25, 1), new Vector(0, 0, -1)), 0.5),
+                "The intersection is beyond the distance");
+    }
+
+    /**
+     * Test method for {@link TriangleMesh#findClosestGeoIntersection(Ray)}.
+     * The mesh is compared to the same triangles as separate geometries.
+     */
+    @Test
+    void testFindClosestGeoIntersection() {
+        // a grid of randomly displaced vertices folded on itself, so rays cross several layers
+        Random random = new Random(7261);
+        int n = 20;
+        double[] vertices = new double[3 * (n + 1) * (n + 1)];
+        for (int i = 0; i <= n; ++i)
+            for (int j = 0; j <= n; ++j) {
+                int v = 3 * (i * (n + 1) + j);
+                vertices[v] = j + 0.3 * random.nextDouble();
+                vertices[v + 1] = i + 0.3 * random.nextDouble();
+                vertices[v + 2] = 3 * Math.sin(j * 0.7) + random.nextDouble();
+            }
+        int[] indices = new int[6 * n * n];
+        Geometries triangles = new Geometries();
+        int k = 0;
+        for (int i = 0; i < n; ++i)
+            for (int j = 0; j < n; ++j) {
+                int a = i * (n + 1) + j, b = a + 1, c = a + n + 1, d = c + 1;
+                for (int v : new int[]{a, b, d, a, d, c})
+                    indices[k++] = v;
+            }
+        TriangleMesh mesh = new TriangleMesh(vertices, indices);
+        for (int t = 0; t < mesh.getTriangleCount(); ++t)
+            triangles.add(new Triangle(mesh.getVertex(indices[3 * t]), mesh.getVertex(indices[3 * t + 1]),
+                    mesh.getVertex(indices[3 * t + 2])));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: random rays hit the same points as with separate triangles
+        for (int r = 0; r < 500; ++r) {
+            Ray ray = new Ray(new Point(n * random.nextDouble(), n * random.nextDouble(), 10),
+                    new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+            GeoPoint expected = triangles.findClosestGeoIntersection(ray);
+            GeoPoint actual = mesh.findClosestGeoIntersection(ray);
+            if (expected == null)
+                assertNull(actual, "The ray should miss the mesh");
+            else {
+                assertNotNull(actual, "The ray should hit the mesh");
+                assertEquals(expected.point, actual.point, "Wrong closest intersection");
+                assertEquals(expected.geometry.getNormal(expected.point),
+                        actual.geometry.getNormal(actual.point), "Wrong normal");
+            }
+            List<GeoPoint> all = triangles.findGeoIntersections(ray);
+            List<GeoPoint> meshAll = mesh.findGeoIntersections(ray);
+            assertEquals(all == null ? 0 : all.size(), meshAll == null ? 0 : meshAll.size(),
+                    "Wrong number of intersections");
+        }
+    }
+
+    /**
+     * Test method for {@link TriangleMesh#calcTransparency(Ray, double, Double3, double)}.
+     */
+    @Test
+    void testCalcTransparency() {
+        Ray ray = new Ray(new Point(0.75, 0.25, 1), new Vector(0, 0, -1));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: an opaque mesh blocks the ray
+        assertSame(Double3.ZERO, square.calcTransparency(ray, 10, Double3.ONE, 0.001),
+                "An opaque mesh should block the ray");
+
+        // TC02: a transparent mesh lets the light pass partially
+        square.setMaterial(new Material().setKt(0.5));
+        assertEquals(new Double3(0.5), square.calcTransparency(ray, 10, Double3.ONE, 0.001),
+                "Wrong transparency of a transparent mesh");
+
+        // TC03: the ray misses the mesh
+        square.setMaterial(new Material());
+        assertEquals(Double3.ONE,
+                square.calcTransparency(new Ray(new Point(2, 2, 1), new Vector(0, 0, -1)), 10, Double3.ONE, 0.001),
+                "The ray should miss the mesh");
+    }
+
+    /**
+     * Test method for {@link TriangleMesh#findOccluder(Ray, double, double)}.
+     */
+    @Test
+    void testFindOccluder() {
+        Ray ray = new Ray(new Point(0.75, 0.25, 1), new Vector(0, 0, -1));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the occluder of an opaque mesh is the face of the blocking triangle
+        Geometry occluder = square.findOccluder(ray, 10, 0.001);
+        assertInstanceOf(TriangleMesh.Face.class, occluder, "The occluder should be a face");
+        assertEquals(0, ((TriangleMesh.Face) occluder).getIndex(), "Wrong blocking triangle");
+        assertSame(Double3.ZERO, occluder.calcTransparency(ray, 10, Double3.ONE, 0.001),
+                "The face should block the ray");
+
+        // TC02: a transparent mesh is not an occluder
+        square.setMaterial(new Material().setKt(0.5));
+        assertNull(square.findOccluder(ray, 10, 0.001), "A transparent mesh should not be an occluder");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: the mesh is beyond the distance
+        square.setMaterial(new Material());
+        assertNull(square.findOccluder(ray, 0.5, 0.001), "The mesh is beyond the distance");
+    }
+}
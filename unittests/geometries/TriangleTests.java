@@ -6,6 +6,7 @@
 package geometries;
 
 import org.junit.jupiter.api.Test;
+import primitives.Double3;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
@@ -82,6 +83,15 @@ public class TriangleTests {
         // TC12: On edge's continuation
         assertNull(tr.findIntersections(new Ray(new Point(-1, -2, -1), new Vector(0, 2, 3)))
                 , "Ray's crosses the triangle's edge");
+
+        // TC13: A tiny triangle crossed obliquely - the ray is not parallel whatever the size of the triangle
+        double s = 2e-6;
+        Triangle tiny = new Triangle(new Point(0, 0, 0), new Point(s, 0, 0), new Point(0, s, 0));
+        Vector dir = new Vector(1, 0, -0.1);
+        Point target = new Point(s / 4, s / 4, 0);
+        result = tiny.findIntersections(new Ray(target.add(dir.scale(-10)), dir));
+        assertNotNull(result, "Ray crosses the tiny triangle");
+        assertEquals(target, result.get(0), "Wrong intersection with the tiny triangle");
     }
 
     /**
@@ -112,5 +122,30 @@ public class TriangleTests {
         // TC04: outside distance
         assertNull(tTriangle.findGeoIntersectionsHelper(tRay2, 1.5));
     }
-}
 
+    /**
+     * Test method for {@link Triangle#getBarycentric(Point)}.
+     */
+    @Test
+    public void testGetBarycentric() {
+        Triangle triangle = new Triangle(new Point(0, 0, 1), new Point(4, 0, 1), new Point(0, 2, 1));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a point inside the triangle
+        assertEquals(new Double3(0.5, 0.25, 0.25), triangle.getBarycentric(new Point(1, 0.5, 1)),
+                "Wrong barycentric coordinates of an inner point");
+
+        // TC02: a point outside the triangle has a negative coordinate
+        assertEquals(new Double3(-0.5, 0.75, 0.75), triangle.getBarycentric(new Point(3, 1.5, 1)),
+                "Wrong barycentric coordinates of an outer point");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: a vertex of the triangle
+        assertEquals(new Double3(0, 0, 1), triangle.getBarycentric(new Point(0, 2, 1)),
+                "Wrong barycentric coordinates of a vertex");
+
+        // TC11: a point on an edge of the triangle
+        assertEquals(new Double3(0.5, 0.5, 0), triangle.getBarycentric(new Point(2, 0, 1)),
+                "Wrong barycentric coordinates of a point on an edge");
+    }
+}
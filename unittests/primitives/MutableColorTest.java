@@ -0,0 +1,51 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for primitives.MutableColor class
+ */
+class MutableColorTest {
+
+    /**
+     * Test method for {@link MutableColor#addLight(Color, Double3, Double3, double, Double3, double)}.
+     */
+    @Test
+    void addLight() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a light is added to the initial color by the Phong model
+        MutableColor color = new MutableColor(new Color(10, 20, 30))
+                .addLight(new Color(100, 200, 300), new Double3(1, 0.5, 0.25), new Double3(0.5), 0.5,
+                        new Double3(0.25), 0.4);
+        assertEquals(new Double3(45, 55, 56.25), color.toColor().getRgb(), "Wrong color after adding a light");
+
+        // TC02: the contributions of several lights are summed up
+        color.addLight(new Color(100, 100, 100), Double3.ONE, new Double3(0.1, 0.2, 0.3), 1, Double3.ZERO, 1);
+        assertEquals(new Double3(55, 75, 86.25), color.toColor().getRgb(), "Wrong color after adding two lights");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: a fully blocked light adds nothing
+        color.addLight(new Color(100, 100, 100), Double3.ZERO, Double3.ONE, 1, Double3.ONE, 1);
+        assertEquals(new Double3(55, 75, 86.25), color.toColor().getRgb(), "A blocked light should add nothing");
+    }
+
+    /**
+     * Test method for {@link MutableColor#toColor()}.
+     */
+    @Test
+    void toColor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the initial color is kept until something is added
+        assertEquals(new Double3(10, 20, 30), new MutableColor(new Color(10, 20, 30)).toColor().getRgb(),
+                "Wrong initial color");
+
+        // TC02: every call creates a color of the current value, unaffected by later additions
+        MutableColor color = new MutableColor(Color.BLACK);
+        Color before = color.toColor();
+        color.addLight(new Color(10, 10, 10), Double3.ONE, Double3.ONE, 1, Double3.ZERO, 0);
+        assertEquals(Double3.ZERO, before.getRgb(), "An earlier color should not change");
+        assertEquals(new Double3(10, 10, 10), color.toColor().getRgb(), "Wrong accumulated color");
+    }
+}
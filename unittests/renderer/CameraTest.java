@@ -1,11 +1,23 @@
 package renderer;
 
+import geometries.IntersectionStatistics;
+import geometries.Plane;
+import geometries.Sphere;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import lighting.AmbientLight;
+import lighting.PointLight;
 import org.junit.jupiter.api.Test;
-import primitives.Point;
-import primitives.Ray;
-import primitives.Vector;
+import primitives.*;
+import scene.Scene;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Testing Camera Class
@@ -56,4 +68,421 @@ class CameraTest {
 
     }
 
+    /**
+     * Creates a camera viewing a lit sphere over a plane
+     *
+     * @param nX the number of pixels in a row
+     * @param nY the number of rows
+     * @return the camera
+     */
+    private static Camera sphereCamera(int nX, int nY) {
+        Scene scene = new Scene("progressive").setAmbientLight(new AmbientLight(new Color(30, 30, 30), 1));
+        scene.geometries.add(new Sphere(new Point(0, 0, -100), 40).setEmission(new Color(60, 20, 20))
+                        .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(30)),
+                new Plane(new Point(0, -40, 0), new Vector(0, 1, 0)).setMaterial(new Material().setKd(0.6)));
+        scene.lights.add(new PointLight(new Color(400, 400, 400), new Point(60, 60, 0)).setKl(0.001));
+        Camera camera = new Camera(ZERO_POINT, new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPDistance(100).setVPSize(120, 120 * nY / (double) nX)
+                .setImageWriter(new ImageWriter("progressive", nX, nY))
+                .setProgressListener(percentage -> {
+                });
+        return camera.setRayTracer(new RayTracerBasic(scene));
+    }
+
+    /**
+     * Test method for {@link Camera#renderImageProgressive(int, int, double, boolean, double)}.
+     */
+    @Test
+    void testRenderImageProgressive() {
+        int nX = 75, nY = 50;
+        FrameBuffer expected = sphereCamera(nX, nY).renderImage().getImageWriter().getFrameBuffer();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: all the passes render the same image as a plain render, and every pixel once
+        Camera camera = sphereCamera(nX, nY);
+        camera.renderImageProgressive(2, 8, 0, false, 0);
+        FrameBuffer actual = camera.getImageWriter().getFrameBuffer();
+        assertFalse(camera.isStopped(), "The render should not stop without a time budget");
+        for (int i = 0; i < nY; ++i)
+            for (int j = 0; j < nX; ++j)
+                for (int c = 0; c < 3; ++c)
+                    assertEquals(expected.get(j, i, c), actual.get(j, i, c), "Wrong pixel " + j + "," + i);
+        assertEquals(nX * nY, ((RayTracerBasic) sphereCamera(nX, nY).renderImageProgressive(1, 4, 0, false, 0)
+                .getRayTracer()).getTracedRays(), "Every pixel should be traced once");
+
+        // TC02: an expired time budget stops the render
+        camera = sphereCamera(nX, nY).renderImageProgressive(1, 8, 1e-9, false, 0);
+        assertTrue(camera.isStopped(), "The render should stop when the time budget expires");
+
+        // TC03: a full render after a stopped one is not stopped
+        assertFalse(camera.renderImage().isStopped(), "A full render should reset the stop");
+        camera.renderImageProgressive(1, 8, 1e-9, false, 0);
+        assertFalse(camera.renderImageWithThreads(2, 0).isStopped(), "A threaded render should reset the stop");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: a single pass renders the same image
+        actual = sphereCamera(nX, nY).renderImageProgressive(1, 1, 0, false, 0).getImageWriter().getFrameBuffer();
+        assertEquals(expected.get(37, 25, 0), actual.get(37, 25, 0), "Wrong pixel of a single pass");
+
+        // TC11: a step which is not a power of 2
+        assertThrows(IllegalArgumentException.class,
+                () -> sphereCamera(nX, nY).renderImageProgressive(1, 6, 0, false, 0), "Accepted a step of 6");
+    }
+
+    /**
+     * Creates a camera viewing the lit sphere through an aperture, with a super sampling ray tracer
+     *
+     * @param nX   the number of pixels in a row
+     * @param nY   the number of rows
+     * @param beam the samples per pixel side
+     * @return the camera
+     */
+    private static Camera apertureCamera(int nX, int nY, int beam) {
+        Camera camera = sphereCamera(nX, nY).setApertureRadius(3).setFocalDistance(60);
+        return camera.setRayTracer(new RayTracerSuperSampling(((RayTracerBasic) camera.getRayTracer()).scene,
+                camera, beam));
+    }
+
+    /**
+     * Test method for {@link Camera#renderImageConverging(int, int, double, double, double)}.
+     */
+    @Test
+    void testRenderImageConverging() {
+        int nX = 30, nY = 20, beam = 5;
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: with a huge variance every pixel converges after the first round
+        Camera camera = apertureCamera(nX, nY, beam).renderImageConverging(2, 4, 1e9, 0, 0);
+        SampleStatistics statistics = camera.getSampleStatistics();
+        assertFalse(camera.isStopped(), "The render should not stop without a time budget");
+        for (int i = 0; i < nY; ++i)
+            for (int j = 0; j < nX; ++j)
+                assertEquals(4, statistics.getSamples(j, i), "Wrong samples of pixel " + j + "," + i);
+        assertEquals(nX * nY * 4L, ((RayTracerBasic) camera.getRayTracer()).getTracedRays(), "Wrong traced rays");
+
+        // TC02: the pixel color is the mean of its samples
+        FrameBuffer frameBuffer = camera.getImageWriter().getFrameBuffer();
+        assertEquals(statistics.getMean(15, 10).getRgb().getD1(), frameBuffer.get(15, 10, 0), 1e-9,
+                "The pixel should be the mean of its samples");
+
+        // TC03: with no variance allowed the noisy pixels are sampled up to the whole beam
+        camera = apertureCamera(nX, nY, beam).renderImageConverging(1, 4, 0, 0, 0);
+        statistics = camera.getSampleStatistics();
+        int beamSize = ((RayTracerSuperSampling) camera.getRayTracer()).getBeamSize();
+        int full = 0;
+        for (int i = 0; i < nY; ++i)
+            for (int j = 0; j < nX; ++j) {
+                int samples = statistics.getSamples(j, i);
+                assertTrue(samples >= 4 && samples <= beamSize, "Wrong samples of pixel " + j + "," + i);
+                if (samples == beamSize) ++full;
+            }
+        assertTrue(full > 0, "The noisy pixels should be sampled with the whole beam");
+        assertEquals(4, statistics.getSamples(0, 0), "A flat pixel should converge in the first round");
+
+        // TC04: an expired time budget stops the render after the first round
+        camera = apertureCamera(nX, nY, beam).renderImageConverging(1, 4, 0, 1e-9, 0);
+        assertTrue(camera.isStopped(), "The render should stop when the time budget expires");
+        assertTrue(camera.getSampleStatistics().getSamples(nX - 1, nY - 1) >= 4,
+                "The first round should always complete");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: less than 2 samples in a round
+        assertThrows(IllegalArgumentException.class,
+                () -> apertureCamera(nX, nY, beam).renderImageConverging(1, 1, 0, 0, 0), "Accepted a single sample");
+
+        // TC11: a ray tracer without super sampling
+        assertThrows(IllegalStateException.class,
+                () -> sphereCamera(nX, nY).renderImageConverging(1, 4, 0, 0, 0), "Accepted a basic ray tracer");
+    }
+
+    /**
+     * Checks that two frame buffers have the same pixels
+     *
+     * @param expected the expected frame buffer
+     * @param actual   the actual frame buffer
+     * @param message  the message of a failure
+     */
+    private static void assertSamePixels(FrameBuffer expected, FrameBuffer actual, String message) {
+        for (int i = 0; i < expected.getHeight(); ++i)
+            for (int j = 0; j < expected.getWidth(); ++j)
+                for (int c = 0; c < 3; ++c)
+                    assertEquals(expected.get(j, i, c), actual.get(j, i, c), message + " at pixel " + j + "," + i);
+    }
+
+    /**
+     * Test method for {@link RayTracerSuperSampling#setSeed(long, int)}.
+     */
+    @Test
+    void testSeededRendering() {
+        int nX = 30, nY = 20, beam = 3;
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the shared aperture points render the same image with any number of threads
+        FrameBuffer expected = apertureCamera(nX, nY, beam).renderImage().getImageWriter().getFrameBuffer();
+        assertSamePixels(expected, apertureCamera(nX, nY, beam).renderImageWithTiles(3, 8, 0)
+                .getImageWriter().getFrameBuffer(), "Different images with shared aperture points");
+
+        // TC02: the samplers render the same image with any number of threads
+        for (Sampler sampler : new Sampler[]{Sampler.GRID, Sampler.SOBOL}) {
+            Camera camera = apertureCamera(nX, nY, beam);
+            ((RayTracerSuperSampling) camera.getRayTracer()).setSampler(sampler).setSeed(7, 0);
+            expected = camera.renderImage().getImageWriter().getFrameBuffer();
+            camera = apertureCamera(nX, nY, beam);
+            ((RayTracerSuperSampling) camera.getRayTracer()).setSampler(sampler).setSeed(7, 0);
+            assertSamePixels(expected, camera.renderImageWithThreads(3, 0).getImageWriter().getFrameBuffer(),
+                    "Different images of " + sampler.getClass().getSimpleName());
+        }
+
+        // TC03: a converging render is the same with any number of threads
+        Camera camera = apertureCamera(nX, nY, beam);
+        ((RayTracerSuperSampling) camera.getRayTracer()).setSampler(Sampler.HALTON);
+        expected = camera.renderImageConverging(1, 2, 0.1, 0, 0).getImageWriter().getFrameBuffer();
+        camera = apertureCamera(nX, nY, beam);
+        ((RayTracerSuperSampling) camera.getRayTracer()).setSampler(Sampler.HALTON);
+        assertSamePixels(expected, camera.renderImageConverging(3, 2, 0.1, 0, 0).getImageWriter().getFrameBuffer(),
+                "Different converged images");
+
+        // TC04: another frame is sampled differently
+        expected = apertureCamera(nX, nY, beam).renderImage().getImageWriter().getFrameBuffer();
+        camera = apertureCamera(nX, nY, beam);
+        ((RayTracerSuperSampling) camera.getRayTracer()).setSeed(BlackBoard.DEFAULT_SEED, 1);
+        FrameBuffer actual = camera.renderImage().getImageWriter().getFrameBuffer();
+        boolean different = false;
+        for (int i = 0; i < nY && !different; ++i)
+            for (int j = 0; j < nX && !different; ++j)
+                different = expected.get(j, i, 0) != actual.get(j, i, 0);
+        assertTrue(different, "Another frame should be sampled differently");
+    }
+
+    /**
+     * Test method for {@link Camera#getRayStatistics()}.
+     */
+    @Test
+    void testRayStatistics() {
+        int nX = 40, nY = 30;
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the rays of all the threads are counted by kind, and every ray is tested against the scene
+        Camera camera = sphereCamera(nX, nY);
+        RayTracerBasic tracer = ((RayTracerBasic) camera.getRayTracer()).setCollectStatistics(true);
+        RayStatistics statistics = camera.renderImageWithTiles(3, 8, 0).getRayStatistics();
+        assertEquals(nX * nY, statistics.getPrimaryRays(), "Wrong primary rays");
+        assertEquals(0, statistics.getReflectedRays() + statistics.getRefractedRays(), "Wrong secondary rays");
+        assertTrue(statistics.getShadowRays() > 0, "Shadow rays were not counted");
+        assertTrue(statistics.getAverageDepth() > 0 && statistics.getAverageDepth() <= 1, "Wrong average depth");
+        // (but the shadow rays blocked by the last occluder of their light are not)
+        assertEquals(statistics.getTotalRays() - statistics.getShadowCacheHits(),
+                statistics.getIntersections().get("Geometries").tests(),
+                "Every ray should be tested against the scene");
+        IntersectionStatistics.Counts sphere = statistics.getIntersections().get("Sphere");
+        assertTrue(sphere.hits() > 0 && sphere.hits() <= sphere.tests(), "Wrong sphere counts");
+        assertTrue(statistics.getRaysPerSecond() > 0, "Wrong rays per second");
+        assertFalse(IntersectionStatistics.isEnabled(), "The intersection tests should not be counted after a render");
+
+        // TC02: reflected and refracted rays are counted, and they deepen the recursion
+        tracer.scene.geometries.add(new Sphere(new Point(0, 0, -60), 15)
+                .setMaterial(new Material().setKr(0.5).setKt(0.5)));
+        RayStatistics deeper = camera.renderImage().getRayStatistics();
+        assertEquals(nX * nY, deeper.getPrimaryRays(), "The statistics of the last render should be reset");
+        assertTrue(deeper.getReflectedRays() > 0 && deeper.getRefractedRays() > 0, "Secondary rays were not counted");
+        assertTrue(deeper.getAverageDepth() > statistics.getAverageDepth(), "The recursion should be deeper");
+
+        // TC03: the geometries under the inner nodes of a hierarchy are counted as well - no ray hits two spheres,
+        // so a sphere is hit as many times as without the hierarchy, and the unbounded plane is tested by every ray
+        Scene grid = new Scene("statistics");
+        for (int i = -3; i <= 3; ++i)
+            for (int j = -2; j <= 2; ++j)
+                grid.geometries.add(new Sphere(new Point(15 * i, 15 * j, -100), 5));
+        grid.geometries.add(new Plane(new Point(0, 0, -200), new Vector(0, 0, 1)));
+        camera.setRayTracer(new RayTracerBasic(grid).setCollectStatistics(true));
+        IntersectionStatistics.Counts linear = camera.renderImage().getRayStatistics().getIntersections().get("Sphere");
+        grid.geometries.buildBVH();
+        var hierarchy = camera.renderImage().getRayStatistics().getIntersections();
+        assertEquals(linear.hits(), hierarchy.get("Sphere").hits(), "Wrong sphere hits under the hierarchy");
+        assertTrue(hierarchy.get("Sphere").tests() < linear.tests(), "The hierarchy should skip sphere tests");
+        assertEquals(nX * nY, hierarchy.get("Plane").tests(), "Wrong plane tests");
+        assertEquals(nX * nY, hierarchy.get("Geometries").tests(), "Wrong scene tests");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: the rays are not counted by default
+        assertNull(sphereCamera(nX, nY).renderImage().getRayStatistics(), "The rays should not be counted");
+    }
+
+    /**
+     * Test method for {@link Camera#getCostMap()}.
+     */
+    @Test
+    void testCostMap() {
+        int nX = 40, nY = 30;
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the time and the rays of every pixel are recorded, and add up to the rays of the render
+        Camera camera = sphereCamera(nX, nY).setRecordCosts(true);
+        ((RayTracerBasic) camera.getRayTracer()).setCollectStatistics(true);
+        camera.renderImageWithTiles(2, 8, 0);
+        CostMap costs = camera.getCostMap();
+        long rays = 0;
+        for (int i = 0; i < nY; ++i)
+            for (int j = 0; j < nX; ++j) {
+                assertTrue(costs.getNanos(j, i) > 0, "The time of pixel " + j + "," + i + " was not recorded");
+                assertTrue(costs.getRays(j, i) >= 1, "The rays of pixel " + j + "," + i + " were not recorded");
+                rays += costs.getRays(j, i);
+            }
+        assertEquals(camera.getRayStatistics().getTotalRays(), rays, "The rays of the pixels should add up");
+
+        // TC02: a pixel of the lit sphere costs more rays than a pixel of the background
+        assertTrue(costs.getRays(nX / 2, nY / 2) > costs.getRays(0, 0), "The sphere should cost more rays");
+
+        // TC03: the heatmap goes from dark blue for the cheapest pixels to white for the most expensive ones
+        assertEquals(new Color(0, 0, 64).getColor(), CostMap.heat(0).getColor(), "Wrong color of the cheapest");
+        assertEquals(new Color(255, 255, 255).getColor(), CostMap.heat(1).getColor(), "Wrong color of the dearest");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: the costs are not recorded by default
+        assertNull(sphereCamera(nX, nY).renderImage().getCostMap(), "The costs should not be recorded");
+    }
+
+    /**
+     * Test method for the flight recorder events of {@link Camera#renderImageWithTiles(int, int, double)}.
+     *
+     * @throws IOException if the recording cannot be written
+     */
+    @Test
+    void testRenderTileEvents() throws IOException {
+        int nX = 40, nY = 30;
+        Path file = Files.createTempFile("tiles", ".jfr");
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("raytracer.RenderTile");
+            recording.start();
+            Camera camera = sphereCamera(nX, nY);
+            ((RayTracerBasic) camera.getRayTracer()).setCollectStatistics(true);
+            camera.renderImageWithTiles(2, 16, 0);
+            recording.stop();
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        } finally {
+            Files.delete(file);
+        }
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: an event is recorded for every tile, with its pixel range
+        assertEquals(6, events.size(), "Wrong number of tile events");
+        int pixels = 0;
+        for (RecordedEvent event : events) {
+            int width = event.getInt("col1") - event.getInt("col0");
+            int height = event.getInt("row1") - event.getInt("row0");
+            assertTrue(width > 0 && width <= 16 && height > 0 && height <= 16, "Wrong tile range");
+            assertEquals(width * height, event.getInt("pixels"), "Wrong number of pixels of the tile");
+            // TC02: the rays of the tile are counted, at least a primary ray per pixel
+            assertTrue(event.getLong("rays") >= width * height, "The rays of the tile were not counted");
+            pixels += event.getInt("pixels");
+        }
+        assertEquals(nX * nY, pixels, "The tiles should cover the image");
+    }
+
+    /**
+     * Creates a camera looking between two parallel mirrors, whose rays bounce between the mirrors up to
+     * the maximal level of the scene
+     *
+     * @param nX the number of pixels in a row
+     * @param nY the number of rows
+     * @return the camera, with a basic ray tracer collecting statistics
+     */
+    private static Camera mirrorsCamera(int nX, int nY) {
+        Scene scene = new Scene("mirrors").setAmbientLight(new AmbientLight(new Color(255, 255, 255), 0.05))
+                .setMaxLevel(30).setMinK(0.0001);
+        Material mirror = new Material().setKd(0.05).setKr(0.9);
+        scene.geometries.add(new Plane(new Point(-60, 0, 0), new Vector(1, 0, 0)).setMaterial(mirror),
+                new Plane(new Point(60, 0, 0), new Vector(-1, 0, 0)).setMaterial(mirror),
+                new Sphere(new Point(0, -20, -150), 30).setEmission(new Color(60, 20, 20))
+                        .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(50).setKr(0.5)));
+        scene.lights.add(new PointLight(new Color(800, 700, 600), new Point(0, 80, -100)).setKl(0.0005));
+        return new Camera(ZERO_POINT, new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVPDistance(100).setVPSize(100, 100)
+                .setImageWriter(new ImageWriter("mirrors", nX, nY))
+                .setRayTracer(new RayTracerBasic(scene).setCollectStatistics(true));
+    }
+
+    /**
+     * Sums the components of all the pixels of an image
+     *
+     * @param image the image
+     * @return the sum
+     */
+    private static double brightness(FrameBuffer image) {
+        double sum = 0;
+        for (int i = 0; i < image.getHeight(); ++i)
+            for (int j = 0; j < image.getWidth(); ++j)
+                for (int c = 0; c < 3; ++c)
+                    sum += image.get(j, i, c);
+        return sum;
+    }
+
+    /**
+     * Test method for {@link RayTracerBasic#setRussianRoulette(double)} and {@link Scene#setMaxLevel(int)}.
+     */
+    @Test
+    void testRussianRoulette() {
+        int nX = 40, nY = 40;
+        Camera camera = mirrorsCamera(nX, nY).renderImage();
+        RayStatistics full = camera.getRayStatistics();
+        double expected = brightness(camera.getImageWriter().getFrameBuffer());
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the roulette terminates most of the weak reflected rays, keeping the brightness of the image
+        camera = mirrorsCamera(nX, nY);
+        ((RayTracerBasic) camera.getRayTracer()).setRussianRoulette(0.3);
+        RayStatistics roulette = camera.renderImage().getRayStatistics();
+        assertTrue(roulette.getRouletteTerminations() > 0, "No ray was terminated by the roulette");
+        assertTrue(roulette.getReflectedRays() < 0.7 * full.getReflectedRays(), "Too many reflected rays");
+        assertEquals(expected, brightness(camera.getImageWriter().getFrameBuffer()), 0.02 * expected,
+                "The roulette should keep the brightness of the image");
+
+        // TC02: the recursion is bounded by the maximal level of the scene
+        assertEquals(30, full.getAverageDepth(), 1, "The rays should bounce up to the maximal level");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: a single level traces no reflected rays
+        camera = mirrorsCamera(nX, nY);
+        ((RayTracerBasic) camera.getRayTracer()).scene.setMaxLevel(1);
+        assertEquals(0, camera.renderImage().getRayStatistics().getReflectedRays(), "Reflected rays at level 1");
+
+        // TC11: illegal limits
+        RayTracerBasic tracer = (RayTracerBasic) camera.getRayTracer();
+        assertThrows(IllegalArgumentException.class, () -> tracer.setRussianRoulette(1.5), "Roulette threshold 1.5");
+        assertThrows(IllegalArgumentException.class, () -> tracer.scene.setMaxLevel(0), "Maximal level 0");
+        assertThrows(IllegalArgumentException.class, () -> tracer.scene.setMinK(-1), "Minimal coefficient -1");
+    }
+
+    /**
+     * Test method for {@link RayTracerBasic#setShadowCache(boolean)}.
+     */
+    @Test
+    void testShadowCache() {
+        int nX = 40, nY = 30;
+        Camera cached = sphereCamera(nX, nY);
+        RayTracerBasic tracer = (RayTracerBasic) cached.getRayTracer();
+        tracer.scene.lights.add(new PointLight(new Color(200, 200, 400), new Point(-60, 60, -60)).setKl(0.001));
+        tracer.setCollectStatistics(true);
+        RayStatistics statistics = cached.renderImage().getRayStatistics();
+        Camera uncached = sphereCamera(nX, nY).setRayTracer(new RayTracerBasic(tracer.scene).setShadowCache(false)
+                .setCollectStatistics(true));
+        RayStatistics uncachedStatistics = uncached.renderImage().getRayStatistics();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the shadows of the sphere on the floor are mostly resolved by the last occluder of their light
+        assertTrue(statistics.getBlockedShadowRays() > 0, "The sphere should shadow the floor");
+        assertEquals(uncachedStatistics.getBlockedShadowRays(), statistics.getBlockedShadowRays(),
+                "The cache should not change the shadows");
+        assertTrue(statistics.getShadowCacheHitRate() > 0.8, "Too low hit rate " + statistics.getShadowCacheHitRate());
+
+        // TC02: the cache does not change the image
+        assertSamePixels(uncached.getImageWriter().getFrameBuffer(), cached.getImageWriter().getFrameBuffer(),
+                "Different images with the shadow cache");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: no hits without the cache
+        assertEquals(0, uncachedStatistics.getShadowCacheHits(), "Cache hits without the cache");
+    }
 }
@@ -0,0 +1,54 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for renderer.FrameBuffer class
+ */
+class FrameBufferTest {
+
+    /**
+     * Test method for {@link FrameBuffer#set(int, int, Color)} and {@link FrameBuffer#get(int, int, int)}.
+     */
+    @Test
+    void testSet() {
+        FrameBuffer frameBuffer = new FrameBuffer(4, 3);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the components are kept as they are, above 255 too
+        frameBuffer.set(3, 2, new Color(10.5, 300, 0.25));
+        assertEquals(10.5, frameBuffer.get(3, 2, 0), "Wrong red component");
+        assertEquals(300, frameBuffer.get(3, 2, 1), "Wrong green component");
+        assertEquals(0.25, frameBuffer.get(3, 2, 2), "Wrong blue component");
+
+        // TC02: the other pixels stay black
+        assertEquals(0, frameBuffer.get(2, 2, 0), "A pixel which was not set should be black");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: empty frame buffer
+        assertThrows(IllegalArgumentException.class, () -> new FrameBuffer(0, 3),
+                "Constructed a frame buffer without pixels");
+    }
+
+    /**
+     * Test method for {@link FrameBuffer#toRgb(int[])}.
+     */
+    @Test
+    void testToRgb() {
+        FrameBuffer frameBuffer = new FrameBuffer(2, 2);
+        Color[] colors = {new Color(10.7, 20.2, 30), new Color(255.9, 256, 1000), new Color(0, 0, 0),
+                new Color(java.awt.Color.ORANGE)};
+        for (int i = 0; i < colors.length; ++i)
+            frameBuffer.set(i % 2, i / 2, colors[i]);
+        int[] rgb = new int[4];
+        frameBuffer.toRgb(rgb);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the conversion is the same as of java.awt.Color
+        for (int i = 0; i < colors.length; ++i)
+            assertEquals(colors[i].getColor().getRGB() & 0xFFFFFF, rgb[i], "Wrong conversion of pixel " + i);
+    }
+}
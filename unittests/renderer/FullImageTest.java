@@ -64,6 +64,7 @@ public class FullImageTest {
         scene.lights.add(new SpotLight(new Color(800, 400, 400), new Point(80, -60, 70), new Vector(-5, -2, -1)) //
                 .setNarrowBeam(4).setKl(0.001).setKq(0.0000025));
 
+        scene.geometries.buildBVH();
         camera.setImageWriter(imageWriter) //
                 .setRayTracer(new RayTracerSuperSampling(scene, camera, 4) //
                          .setAdaptiveSuperSampling(true)
@@ -127,6 +128,7 @@ public class FullImageTest {
         scene.lights.add(new SpotLight(new Color(800, 400, 400), new Point(80, -60, 70), new Vector(-5, -2, -1)) //
                 .setNarrowBeam(4).setKl(0.001).setKq(0.0000025));
 
+        scene.geometries.buildBVH();
         camera.setImageWriter(imageWriter) //
                 .setRayTracer( //
                         new RayTracerSuperSampling(scene, camera, 4) //
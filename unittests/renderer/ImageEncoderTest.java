@@ -0,0 +1,139 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.Adler32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the image encoders
+ */
+class ImageEncoderTest {
+
+    /**
+     * A frame buffer of a gradient with noise and some components above 255, high enough to be split into strips
+     */
+    private final FrameBuffer frameBuffer = new FrameBuffer(123, 211);
+
+    {
+        Random random = new Random(4321);
+        for (int y = 0; y < frameBuffer.getHeight(); ++y)
+            for (int x = 0; x < frameBuffer.getWidth(); ++x)
+                frameBuffer.set(x, y, new Color(2.5 * x, y + 10 * random.nextDouble(), x * y % 300));
+    }
+
+    /**
+     * Encodes the frame buffer
+     *
+     * @param encoder the encoder
+     * @return the encoded image
+     * @throws IOException if the encoding failed
+     */
+    private byte[] encode(ImageEncoder encoder) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.encode(frameBuffer, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Test method for {@link PngEncoder#encode(FrameBuffer, java.io.OutputStream)}.
+     */
+    @Test
+    void testPng() throws IOException {
+        int[] expected = new int[frameBuffer.getWidth() * frameBuffer.getHeight()];
+        frameBuffer.toRgb(expected);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the image is decoded to the same pixels, with all the compression levels
+        for (int level : new int[]{0, 1, PngEncoder.DEFAULT_LEVEL, 6, 9}) {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(encode(new PngEncoder(level))));
+            assertNotNull(image, "The image cannot be decoded");
+            int[] actual = image.getRGB(0, 0, frameBuffer.getWidth(), frameBuffer.getHeight(),
+                    null, 0, frameBuffer.getWidth());
+            for (int i = 0; i < expected.length; ++i)
+                assertEquals(expected[i], actual[i] & 0xFFFFFF, "Wrong pixel " + i + " at level " + level);
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC10: illegal compression level
+        assertThrows(IllegalArgumentException.class, () -> new PngEncoder(10), "Accepted an illegal level");
+    }
+
+    /**
+     * Test method for {@link PngEncoder#combineAdler(long, long, long)}.
+     */
+    @Test
+    void testCombineAdler() {
+        byte[] data = new byte[200_000];
+        new Random(99).nextBytes(data);
+        Adler32 whole = new Adler32();
+        whole.update(data);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the checksums of two parts combine into the checksum of the whole
+        for (int split : new int[]{1, 65521, 100_000, 199_999}) {
+            Adler32 first = new Adler32();
+            first.update(data, 0, split);
+            Adler32 second = new Adler32();
+            second.update(data, split, data.length - split);
+            assertEquals(whole.getValue(),
+                    PngEncoder.combineAdler(first.getValue(), second.getValue(), data.length - split),
+                    "Wrong combined checksum for a split at " + split);
+        }
+    }
+
+    /**
+     * Test method for {@link PpmEncoder#encode(FrameBuffer, java.io.OutputStream)}.
+     */
+    @Test
+    void testPpm() throws IOException {
+        byte[] ppm = encode(ImageEncoder.PPM);
+        String header = "P6\n123 211\n255\n";
+        byte[] row = new byte[3 * frameBuffer.getWidth()];
+        frameBuffer.toBytes(100, row, 0);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the header and the 8-bit pixels
+        assertEquals(header, new String(ppm, 0, header.length(), StandardCharsets.US_ASCII), "Wrong header");
+        assertEquals(header.length() + 3 * frameBuffer.getWidth() * frameBuffer.getHeight(), ppm.length,
+                "Wrong length");
+        for (int i = 0; i < row.length; ++i)
+            assertEquals(row[i], ppm[header.length() + 100 * row.length + i], "Wrong component " + i + " of row 100");
+    }
+
+    /**
+     * Test method for {@link PfmEncoder#encode(FrameBuffer, java.io.OutputStream)}.
+     */
+    @Test
+    void testPfm() throws IOException {
+        byte[] pfm = encode(ImageEncoder.PFM);
+        String header = "PF\n123 211\n-1.0\n";
+        ByteBuffer pixels = ByteBuffer.wrap(pfm, header.length(), pfm.length - header.length())
+                .slice().order(ByteOrder.LITTLE_ENDIAN);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the header and the unclamped pixels, bottom up
+        assertEquals(header, new String(pfm, 0, header.length(), StandardCharsets.US_ASCII), "Wrong header");
+        assertEquals(12 * frameBuffer.getWidth() * frameBuffer.getHeight(), pixels.remaining(), "Wrong length");
+        int x = 120, y = 3; // red is above 255
+        int index = 12 * ((frameBuffer.getHeight() - 1 - y) * frameBuffer.getWidth() + x);
+        for (int c = 0; c < 3; ++c)
+            assertEquals((float) (frameBuffer.get(x, y, c) / 255), pixels.getFloat(index + 4 * c),
+                    "Wrong component " + c);
+
+        // =============== Boundary Values Tests ==================
+        // TC10: unknown format
+        assertThrows(IllegalArgumentException.class, () -> ImageEncoder.of("gif"), "Found an unknown format");
+    }
+}
@@ -10,6 +10,10 @@ import lighting.AmbientLight;
 import primitives.*;
 import renderer.*;
 import scene.Scene;
+import scene.XmlSceneParser;
+
+import java.io.IOException;
+import java.nio.file.Path;
 
 /** Test rendering a basic image
  * @author Dan */
@@ -74,14 +78,34 @@ public class RenderTests {
       camera.writeToImage();
    }
 
+   /** Produce the basic two color scene rendered in tiles by several threads */
+   @Test
+   public void basicRenderTilesTest() {
+      Scene scene = new Scene("Test scene")//
+         .setAmbientLight(new AmbientLight(new Color(255, 191, 191), //
+                                           new Double3(1, 1, 1))) //
+         .setBackground(new Color(75, 127, 90));
+
+      scene.geometries.add(new Sphere(new Point(0, 0, -100), 50d),
+                           new Triangle(new Point(-100, 0, -100), new Point(0, 100, -100), new Point(-100, 100, -100)),
+                           new Triangle(new Point(-100, 0, -100), new Point(0, -100, -100),
+                                        new Point(-100, -100, -100)),
+                           new Triangle(new Point(100, 0, -100), new Point(0, -100, -100), new Point(100, -100, -100)));
+      Camera camera = new Camera(Point.ZERO, new Vector(0, 0, -1), new Vector(0, 1, 0)) //
+         .setVPDistance(100) //
+         .setVPSize(500, 500) //
+         .setImageWriter(new ImageWriter("tiles render test", 1000, 1000))
+         .setRayTracer(new RayTracerBasic(scene));
+
+      camera.renderImageWithTiles(4, 32, 0);
+      camera.printGrid(100, new Color(YELLOW));
+      camera.writeToImage();
+   }
+
    /** Test for XML based scene - for bonus */
    @Test
-   public void basicRenderXml() {
-      Scene  scene  = new Scene("XML Test scene");
-      // enter XML file name and parse from XML file into scene object
-      // using the code you added in appropriate packages
-      // ...
-      // NB: unit tests is not the correct place to put XML parsing code
+   public void basicRenderXml() throws IOException {
+      Scene  scene  = XmlSceneParser.parse(Path.of("xml", "basicRenderTestTwoColors.xml")).scene;
 
       Camera camera = new Camera(Point.ZERO, new Vector(0, 0, -1), new Vector(0, 1, 0))     //
          .setVPDistance(100)                                                                //
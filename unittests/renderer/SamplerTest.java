@@ -0,0 +1,97 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the samplers
+ */
+class SamplerTest {
+
+    /**
+     * The samplers under test
+     */
+    private final Sampler[] samplers = {Sampler.GRID, Sampler.HALTON, Sampler.SOBOL, Sampler.BLUE_NOISE};
+
+    /**
+     * Counts the samples in every cell of a grid over the unit square
+     *
+     * @param points the coordinates of the samples
+     * @param count  the number of samples
+     * @param side   the number of cells in a row of the grid
+     * @return the numbers of samples in the cells, row by row
+     */
+    private static int[] cellCounts(double[] points, int count, int side) {
+        int[] cells = new int[side * side];
+        for (int i = 0; i < count; ++i)
+            ++cells[(int) (points[2 * i + 1] * side) * side + (int) (points[2 * i] * side)];
+        return cells;
+    }
+
+    /**
+     * Test method for {@link Sampler#generate(int, long, double[])}.
+     */
+    @Test
+    void testGenerate() {
+        int count = 64;
+        double[] points = new double[2 * count];
+        double[] other = new double[2 * count];
+
+        // ============ Equivalence Partitions Tests ==============
+        for (Sampler sampler : samplers) {
+            String name = sampler.getClass().getSimpleName();
+            sampler.generate(count, Sampler.scramble(0, 3, 7), points);
+
+            // TC01: all the samples are in the unit square
+            for (double coordinate : points)
+                assertTrue(coordinate >= 0 && coordinate < 1, name + " sampled out of the unit square");
+
+            // TC02: the samples are spread - every cell of a 4x4 grid has 1 to 8 of the 64 samples
+            for (int cell : cellCounts(points, count, 4))
+                assertTrue(cell > 0 && cell <= 8, name + " samples are not spread over the square");
+
+            // TC03: another pixel has other samples
+            sampler.generate(count, Sampler.scramble(0, 4, 7), other);
+            assertNotEquals(points[0], other[0], name + " repeats the samples of another pixel");
+
+            // TC04: the same pixel has the same samples
+            sampler.generate(count, Sampler.scramble(0, 3, 7), other);
+            assertArrayEquals(points, other, name + " samples are not repeatable");
+        }
+
+        // TC05: a power of 2 of Sobol samples is stratified - one sample in every cell
+        Sampler.SOBOL.generate(16, Sampler.scramble(0, 5, 5), points);
+        for (int cell : cellCounts(points, 16, 4))
+            assertEquals(1, cell, "The Sobol samples are not stratified");
+
+        // TC06: a square number of grid samples is stratified
+        Sampler.GRID.generate(25, Sampler.scramble(0, 5, 5), points);
+        for (int cell : cellCounts(points, 25, 5))
+            assertEquals(1, cell, "The grid samples are not stratified");
+
+        // TC07: the blue noise samples keep away from each other (around the wrapped edges)
+        Sampler.BLUE_NOISE.generate(count, Sampler.scramble(0, 1, 2), points);
+        double minDistance = 1;
+        for (int i = 0; i < count; ++i)
+            for (int j = 0; j < i; ++j) {
+                double dx = Math.abs(points[2 * i] - points[2 * j]);
+                double dy = Math.abs(points[2 * i + 1] - points[2 * j + 1]);
+                dx = Math.min(dx, 1 - dx);
+                dy = Math.min(dy, 1 - dy);
+                minDistance = Math.min(minDistance, Math.sqrt(dx * dx + dy * dy));
+            }
+        assertTrue(minDistance > 0.05, "The blue noise samples are too close - " + minDistance);
+
+        // =============== Boundary Values Tests ==================
+        // TC10: a single sample
+        for (Sampler sampler : samplers) {
+            sampler.generate(1, 0, points);
+            assertTrue(points[0] >= 0 && points[0] < 1 && points[1] >= 0 && points[1] < 1,
+                    sampler.getClass().getSimpleName() + " sampled out of the unit square");
+        }
+
+        // TC11: unknown sampler
+        assertThrows(IllegalArgumentException.class, () -> Sampler.of("random"), "Found an unknown sampler");
+    }
+}
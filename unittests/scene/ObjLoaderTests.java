@@ -0,0 +1,134 @@
+package scene;
+
+import geometries.TriangleMesh;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import primitives.Point;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for scene.ObjLoader class
+ */
+class ObjLoaderTests {
+
+    @TempDir
+    Path folder;
+
+    /**
+     * Writes an OBJ file into the temporary folder
+     *
+     * @param content the content of the file
+     * @return the path of the file
+     * @throws IOException if the file cannot be written
+     */
+    private Path obj(String content) throws IOException {
+        return Files.writeString(folder.resolve("test.obj"), content);
+    }
+
+    /**
+     * Test method for {@link ObjLoader#load(Path)}.
+     */
+    @Test
+    void testLoad() throws IOException {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a triangle and a quad with comments, texture coordinates, normals and other statements
+        TriangleMesh mesh = ObjLoader.load(obj("""
+                # a comment
+                mtllib test.mtl
+                o object
+                v 0 0 0
+                v 1.5 0 0
+                v 1.5 2 0
+                v 0 2 -0.25e1
+                vt 0.5 0.5
+                vn 0 0 1
+                usemtl material
+                s off
+                f 1 2 3
+                f 1/1/1 2/1/1 3/1/1 4/1/1
+                """));
+        assertEquals(4, mesh.getVertexCount(), "Wrong number of vertices");
+        assertEquals(3, mesh.getTriangleCount(), "Wrong number of triangles");
+        assertEquals(new Point(1.5, 2, 0), mesh.getVertex(2), "Wrong vertex");
+        assertEquals(new Point(0, 2, -2.5), mesh.getVertex(3), "Wrong vertex with an exponent");
+
+        // TC02: negative (relative) indices, Windows line ends and a missing last line end
+        mesh = ObjLoader.load(obj("v -1 -1 0\r\nv 1 -1 0\r\nv 0 1 0\r\nf -3//-1 -2//-1 -1//-1"));
+        assertEquals(1, mesh.getTriangleCount(), "Wrong number of triangles");
+        assertEquals(new Point(-1, -1, 0), mesh.getVertex(0), "Wrong negative coordinates");
+
+        // TC03: numbers which are not converted exactly in place
+        mesh = ObjLoader.load(obj("v 0.1234567890123456789 1e-30 123456789012345678901\nv 1 0 0\nv 0 1 0\nf 1 2 3\n"));
+        assertEquals(new Point(0.1234567890123456789, 1e-30, 123456789012345678901d), mesh.getVertex(0),
+                "Wrong conversion of a long number");
+
+        // TC04: a face with an index out of range
+        assertThrows(IOException.class, () -> ObjLoader.load(obj("v 0 0 0\nv 1 0 0\nv 0 1 0\nf 1 2 4\n")),
+                "Loaded a face with a missing vertex");
+
+        // TC05: an illegal coordinate
+        assertThrows(IOException.class, () -> ObjLoader.load(obj("v 0 zero 0\n")),
+                "Loaded an illegal coordinate");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: a file without faces
+        assertThrows(IOException.class, () -> ObjLoader.load(obj("v 0 0 0\nv 1 0 0\nv 0 1 0\n")),
+                "Loaded a file without faces");
+
+        // TC11: a face of two vertices
+        assertThrows(IOException.class, () -> ObjLoader.load(obj("v 0 0 0\nv 1 0 0\nf 1 2\n")),
+                "Loaded a face of two vertices");
+
+        // TC12: an index which overflows an int to a legal index (2^32 + 1)
+        assertThrows(IOException.class,
+                () -> ObjLoader.load(obj("v 0 0 0\nv 1 0 0\nv 0 1 0\nf 4294967297 2 3\n")),
+                "Loaded a face with an overflowing index");
+    }
+
+    /**
+     * Test method for {@link ObjLoader#load(Scene, Path)}.
+     */
+    @Test
+    void testLoadIntoScene() throws IOException {
+        Scene scene = new Scene("OBJ scene");
+        TriangleMesh mesh = ObjLoader.load(scene, obj("v 0 0 0\nv 1 0 0\nv 0 1 0\nf 1 2 3\n"));
+        assertNotNull(mesh, "No mesh was loaded");
+        assertEquals(mesh.getBoundingBox().toString(), scene.geometries.getBoundingBox().toString(),
+                "The mesh was not added to the scene");
+    }
+
+    /**
+     * Test method for the flight recorder event of {@link ObjLoader#load(Path)}.
+     *
+     * @throws IOException if the file or the recording cannot be written
+     */
+    @Test
+    void testLoadEvent() throws IOException {
+        Path path = obj("v 0 0 0\nv 1 0 0\nv 0 1 0\nf 1 2 3\n");
+        Path file = folder.resolve("load.jfr");
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("raytracer.SceneLoad");
+            recording.start();
+            ObjLoader.load(path);
+            recording.stop();
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: an event is recorded for the loaded file, with its size
+        assertEquals(1, events.size(), "Wrong number of load events");
+        assertEquals(path.toString(), events.get(0).getString("file"), "Wrong file of the load event");
+        assertEquals(Files.size(path), events.get(0).getLong("size"), "Wrong size of the load event");
+    }
+}
@@ -0,0 +1,129 @@
+package scene;
+
+import geometries.*;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import lighting.AmbientLight;
+import lighting.DirectionalLight;
+import lighting.PointLight;
+import lighting.SpotLight;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import primitives.*;
+import renderer.RayTracerBasic;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for scene.SceneCache class
+ */
+class SceneCacheTests {
+
+    @TempDir
+    Path folder;
+
+    /**
+     * Test method for {@link SceneCache#write(Scene, Path)} and {@link SceneCache#read(Path)}.
+     */
+    @Test
+    void testWriteRead() throws IOException {
+        Material shiny = new Material().setKd(0.5).setKs(new Double3(0.2, 0.3, 0.4)).setShininess(30);
+        Scene scene = new Scene("Cache scene").setBackground(new Color(10, 20, 30))
+                .setAmbientLight(new AmbientLight(new Color(255, 255, 255), 0.1)).setMaxLevel(4).setMinK(0.01);
+        scene.geometries.add(
+                new Sphere(new Point(0, 0, -100), 40).setEmission(new Color(100, 0, 0)).setMaterial(shiny),
+                new Geometries(
+                        new Triangle(new Point(-80, -80, -150), new Point(80, -80, -150), new Point(0, 80, -150))
+                                .setMaterial(shiny),
+                        new Polygon(new Point(-200, -200, -300), new Point(200, -200, -300),
+                                new Point(200, 200, -300), new Point(-200, 200, -300))
+                                .setMaterial(new Material().setKr(0.5).setKt(0.2))),
+                new Plane(new Point(0, -100, 0), new Vector(0, 1, 0)).setEmission(new Color(0, 50, 0)),
+                new Tube(5, new Ray(new Point(60, 0, -120), new Vector(0, 1, 0))),
+                new Cylinder(10, new Ray(new Point(-60, -50, -120), new Vector(0, 1, 0.2)), 60),
+                new TriangleMesh(new double[]{-30, 40, -60, 30, 40, -60, 0, 70, -60, 0, 40, -90},
+                        new int[]{0, 1, 2, 0, 1, 3}).setEmission(new Color(0, 0, 80)).setMaterial(shiny));
+        scene.geometries.buildBVH();
+        scene.lights.add(new DirectionalLight(new Color(100, 100, 100), new Vector(1, -1, -1)));
+        scene.lights.add(new PointLight(new Color(200, 100, 50), new Point(50, 50, 50)).setKl(0.001).setKq(0.0001));
+        scene.lights.add(new SpotLight(new Color(300, 300, 0), new Point(-50, 50, 50), new Vector(1, -1, -2))
+                .setNarrowBeam(5).setKc(2));
+
+        Path path = folder.resolve("scene.rtsc");
+        SceneCache.write(scene, path);
+        Scene cached = SceneCache.read(path);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the scene properties are restored
+        assertEquals(scene.name, cached.name, "Wrong scene name");
+        assertEquals(scene.background.getRgb(), cached.background.getRgb(), "Wrong background");
+        assertEquals(scene.ambientLight.getIntensity().getRgb(), cached.ambientLight.getIntensity().getRgb(),
+                "Wrong ambient light");
+        assertEquals(4, cached.maxLevel, "Wrong maximal level");
+        assertEquals(0.01, cached.minK, "Wrong minimal coefficient");
+        assertEquals(3, cached.lights.size(), "Wrong number of lights");
+        assertTrue(cached.geometries.hasBVH(), "The hierarchy was not rebuilt");
+
+        // TC02: a material shared by several geometries stays shared
+        assertSame(((Geometry) cached.geometries.getGeometries().get(0)).getMaterial(),
+                ((Geometry) ((Geometries) cached.geometries.getGeometries().get(1)).getGeometries().get(0))
+                        .getMaterial(), "The shared material was duplicated");
+
+        // TC03: the cached scene looks the same as the original one
+        RayTracerBasic original = new RayTracerBasic(scene);
+        RayTracerBasic restored = new RayTracerBasic(cached);
+        Random random = new Random(7162);
+        for (int i = 0; i < 2000; ++i) {
+            Ray ray = new Ray(new Point(0, 0, 200),
+                    new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+            assertEquals(original.traceRay(ray).getRgb(), restored.traceRay(ray).getRgb(),
+                    "Wrong color of a ray in the cached scene");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC10: a file which is not a scene cache
+        Path other = Files.writeString(folder.resolve("other.rtsc"), "not a scene");
+        assertThrows(IOException.class, () -> SceneCache.read(other), "Read a file which is not a scene cache");
+
+        // TC11: a truncated file
+        byte[] bytes = Files.readAllBytes(path);
+        Path truncated = Files.write(folder.resolve("truncated.rtsc"), java.util.Arrays.copyOf(bytes, bytes.length / 2));
+        assertThrows(IOException.class, () -> SceneCache.read(truncated), "Read a truncated file");
+    }
+
+    /**
+     * Test method for the flight recorder event of {@link SceneCache#read(Path)}.
+     *
+     * @throws IOException if the files or the recording cannot be written
+     */
+    @Test
+    void testReadEvent() throws IOException {
+        Scene scene = new Scene("Event scene");
+        scene.geometries.add(new Sphere(new Point(0, 0, -100), 40));
+        Path path = folder.resolve("event.rtsc");
+        SceneCache.write(scene, path);
+        Path file = folder.resolve("read.jfr");
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("raytracer.SceneLoad");
+            recording.start();
+            SceneCache.read(path);
+            recording.stop();
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: an event is recorded for the read file, with its size
+        assertEquals(1, events.size(), "Wrong number of load events");
+        assertEquals(path.toString(), events.get(0).getString("file"), "Wrong file of the load event");
+        assertEquals(Files.size(path), events.get(0).getLong("size"), "Wrong size of the load event");
+    }
+}
@@ -0,0 +1,156 @@
+package scene;
+
+import geometries.*;
+import lighting.PointLight;
+import lighting.SpotLight;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import primitives.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for scene.XmlSceneParser class
+ */
+class XmlSceneParserTests {
+
+    @TempDir
+    Path folder;
+
+    /**
+     * Writes a scene description file into the temporary folder
+     *
+     * @param text the content of the file
+     * @return the path of the file
+     * @throws IOException if the file cannot be written
+     */
+    private Path write(String text) throws IOException {
+        return Files.writeString(folder.resolve("scene.xml"), text);
+    }
+
+    /**
+     * Test method for {@link XmlSceneParser#parse(Path)}.
+     */
+    @Test
+    void testParse() throws IOException {
+        Files.writeString(folder.resolve("square.obj"), "v 0 0 0\nv 1 0 0\nv 1 1 0\nv 0 1 0\nf 1 2 3 4\n");
+        Path path = write("""
+                <scene name="test" background-color="75 127 90" max-level="5" min-k="0.01">
+                    <ambient-light color="255 191 191" k="0.1"/>
+                    <camera position="0 0 1000" to="0 0 -1" up="0 1 0" vp-distance="1000" vp-size="200 100">
+                        <image name="test" width="80" height="40"/>
+                    </camera>
+                    <materials>
+                        <material id="shiny" kd="0.5" ks="0.5" shininess="100"/>
+                    </materials>
+                    <lights>
+                        <directional-light color="100 100 100" direction="1 -1 -1"/>
+                        <point-light color="500 300 0" position="-50 50 100" kl="0.0005" kq="0.0005"/>
+                        <spot-light color="500 300 0" position="50 50 100" direction="-1 -1 -2" narrow-beam="10"/>
+                    </lights>
+                    <geometries bvh="true">
+                        <sphere center="0 0 -100" radius="50" emission="0 0 100" material="shiny"/>
+                        <triangle p0="-100 0 -100" p1="0 100 -100" p2="-100 100 -100">
+                            <material kd="0.8" kt="0.3"/>
+                        </triangle>
+                        <polygon vertices="0 0 -200  100 0 -200  100 100 -200  0 100 -200"/>
+                        <plane point="0 -50 0" normal="0 1 0"/>
+                        <tube radius="5" origin="0 0 -300" direction="0 1 0"/>
+                        <cylinder radius="5" origin="50 0 -300" direction="0 1 0" height="40"/>
+                        <geometries>
+                            <mesh file="square.obj" material="shiny"/>
+                        </geometries>
+                    </geometries>
+                </scene>
+                """);
+        SceneDescription description = XmlSceneParser.parse(path);
+        Scene scene = description.scene;
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the scene properties
+        assertEquals("test", scene.name, "Wrong scene name");
+        assertEquals(new Color(75, 127, 90).getRgb(), scene.background.getRgb(), "Wrong background");
+        assertEquals(new Color(25.5, 19.1, 19.1).getRgb(), scene.ambientLight.getIntensity().getRgb(),
+                "Wrong ambient light");
+        assertEquals(5, scene.maxLevel, "Wrong maximal level");
+        assertEquals(0.01, scene.minK, "Wrong minimal coefficient");
+
+        // TC02: the camera
+        assertNotNull(description.camera, "The camera is missing");
+        assertEquals(new Point(0, 0, 1000), description.camera.getP0(), "Wrong camera position");
+        assertEquals(200, description.camera.getWidth(), "Wrong view plane width");
+        assertEquals(100, description.camera.getHeight(), "Wrong view plane height");
+
+        // TC03: the lights
+        assertEquals(3, scene.lights.size(), "Wrong number of lights");
+        PointLight point = (PointLight) scene.lights.get(1);
+        assertEquals(0.0005, point.getKl(), "Wrong linear attenuation");
+        assertEquals(10, ((SpotLight) scene.lights.get(2)).getNarrowBeam(), "Wrong narrow beam");
+
+        // TC04: the geometries and their materials
+        assertTrue(scene.geometries.hasBVH(), "The hierarchy was not built");
+        assertEquals(7, scene.geometries.getGeometries().size(), "Wrong number of geometries");
+        Sphere sphere = (Sphere) scene.geometries.getGeometries().get(0);
+        assertEquals(50, sphere.getRadius(), "Wrong sphere radius");
+        assertEquals(new Color(0, 0, 100).getRgb(), sphere.getEmission().getRgb(), "Wrong emission");
+        assertEquals(100, sphere.getMaterial().nShininess, "Wrong shininess");
+        assertEquals(new Double3(0.3), ((Geometry) scene.geometries.getGeometries().get(1)).getMaterial().kt,
+                "Wrong material of a geometry");
+        TriangleMesh mesh = (TriangleMesh) ((Geometries) scene.geometries.getGeometries().get(6))
+                .getGeometries().get(0);
+        assertEquals(2, mesh.getTriangleCount(), "Wrong mesh");
+        assertSame(sphere.getMaterial(), mesh.getMaterial(), "A material referred twice should be shared");
+
+        // TC05: a file without a camera
+        assertNull(XmlSceneParser.parse(write("<scene/>")).camera, "There should be no camera");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: an unknown element
+        Path unknown = write("<scene><geometries><cube/></geometries></scene>");
+        assertThrows(IOException.class, () -> XmlSceneParser.parse(unknown), "Parsed an unknown element");
+
+        // TC11: a missing attribute
+        Path missing = write("<scene><geometries><sphere radius=\"1\"/></geometries></scene>");
+        assertThrows(IOException.class, () -> XmlSceneParser.parse(missing), "Parsed a sphere without a center");
+
+        // TC12: an illegal number
+        Path illegal = write("<scene><geometries><sphere center=\"0 0 x\" radius=\"1\"/></geometries></scene>");
+        assertThrows(IOException.class, () -> XmlSceneParser.parse(illegal), "Parsed an illegal number");
+
+        // TC13: an illegal geometry
+        Path degenerate = write("<scene><geometries><triangle p0=\"0 0 0\" p1=\"0 0 0\" p2=\"1 0 0\"/></geometries></scene>");
+        assertThrows(IOException.class, () -> XmlSceneParser.parse(degenerate), "Parsed a degenerate triangle");
+
+        // TC14: an unknown material
+        Path material = write("<scene><geometries><sphere center=\"0 0 0\" radius=\"1\" material=\"x\"/></geometries></scene>");
+        assertThrows(IOException.class, () -> XmlSceneParser.parse(material), "Parsed an unknown material");
+
+        // TC15: a file which is not XML
+        Path text = write("not a scene");
+        assertThrows(IOException.class, () -> XmlSceneParser.parse(text), "Parsed a file which is not XML");
+
+        // TC16: a recursion level which is not an integer
+        Path level = write("<scene max-level=\"2.5\"/>");
+        assertThrows(IOException.class, () -> XmlSceneParser.parse(level), "Parsed a fractional recursion level");
+
+        // TC17: an image size which is not an integer
+        Path size = write("""
+                <scene>
+                    <camera position="0 0 1000" to="0 0 -1" up="0 1 0" vp-distance="1000" vp-size="200 100">
+                        <image name="test" width="80.5" height="40"/>
+                    </camera>
+                </scene>""");
+        assertThrows(IOException.class, () -> XmlSceneParser.parse(size), "Parsed a fractional image width");
+
+        // TC18: a shininess which is not an integer
+        Path shininess = write("""
+                <scene><geometries>
+                    <sphere center="0 0 0" radius="1"><material shininess="30.5"/></sphere>
+                </geometries></scene>""");
+        assertThrows(IOException.class, () -> XmlSceneParser.parse(shininess), "Parsed a fractional shininess");
+    }
+}